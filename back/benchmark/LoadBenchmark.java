@@ -0,0 +1,200 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Banc de charge HTTP pour comparer le débit de l'API avec et sans threads virtuels.
+ * <p>
+ * Lance N clients concurrents (un thread virtuel par client) qui envoient en
+ * boucle des requêtes GET authentifiées pendant une durée fixe, puis affiche le
+ * débit, les percentiles de latence et la répartition des erreurs.
+ * </p>
+ * <p>
+ * Programme autonome (JDK 21, sans dépendance), exécuté directement depuis la source :
+ * </p>
+ * <pre>
+ * java benchmark/LoadBenchmark.java --url=http://localhost:9000 --path=/api/topics \
+ *      --clients=1000 --duration=30 --login=user@test.com --password=Secret123!
+ * </pre>
+ *
+ */
+public class LoadBenchmark
+{
+    public static void main(String[] args) throws Exception
+    {
+        String baseUrl = option(args, "url", "http://localhost:9000");
+        String path = option(args, "path", "/api/topics");
+        int clients = Integer.parseInt(option(args, "clients", "1000"));
+        int durationSeconds = Integer.parseInt(option(args, "duration", "30"));
+        int warmupSeconds = Integer.parseInt(option(args, "warmup", "5"));
+        String token = option(args, "token", System.getenv("BENCH_TOKEN"));
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        if (token == null)
+        {
+            token = login(client, baseUrl, option(args, "login", null), option(args, "password", null));
+        }
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(60))
+                .GET()
+                .build();
+
+        System.out.printf("Cible : %s%s, %d clients, %d s (+%d s de chauffe)%n",
+                baseUrl, path, clients, durationSeconds, warmupSeconds);
+
+        long measureStart = System.nanoTime() + Duration.ofSeconds(warmupSeconds).toNanos();
+        long measureEnd = measureStart + Duration.ofSeconds(durationSeconds).toNanos();
+        LongAdder errors = new LongAdder();
+        LongAdder rejected = new LongAdder();
+
+        List<Future<long[]>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor())
+        {
+            for (int i = 0; i < clients; i++)
+            {
+                results.add(executor.submit(() -> runClient(client, request, measureStart, measureEnd, errors, rejected)));
+            }
+
+            List<long[]> perClient = new ArrayList<>(clients);
+            int total = 0;
+            for (Future<long[]> result : results)
+            {
+                long[] clientLatencies = result.get();
+                perClient.add(clientLatencies);
+                total += clientLatencies.length;
+            }
+
+            long[] latencies = new long[total];
+            int offset = 0;
+            for (long[] clientLatencies : perClient)
+            {
+                System.arraycopy(clientLatencies, 0, latencies, offset, clientLatencies.length);
+                offset += clientLatencies.length;
+            }
+            report(latencies, durationSeconds, errors.sum(), rejected.sum());
+        }
+    }
+
+    /**
+     * Boucle d'un client : envoie des requêtes jusqu'à la fin de la mesure.
+     *
+     * @return les latences (ns) des réponses 2xx reçues pendant la fenêtre de mesure
+     */
+    private static long[] runClient(HttpClient client, HttpRequest request, long measureStart, long measureEnd,
+                                    LongAdder errors, LongAdder rejected)
+    {
+        long[] latencies = new long[1024];
+        int count = 0;
+
+        while (System.nanoTime() < measureEnd)
+        {
+            long start = System.nanoTime();
+            int status;
+            try
+            {
+                status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            }
+            catch (Exception e)
+            {
+                status = -1;
+            }
+            long end = System.nanoTime();
+
+            if (start < measureStart)
+            {
+                continue;
+            }
+            if (status >= 200 && status < 300)
+            {
+                if (count == latencies.length)
+                {
+                    latencies = Arrays.copyOf(latencies, count * 2);
+                }
+                latencies[count++] = end - start;
+            }
+            else if (status == 429 || status == 503)
+            {
+                rejected.increment();
+            }
+            else
+            {
+                errors.increment();
+            }
+        }
+        return Arrays.copyOf(latencies, count);
+    }
+
+    private static void report(long[] latencies, int durationSeconds, long errors, long rejected)
+    {
+        Arrays.sort(latencies);
+        System.out.printf("Requêtes réussies : %d (%.1f req/s)%n", latencies.length, (double) latencies.length / durationSeconds);
+        System.out.printf("Rejets 429/503    : %d%n", rejected);
+        System.out.printf("Erreurs           : %d%n", errors);
+        if (latencies.length > 0)
+        {
+            System.out.printf("Latence p50 / p95 / p99 / max : %.1f / %.1f / %.1f / %.1f ms%n",
+                    percentile(latencies, 0.50), percentile(latencies, 0.95),
+                    percentile(latencies, 0.99), latencies[latencies.length - 1] / 1e6);
+        }
+    }
+
+    private static double percentile(long[] sorted, double quantile)
+    {
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1);
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+
+    private static String login(HttpClient client, String baseUrl, String login, String password) throws Exception
+    {
+        if (login == null || password == null)
+        {
+            throw new IllegalArgumentException("Fournir --token (ou BENCH_TOKEN), ou --login et --password");
+        }
+
+        String body = "{\"emailOrUsername\":\"" + login + "\",\"password\":\"" + password + "\"}";
+        HttpResponse<String> response = client.send(
+                HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        Matcher matcher = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"").matcher(response.body());
+        if (response.statusCode() != 200 || !matcher.find())
+        {
+            throw new IllegalStateException("Connexion impossible (" + response.statusCode() + ") : " + response.body());
+        }
+        return matcher.group(1);
+    }
+
+    private static String option(String[] args, String name, String defaultValue)
+    {
+        String prefix = "--" + name + "=";
+        for (String arg : args)
+        {
+            if (arg.startsWith(prefix))
+            {
+                return arg.substring(prefix.length());
+            }
+        }
+        return defaultValue;
+    }
+}
@@ -0,0 +1,71 @@
+package com.openclassrooms.mddapi.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration des caches applicatifs en mémoire.
+ * <p>
+ * Les caches sont des caches Caffeine bornés (politique d'éviction W-TinyLFU)
+ * avec expiration après écriture, utilisés en lecture traversante via
+ * {@code @Cacheable}. Les statistiques sont activées : les compteurs de succès,
+ * d'échecs et d'évictions sont publiés par Actuator sous {@code /actuator/metrics/cache.*}.
+ * </p>
+ * <p>
+ * Le gestionnaire est transactionnel : une invalidation déclenchée dans une
+ * transaction n'est appliquée qu'après sa validation, afin qu'une lecture
+ * concurrente ne remette pas en cache l'ancienne valeur.
+ * </p>
+ *
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig
+{
+    /**
+     * Cache de la liste complète des topics (liste immuable de projections, voir {@code TopicService}).
+     */
+    public static final String TOPICS = "topics";
+
+    /**
+     * Nombre maximal d'entrées par cache.
+     */
+    @Value("${app.cache.topics.max-size:1000}")
+    private long maxSize;
+
+    /**
+     * Durée de vie d'une entrée après son écriture (filet de sécurité en plus de l'invalidation explicite).
+     */
+    @Value("${app.cache.topics.ttl:10m}")
+    private Duration ttl;
+
+    /**
+     * Définit le gestionnaire de caches Caffeine.
+     * <p>
+     * Les noms de caches sont déclarés à l'avance pour qu'Actuator les enregistre
+     * dans Micrometer au démarrage. Les valeurs nulles ne sont pas mises en cache.
+     * </p>
+     *
+     * @return le gestionnaire de caches
+     */
+    @Bean
+    public CacheManager cacheManager()
+    {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats());
+        cacheManager.setAllowNullValues(false);
+        cacheManager.setCacheNames(List.of(TOPICS));
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
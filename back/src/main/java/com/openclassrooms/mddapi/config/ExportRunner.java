@@ -0,0 +1,72 @@
+package com.openclassrooms.mddapi.config;
+
+import com.openclassrooms.mddapi.service.ExportService;
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * Export complet en ligne de commande.
+ * <p>
+ * Actif lorsque {@code app.export.file} est défini : écrit l'export NDJSON (voir
+ * {@link ExportService}) dans le fichier indiqué, compressé avec gzip si son nom
+ * se termine par {@code .gz}, puis arrête l'application. À combiner avec
+ * {@code --spring.main.web-application-type=none} pour ne pas démarrer le serveur HTTP.
+ * </p>
+ *
+ */
+@Component
+@ConditionalOnProperty("app.export.file")
+public class ExportRunner implements ApplicationRunner
+{
+    private final ExportService exportService;
+    private final ConfigurableApplicationContext context;
+
+    /**
+     * Chemin du fichier d'export, remplacé s'il existe.
+     */
+    @Value("${app.export.file}")
+    private Path file;
+
+    /**
+     * Constructeur avec injection des dépendances.
+     *
+     * @param exportService le service d'export complet
+     * @param context       le contexte de l'application, fermé à la fin de l'export
+     */
+    public ExportRunner(ExportService exportService, ConfigurableApplicationContext context)
+    {
+        this.exportService = exportService;
+        this.context = context;
+    }
+
+    /**
+     * Écrit l'export puis arrête l'application.
+     *
+     * @param args les arguments de la ligne de commande
+     * @throws Exception en cas d'erreur d'écriture du fichier
+     */
+    @Override
+    public void run(ApplicationArguments args) throws Exception
+    {
+        long start = System.nanoTime();
+        long lines;
+        try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(file)))
+        {
+            lines = exportService.export(output, file.getFileName().toString().endsWith(".gz"));
+        }
+
+        long durationMillis = (System.nanoTime() - start) / 1_000_000;
+        System.out.printf("Export vers %s : %d lignes en %d ms%n", file, lines, durationMillis);
+
+        System.exit(SpringApplication.exit(context, () -> 0));
+    }
+}
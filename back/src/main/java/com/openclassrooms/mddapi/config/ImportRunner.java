@@ -0,0 +1,74 @@
+package com.openclassrooms.mddapi.config;
+
+import com.openclassrooms.mddapi.dto.ImportReport;
+import com.openclassrooms.mddapi.service.ImportService;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * Import en masse en ligne de commande.
+ * <p>
+ * Actif lorsque {@code app.import.file} est défini : importe le fichier NDJSON
+ * indiqué (voir {@link ImportService}), affiche le rapport puis arrête
+ * l'application. À combiner avec {@code --spring.main.web-application-type=none}
+ * pour ne pas démarrer le serveur HTTP.
+ * </p>
+ *
+ */
+@Component
+@ConditionalOnProperty("app.import.file")
+public class ImportRunner implements ApplicationRunner
+{
+    private final ImportService importService;
+    private final ConfigurableApplicationContext context;
+
+    /**
+     * Chemin du fichier NDJSON à importer.
+     */
+    @Value("${app.import.file}")
+    private Path file;
+
+    /**
+     * Constructeur avec injection des dépendances.
+     *
+     * @param importService le service d'import en masse
+     * @param context       le contexte de l'application, fermé à la fin de l'import
+     */
+    public ImportRunner(ImportService importService, ConfigurableApplicationContext context)
+    {
+        this.importService = importService;
+        this.context = context;
+    }
+
+    /**
+     * Importe le fichier puis arrête l'application (code de sortie 1 si des lignes ont été rejetées).
+     *
+     * @param args les arguments de la ligne de commande
+     * @throws Exception en cas d'erreur de lecture du fichier
+     */
+    @Override
+    public void run(ApplicationArguments args) throws Exception
+    {
+        ImportReport report;
+        try (InputStream input = Files.newInputStream(file))
+        {
+            report = importService.importNdjson(input);
+        }
+
+        System.out.printf("Import de %s : %d posts, %d commentaires, %d lignes rejetées en %d ms (%d lignes/s)%n",
+                file, report.getPosts(), report.getComments(), report.getRejected(), report.getDurationMillis(),
+                report.getRowsPerSecond());
+        report.getErrors().forEach(error -> System.out.println("  " + error));
+
+        int exitCode = report.getRejected() > 0 ? 1 : 0;
+        System.exit(SpringApplication.exit(context, () -> exitCode));
+    }
+}
@@ -0,0 +1,196 @@
+package com.openclassrooms.mddapi.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration de la limitation de débit (préfixe {@code app.rate-limit}).
+ * <p>
+ * Chaque règle associe une route (méthode HTTP et motif de chemin) à un seau à
+ * jetons par client : {@code capacity} requêtes au plus en rafale, le seau se
+ * remplissant entièrement en {@code refill-period}. Le client est identifié
+ * selon {@code key} :
+ * </p>
+ * <ul>
+ *   <li>{@code ip} - adresse IP du client</li>
+ *   <li>{@code user} - identifiant de l'utilisateur connecté (IP si anonyme)</li>
+ *   <li>{@code account} - identifiant de compte lu dans le corps JSON de la requête
+ *       (champ {@code account-field}, ex: tentatives de connexion sur un même compte)</li>
+ * </ul>
+ * <p>
+ * Une requête est soumise à toutes les règles qui lui correspondent.
+ * </p>
+ *
+ */
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitProperties
+{
+    /**
+     * Type de clé identifiant un client.
+     */
+    public enum KeyType
+    {
+        IP,
+        USER,
+        ACCOUNT
+    }
+
+    /**
+     * Active ou désactive la limitation de débit.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Durée d'inactivité au-delà de laquelle un seau est supprimé de la mémoire.
+     */
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    /**
+     * Règles de limitation, par route.
+     */
+    private List<Rule> rules = new ArrayList<>();
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled)
+    {
+        this.enabled = enabled;
+    }
+
+    public Duration getIdleTimeout()
+    {
+        return idleTimeout;
+    }
+
+    public void setIdleTimeout(Duration idleTimeout)
+    {
+        this.idleTimeout = idleTimeout;
+    }
+
+    public List<Rule> getRules()
+    {
+        return rules;
+    }
+
+    public void setRules(List<Rule> rules)
+    {
+        this.rules = rules;
+    }
+
+    /**
+     * Règle de limitation appliquée à une route.
+     */
+    public static class Rule
+    {
+        /**
+         * Méthode HTTP concernée (toutes si absente).
+         */
+        private String method;
+
+        /**
+         * Motif de chemin (syntaxe Ant, ex: {@code /api/auth/login}, {@code /api/posts/**}).
+         */
+        private String path;
+
+        /**
+         * Type de clé identifiant le client.
+         */
+        private KeyType key = KeyType.IP;
+
+        /**
+         * Champ du corps JSON portant l'identifiant de compte (clé {@code account}).
+         */
+        private String accountField = "emailOrUsername";
+
+        /**
+         * Nombre maximal de requêtes en rafale.
+         */
+        private int capacity;
+
+        /**
+         * Durée nécessaire pour remplir entièrement le seau.
+         */
+        private Duration refillPeriod = Duration.ofMinutes(1);
+
+        /**
+         * Ne décompte que les requêtes en échec (statut HTTP 400 ou plus) : le jeton
+         * d'une requête réussie est rendu au seau après son traitement.
+         */
+        private boolean failuresOnly;
+
+        public String getMethod()
+        {
+            return method;
+        }
+
+        public void setMethod(String method)
+        {
+            this.method = method;
+        }
+
+        public String getPath()
+        {
+            return path;
+        }
+
+        public void setPath(String path)
+        {
+            this.path = path;
+        }
+
+        public KeyType getKey()
+        {
+            return key;
+        }
+
+        public void setKey(KeyType key)
+        {
+            this.key = key;
+        }
+
+        public String getAccountField()
+        {
+            return accountField;
+        }
+
+        public void setAccountField(String accountField)
+        {
+            this.accountField = accountField;
+        }
+
+        public int getCapacity()
+        {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity)
+        {
+            this.capacity = capacity;
+        }
+
+        public Duration getRefillPeriod()
+        {
+            return refillPeriod;
+        }
+
+        public void setRefillPeriod(Duration refillPeriod)
+        {
+            this.refillPeriod = refillPeriod;
+        }
+
+        public boolean isFailuresOnly()
+        {
+            return failuresOnly;
+        }
+
+        public void setFailuresOnly(boolean failuresOnly)
+        {
+            this.failuresOnly = failuresOnly;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.openclassrooms.mddapi.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Active l'exécution des tâches planifiées ({@code @Scheduled}).
+ * <p>
+ * Utilisée pour les tâches de maintenance en mémoire, comme la suppression
+ * des seaux de limitation de débit inactifs.
+ * </p>
+ *
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig
+{
+}
@@ -1,7 +1,14 @@
 package com.openclassrooms.mddapi.config;
 
+import com.openclassrooms.mddapi.security.BoundedPasswordEncoder;
 import com.openclassrooms.mddapi.security.CustomUserDetailsService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.openclassrooms.mddapi.security.JwtAuthenticationFilter;
+import com.openclassrooms.mddapi.security.RateLimitFilter;
+import com.openclassrooms.mddapi.security.RateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -29,9 +36,10 @@ import org.springframework.beans.factory.annotation.Value;
  * <ul>
  *   <li>Les règles d'accès aux endpoints (publics vs protégés)</li>
  *   <li>L'authentification JWT via un filtre personnalisé</li>
+ *   <li>La limitation de débit par route (voir {@link RateLimitProperties})</li>
  *   <li>La configuration CORS</li>
  *   <li>Le mode de session stateless (sans session serveur)</li>
- *   <li>L'encodage des mots de passe avec BCrypt</li>
+ *   <li>L'encodage des mots de passe avec BCrypt, sur un pool de threads borné</li>
  * </ul>
  * <p>
  * Les endpoints publics : /api/auth/register, /api/auth/login, /actuator/**
@@ -40,6 +48,7 @@ import org.springframework.beans.factory.annotation.Value;
  */
 @Configuration
 @EnableWebSecurity
+@EnableConfigurationProperties(RateLimitProperties.class)
 public class SecurityConfig
 {
     /**
@@ -52,6 +61,30 @@ public class SecurityConfig
      */
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    /**
+     * Registre de métriques (file et durée du hachage des mots de passe).
+     */
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Nombre de threads dédiés au hachage des mots de passe.
+     * Valeur par défaut : la moitié des cœurs disponibles (au moins 1).
+     */
+    @Value("${app.security.hashing.threads:0}")
+    private int hashingThreads;
+
+    /**
+     * Nombre maximal de demandes de hachage en attente avant rejet (503).
+     */
+    @Value("${app.security.hashing.queue-capacity:64}")
+    private int hashingQueueCapacity;
+
+    /**
+     * Délai conseillé au client après un rejet, en secondes (en-tête Retry-After).
+     */
+    @Value("${app.security.hashing.retry-after:2}")
+    private long hashingRetryAfter;
+
     /**
      * Origines autorisées pour CORS (injectées depuis application.properties).
      * Valeur par défaut : http://localhost:4200
@@ -64,32 +97,43 @@ public class SecurityConfig
      *
      * @param userDetailsService       le service pour charger les utilisateurs
      * @param jwtAuthenticationFilter  le filtre d'authentification JWT
+     * @param meterRegistry            le registre de métriques
      */
-    public SecurityConfig(CustomUserDetailsService userDetailsService, JwtAuthenticationFilter jwtAuthenticationFilter)
+    public SecurityConfig(CustomUserDetailsService userDetailsService, JwtAuthenticationFilter jwtAuthenticationFilter,
+                          MeterRegistry meterRegistry)
     {
         this.userDetailsService = userDetailsService;
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
+        this.meterRegistry = meterRegistry;
     }
 
     /**
      * Configure la chaîne de filtres de sécurité HTTP.
      * <p>
      * Définit les règles d'autorisation, désactive CSRF (non nécessaire en mode stateless),
-     * active CORS, configure le mode session stateless, et ajoute le filtre JWT.
+     * active CORS, configure le mode session stateless, et ajoute le filtre JWT
+     * suivi du filtre de limitation de débit.
      * </p>
      *
-     * @param http l'objet HttpSecurity pour configurer la sécurité
+     * @param http                l'objet HttpSecurity pour configurer la sécurité
+     * @param rateLimiter         le registre des seaux de limitation de débit
+     * @param rateLimitProperties la configuration de la limitation de débit
+     * @param objectMapper        le mapper JSON (réponses 429)
      * @return la chaîne de filtres configurée
      * @throws Exception en cas d'erreur de configuration
      */
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, RateLimiter rateLimiter,
+                                                   RateLimitProperties rateLimitProperties,
+                                                   ObjectMapper objectMapper) throws Exception
     {
         http.csrf(csrf -> csrf.disable())
                 // On active CORS avec notre configuration personnalisée
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 // Configuration des autorisations par endpoint
                 .authorizeHttpRequests(authorize -> authorize
+                        // Reprise d'une réponse asynchrone (SSE, streaming) : la requête initiale a déjà été autorisée
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         // Routes publiques - pas d'authentification requise
                         .requestMatchers("/api/auth/register", "/api/auth/login", "/api/auth/test", "/api/auth/env-check").permitAll()
                         // Endpoints de monitoring publics
@@ -102,7 +146,14 @@ public class SecurityConfig
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 // On ajoute notre filtre JWT avant le filtre d'authentification standard
                 .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
-                
+
+        // On limite le débit après l'authentification JWT (l'utilisateur est connu) et avant les contrôleurs
+        if (rateLimitProperties.isEnabled())
+        {
+            http.addFilterAfter(new RateLimitFilter(rateLimiter, rateLimitProperties, objectMapper, meterRegistry),
+                    JwtAuthenticationFilter.class);
+        }
+
         // On construit et on renvoie la configuration de sécurité
         return http.build();
     }
@@ -111,7 +162,9 @@ public class SecurityConfig
      * Bean pour l'encodage sécurisé des mots de passe.
      * <p>
      * Utilise BCrypt, un algorithme de hashage unidirectionnel adapté
-     * pour les mots de passe.
+     * pour les mots de passe. Le hachage est exécuté sur un pool de threads
+     * borné afin qu'une rafale de connexions ne monopolise pas les threads
+     * de traitement des requêtes (voir {@link BoundedPasswordEncoder}).
      * </p>
      *
      * @return l'encodeur de mots de passe BCrypt
@@ -119,7 +172,11 @@ public class SecurityConfig
     @Bean
     public PasswordEncoder passwordEncoder()
     {
-        return new BCryptPasswordEncoder();
+        int threads = hashingThreads > 0
+                ? hashingThreads
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), threads, hashingQueueCapacity,
+                hashingRetryAfter, meterRegistry);
     }
 
     /**
@@ -0,0 +1,158 @@
+package com.openclassrooms.mddapi.controller;
+
+import com.openclassrooms.mddapi.dto.ImportReport;
+import com.openclassrooms.mddapi.dto.MessageResponse;
+import com.openclassrooms.mddapi.security.CustomUserDetails;
+import com.openclassrooms.mddapi.service.ExportService;
+import com.openclassrooms.mddapi.service.ImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Contrôleur REST des opérations d'administration.
+ * <p>
+ * Réservé aux utilisateurs dont l'email figure dans {@code app.admin.emails}
+ * (liste séparée par des virgules, vide par défaut : personne).
+ * </p>
+ * <p>
+ * Endpoints :
+ * </p>
+ * <ul>
+ *   <li>POST /api/admin/import - Import en masse de posts et de commentaires (NDJSON)</li>
+ *   <li>GET /api/admin/export - Export complet des posts, commentaires et abonnements (NDJSON, gzip optionnel)</li>
+ * </ul>
+ *
+ */
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController
+{
+    /**
+     * Type de contenu des exports non compressés.
+     */
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final ImportService importService;
+    private final ExportService exportService;
+    private final Set<String> adminEmails;
+
+    /**
+     * Constructeur avec injection des dépendances et de la configuration.
+     *
+     * @param importService le service d'import en masse
+     * @param exportService le service d'export complet
+     * @param adminEmails   les emails des administrateurs, séparés par des virgules
+     */
+    public AdminController(ImportService importService, ExportService exportService,
+                           @Value("${app.admin.emails:}") String adminEmails)
+    {
+        this.importService = importService;
+        this.exportService = exportService;
+        this.adminEmails = Arrays.stream(adminEmails.split(","))
+                .map(String::trim)
+                .filter(email -> !email.isEmpty())
+                .map(String::toLowerCase)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * Importe des posts et des commentaires depuis le corps de la requête.
+     * <p>
+     * Le corps est lu en flux, une ligne JSON à la fois : sa taille n'est pas
+     * limitée par la mémoire du serveur. Les lignes invalides sont rejetées sans
+     * interrompre l'import (voir {@link ImportService}).
+     * </p>
+     *
+     * @param request     la requête HTTP dont le corps est au format NDJSON
+     * @param userDetails les détails de l'utilisateur connecté
+     * @return 200 OK avec le rapport d'import, 403 Forbidden si l'utilisateur n'est pas administrateur
+     * @throws IOException en cas d'erreur de lecture du corps de la requête
+     */
+    @PostMapping("/import")
+    public ResponseEntity<?> importPosts(HttpServletRequest request,
+                                         @AuthenticationPrincipal CustomUserDetails userDetails) throws IOException
+    {
+        if (!isAdmin(userDetails))
+        {
+            return forbidden();
+        }
+
+        ImportReport report = importService.importNdjson(request.getInputStream());
+        return ResponseEntity.ok(report);
+    }
+
+    /**
+     * Exporte tous les posts avec leurs commentaires, puis tous les abonnements, en streaming.
+     * <p>
+     * Le fichier est écrit au fil de la lecture en base (voir {@link ExportService}) :
+     * la mémoire consommée ne dépend pas du volume exporté.
+     * </p>
+     *
+     * @param compression la compression de la sortie : {@code none} (par défaut) ou {@code gzip}
+     * @param userDetails les détails de l'utilisateur connecté
+     * @return 200 OK avec le fichier NDJSON, 400 Bad Request si la compression n'est pas prise en charge,
+     * 403 Forbidden si l'utilisateur n'est pas administrateur
+     */
+    @GetMapping("/export")
+    public ResponseEntity<?> export(@RequestParam(defaultValue = "none") String compression,
+                                    @AuthenticationPrincipal CustomUserDetails userDetails)
+    {
+        if (!isAdmin(userDetails))
+        {
+            return forbidden();
+        }
+
+        if (!"none".equals(compression) && !"gzip".equals(compression))
+        {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Compression non prise en charge (none ou gzip)"));
+        }
+
+        boolean gzip = "gzip".equals(compression);
+        String filename = "export-" + LocalDate.now() + (gzip ? ".ndjson.gz" : ".ndjson");
+        StreamingResponseBody body = outputStream -> exportService.export(outputStream, gzip);
+        return ResponseEntity.ok()
+                .contentType(gzip ? MediaType.parseMediaType("application/gzip") : NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+
+    /**
+     * Indique si l'utilisateur connecté est administrateur.
+     *
+     * @param userDetails les détails de l'utilisateur connecté
+     * @return true si son email figure dans {@code app.admin.emails}
+     */
+    private boolean isAdmin(CustomUserDetails userDetails)
+    {
+        return userDetails != null && adminEmails.contains(userDetails.getUsername().toLowerCase());
+    }
+
+    /**
+     * Réponse des opérations refusées aux non-administrateurs.
+     *
+     * @return 403 Forbidden avec un message d'erreur
+     */
+    private static ResponseEntity<MessageResponse> forbidden()
+    {
+        return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                .body(new MessageResponse("Accès réservé aux administrateurs"));
+    }
+}
@@ -6,6 +6,7 @@ import com.openclassrooms.mddapi.dto.MessageResponse;
 import com.openclassrooms.mddapi.dto.RegisterRequest;
 import com.openclassrooms.mddapi.dto.UserResponse;
 import com.openclassrooms.mddapi.entity.User;
+import com.openclassrooms.mddapi.exception.HashingCapacityExceededException;
 import com.openclassrooms.mddapi.repository.UserRepository;
 import com.openclassrooms.mddapi.security.CustomUserDetails;
 import com.openclassrooms.mddapi.security.JwtService;
@@ -79,7 +80,7 @@ public class AuthController
             User user = userService.createUser(request);
 
             // Génère un token JWT
-            String token = jwtService.generateToken(user.getEmail());
+            String token = jwtService.generateToken(user);
 
             // Retourne le token
             return ResponseEntity.ok(new AuthResponse(token));
@@ -99,7 +100,8 @@ public class AuthController
      * </p>
      *
      * @param request les identifiants de connexion (email/username et mot de passe)
-     * @return 200 OK avec le token JWT si succès, 401 Unauthorized sinon
+     * @return 200 OK avec le token JWT si succès, 401 Unauthorized sinon,
+     *         503 Service Unavailable si le hachage des mots de passe est saturé
      */
     @PostMapping("/login")
     public ResponseEntity<?> login(@Valid @RequestBody LoginRequest request)
@@ -111,17 +113,25 @@ public class AuthController
                     new UsernamePasswordAuthenticationToken(request.getEmailOrUsername(), request.getPassword())
             );
 
-            // Récupère l'email depuis les détails de l'utilisateur authentifié
+            // Récupère l'utilisateur authentifié
             CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
-            String email = userDetails.getUsername();
 
             // Génère un token JWT
-            String token = jwtService.generateToken(email);
+            String token = jwtService.generateToken(userDetails);
 
             return ResponseEntity.ok(new AuthResponse(token));
         }
+        catch (HashingCapacityExceededException e)
+        {
+            // Surcharge : ce n'est pas un échec d'authentification (503 via RestExceptionHandler)
+            throw e;
+        }
         catch (Exception e)
         {
+            if (e.getCause() instanceof HashingCapacityExceededException overloaded)
+            {
+                throw overloaded;
+            }
             return ResponseEntity.status(401).body(new MessageResponse("Identifiants invalides"));
         }
     }
@@ -0,0 +1,53 @@
+package com.openclassrooms.mddapi.controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Réponses des requêtes GET conditionnelles (ETag / {@code If-None-Match}).
+ * <p>
+ * Les réponses sont privées et revalidées à chaque utilisation
+ * ({@code Cache-Control: no-cache, private}) : le client conserve le corps et
+ * reçoit un 304 sans corps tant que l'ETag n'a pas changé. Ces en-têtes
+ * remplacent le {@code no-store} ajouté par défaut par Spring Security, qui
+ * empêcherait le client de conserver la réponse.
+ * </p>
+ *
+ */
+final class ConditionalGet
+{
+    /**
+     * Politique de cache des réponses portant un ETag.
+     */
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private ConditionalGet()
+    {
+    }
+
+    /**
+     * Réponse 304 Not Modified, sans corps.
+     *
+     * @param etag l'ETag courant de la ressource
+     * @param <T>  le type du corps de la réponse
+     * @return 304 Not Modified avec l'ETag
+     */
+    static <T> ResponseEntity<T> notModified(String etag)
+    {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(REVALIDATE).build();
+    }
+
+    /**
+     * Réponse 200 OK portant l'ETag de son contenu.
+     *
+     * @param etag l'ETag courant de la ressource, lu avant le contenu
+     * @param body le contenu de la réponse
+     * @param <T>  le type du corps de la réponse
+     * @return 200 OK avec l'ETag et le contenu
+     */
+    static <T> ResponseEntity<T> ok(String etag, T body)
+    {
+        return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).body(body);
+    }
+}
@@ -0,0 +1,74 @@
+package com.openclassrooms.mddapi.controller;
+
+import com.openclassrooms.mddapi.dto.FeedResponse;
+import com.openclassrooms.mddapi.dto.MessageResponse;
+import com.openclassrooms.mddapi.security.CustomUserDetails;
+import com.openclassrooms.mddapi.service.PostService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Contrôleur REST pour le fil d'actualité personnalisé.
+ * <p>
+ * Le fil est construit côté serveur à partir des abonnements de l'utilisateur
+ * connecté et paginé par curseur, afin que la taille des réponses reste
+ * constante quel que soit le nombre total de posts.
+ * </p>
+ * <p>
+ * Endpoints :
+ * </p>
+ * <ul>
+ *   <li>GET /api/feed - Récupération d'une page du fil d'actualité</li>
+ * </ul>
+ *
+ */
+@RestController
+@RequestMapping("/api/feed")
+public class FeedController
+{
+    private final PostService postService;
+
+    /**
+     * Constructeur avec injection du service.
+     *
+     * @param postService le service de gestion des posts
+     */
+    public FeedController(PostService postService)
+    {
+        this.postService = postService;
+    }
+
+    /**
+     * Récupère une page du fil d'actualité de l'utilisateur connecté.
+     * <p>
+     * Les posts sont triés du plus récent au plus ancien. Pour obtenir la page
+     * suivante, le client renvoie la valeur {@code nextCursor} de la réponse
+     * dans le paramètre {@code cursor}.
+     * </p>
+     *
+     * @param cursor      le curseur de la page précédente (optionnel)
+     * @param size        le nombre de posts par page (optionnel, 20 par défaut, 100 maximum)
+     * @param userDetails les détails de l'utilisateur connecté
+     * @return 200 OK avec la page de posts, 400 Bad Request si le curseur est invalide
+     */
+    @GetMapping
+    public ResponseEntity<?> getFeed(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @AuthenticationPrincipal CustomUserDetails userDetails)
+    {
+        try
+        {
+            FeedResponse feed = postService.getFeed(userDetails.getId(), cursor, size);
+            return ResponseEntity.ok(feed);
+        }
+        catch (IllegalArgumentException e)
+        {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+}
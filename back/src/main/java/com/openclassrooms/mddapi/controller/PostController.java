@@ -1,18 +1,25 @@
 package com.openclassrooms.mddapi.controller;
 
+import com.openclassrooms.mddapi.dto.CommentPageResponse;
 import com.openclassrooms.mddapi.dto.CommentRequest;
 import com.openclassrooms.mddapi.dto.CommentResponse;
 import com.openclassrooms.mddapi.dto.MessageResponse;
+import com.openclassrooms.mddapi.dto.PageCursor;
 import com.openclassrooms.mddapi.dto.PostRequest;
 import com.openclassrooms.mddapi.dto.PostResponse;
 import com.openclassrooms.mddapi.security.CustomUserDetails;
 import com.openclassrooms.mddapi.service.CommentService;
+import com.openclassrooms.mddapi.service.ContentVersionService;
 import com.openclassrooms.mddapi.service.PostService;
+import com.openclassrooms.mddapi.service.TrendingService;
 import jakarta.validation.Valid;
 import java.util.List;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * Contrôleur REST pour la gestion des posts (articles) et de leurs commentaires.
@@ -25,9 +32,11 @@ import org.springframework.web.bind.annotation.*;
  * </p>
  * <ul>
  *   <li>POST /api/posts - Création d'un post</li>
- *   <li>GET /api/posts - Récupération de tous les posts</li>
+ *   <li>GET /api/posts - Récupération de tous les posts (contenu complet ou extrait)</li>
+ *   <li>GET /api/posts/stream - Récupération de tous les posts en streaming</li>
+ *   <li>GET /api/posts/trending - Récupération des posts tendance (globalement ou par topic)</li>
  *   <li>GET /api/posts/{id} - Récupération d'un post spécifique avec commentaires</li>
- *   <li>GET /api/posts/{id}/comments - Récupération des commentaires d'un post</li>
+ *   <li>GET /api/posts/{id}/comments - Récupération des commentaires d'un post (paginée avec limit/after)</li>
  *   <li>POST /api/posts/{id}/comments - Ajout d'un commentaire sur un post</li>
  * </ul>
  *
@@ -38,17 +47,24 @@ public class PostController
 {
     private final PostService postService;
     private final CommentService commentService;
+    private final TrendingService trendingService;
+    private final ContentVersionService contentVersionService;
 
     /**
      * Constructeur avec injection des services.
      *
-     * @param postService    le service de gestion des posts
-     * @param commentService le service de gestion des commentaires
+     * @param postService           le service de gestion des posts
+     * @param commentService        le service de gestion des commentaires
+     * @param trendingService       le service de classement des posts tendance
+     * @param contentVersionService le service des versions du contenu (ETags)
      */
-    public PostController(PostService postService, CommentService commentService)
+    public PostController(PostService postService, CommentService commentService, TrendingService trendingService,
+                          ContentVersionService contentVersionService)
     {
         this.postService = postService;
         this.commentService = commentService;
+        this.trendingService = trendingService;
+        this.contentVersionService = contentVersionService;
     }
 
     /**
@@ -79,29 +95,110 @@ public class PostController
 
     /**
      * Récupère tous les articles (sans les commentaires).
+     * <p>
+     * Avec {@code view=excerpt}, chaque article ne porte que son extrait (200
+     * caractères au plus) : le contenu complet n'est lu que par {@code GET /api/posts/{id}}.
+     * </p>
+     * <p>
+     * La réponse porte un ETag : une requête {@code If-None-Match} reçoit un 304
+     * sans lecture en base tant qu'aucun post ni commentaire n'a été créé.
+     * </p>
      *
-     * @return 200 OK avec la liste de tous les posts
+     * @param view       le mode de liste : {@code full} (par défaut, contenu complet) ou {@code excerpt}
+     * @param webRequest la requête, pour l'en-tête {@code If-None-Match}
+     * @return 200 OK avec la liste de tous les posts, 304 Not Modified si elle n'a pas changé,
+     * 400 Bad Request si le mode est inconnu
      */
     @GetMapping
-    public ResponseEntity<List<PostResponse>> getAllPosts()
+    public ResponseEntity<?> getAllPosts(@RequestParam(defaultValue = "full") String view, WebRequest webRequest)
+    {
+        if (!"full".equals(view) && !"excerpt".equals(view))
+        {
+            return ResponseEntity.badRequest().body(new MessageResponse("Mode de liste inconnu (full ou excerpt)"));
+        }
+
+        String etag = contentVersionService.postsEtag(view);
+        if (webRequest.checkNotModified(etag))
+        {
+            return ConditionalGet.notModified(etag);
+        }
+
+        List<PostResponse> posts = postService.getAllPosts("excerpt".equals(view));
+        return ConditionalGet.ok(etag, posts);
+    }
+
+    /**
+     * Récupère tous les articles (sans les commentaires) en streaming.
+     * <p>
+     * Même contenu que {@code GET /api/posts}, mais chaque post est écrit dans la
+     * réponse dès sa lecture en base : la mémoire consommée ne dépend pas du nombre
+     * de posts. À privilégier pour les gros volumes.
+     * </p>
+     *
+     * @return 200 OK avec le tableau JSON des posts, écrit au fil de l'eau
+     */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllPosts()
+    {
+        StreamingResponseBody body = postService::writeAllPosts;
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    /**
+     * Récupère les articles tendance (sans les commentaires).
+     * <p>
+     * Les posts sont classés selon l'activité récente de leurs commentaires, chaque
+     * commentaire comptant de moins en moins à mesure qu'il vieillit.
+     * </p>
+     *
+     * @param topicId l'identifiant du topic (optionnel, tous les topics par défaut)
+     * @param limit   le nombre maximal de posts (optionnel, 20 par défaut)
+     * @return 200 OK avec les posts, du plus au moins tendance
+     */
+    @GetMapping("/trending")
+    public ResponseEntity<List<PostResponse>> getTrendingPosts(
+            @RequestParam(required = false) Long topicId,
+            @RequestParam(required = false) Integer limit)
     {
-        List<PostResponse> posts = postService.getAllPosts();
+        List<PostResponse> posts = trendingService.getTrending(topicId, limit);
         return ResponseEntity.ok(posts);
     }
 
     /**
      * Récupère un article spécifique par son identifiant (avec les commentaires).
+     * <p>
+     * Avec {@code commentsLimit}, seule la première page de commentaires est incluse,
+     * accompagnée de {@code commentCount} et {@code commentsNextCursor}.
+     * </p>
+     * <p>
+     * La réponse porte un ETag : une requête {@code If-None-Match} reçoit un 304
+     * sans lecture en base tant qu'aucun commentaire n'a été ajouté au post.
+     * </p>
      *
-     * @param id l'identifiant du post
-     * @return 200 OK avec le post et ses commentaires, 400 Bad Request si introuvable
+     * @param id            l'identifiant du post
+     * @param commentsLimit la taille de la première page de commentaires (optionnel, tous par défaut)
+     * @param webRequest    la requête, pour l'en-tête {@code If-None-Match}
+     * @return 200 OK avec le post et ses commentaires, 304 Not Modified s'il n'a pas changé,
+     * 400 Bad Request si introuvable
      */
     @GetMapping("/{id}")
-    public ResponseEntity<?> getPostById(@PathVariable Long id)
+    public ResponseEntity<?> getPostById(
+            @PathVariable Long id,
+            @RequestParam(required = false) Integer commentsLimit,
+            WebRequest webRequest)
     {
+        String etag = contentVersionService.postEtag(id, "d" + commentsLimit);
+        if (webRequest.checkNotModified(etag))
+        {
+            return ConditionalGet.notModified(etag);
+        }
+
         try
         {
-            PostResponse post = postService.getPostById(id);
-            return ResponseEntity.ok(post);
+            PostResponse post = postService.getPostById(id, commentsLimit);
+            return ConditionalGet.ok(etag, post);
         }
         catch (IllegalArgumentException e)
         {
@@ -111,15 +208,55 @@ public class PostController
 
     /**
      * Récupère les commentaires d'un article.
+     * <p>
+     * Sans paramètre, retourne la liste complète des commentaires. Avec {@code limit}
+     * et/ou {@code after}, retourne une page de commentaires (du plus ancien au plus
+     * récent) avec le curseur de la page suivante et le nombre total de commentaires.
+     * </p>
      *
-     * @param id l'identifiant du post
-     * @return 200 OK avec la liste des commentaires
+     * @param id         l'identifiant du post
+     * @param limit      la taille de page (optionnel, 20 par défaut en mode paginé, 100 maximum)
+     * @param after      le curseur de la page précédente (optionnel)
+     * @param webRequest la requête, pour l'en-tête {@code If-None-Match}
+     * @return 200 OK avec la liste ou la page de commentaires, 304 Not Modified si elle n'a pas changé,
+     * 400 Bad Request si le curseur est invalide
      */
     @GetMapping("/{id}/comments")
-    public ResponseEntity<List<CommentResponse>> getCommentsByPost(@PathVariable Long id)
+    public ResponseEntity<?> getCommentsByPost(
+            @PathVariable Long id,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after,
+            WebRequest webRequest)
     {
-        List<CommentResponse> comments = commentService.getCommentsByPost(id);
-        return ResponseEntity.ok(comments);
+        if (limit == null && after == null)
+        {
+            String etag = contentVersionService.postEtag(id, "c");
+            if (webRequest.checkNotModified(etag))
+            {
+                return ConditionalGet.notModified(etag);
+            }
+
+            List<CommentResponse> comments = commentService.getCommentsByPost(id);
+            return ConditionalGet.ok(etag, comments);
+        }
+
+        try
+        {
+            // Le curseur est décodé puis réencodé : seule sa forme canonique entre dans l'ETag
+            PageCursor cursor = PageCursor.decode(after);
+            String etag = contentVersionService.postEtag(id, "p" + limit + "." + (cursor != null ? cursor.encode() : ""));
+            if (webRequest.checkNotModified(etag))
+            {
+                return ConditionalGet.notModified(etag);
+            }
+
+            CommentPageResponse page = commentService.getCommentsPage(id, after, limit);
+            return ConditionalGet.ok(etag, page);
+        }
+        catch (IllegalArgumentException e)
+        {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
     }
 
     /**
@@ -0,0 +1,64 @@
+package com.openclassrooms.mddapi.controller;
+
+import com.openclassrooms.mddapi.dto.MessageResponse;
+import com.openclassrooms.mddapi.dto.SearchResponse;
+import com.openclassrooms.mddapi.service.SearchService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Contrôleur REST pour la recherche plein texte.
+ * <p>
+ * La recherche porte sur le titre et le contenu des posts ainsi que sur leurs
+ * commentaires ; elle ignore la casse et les accents.
+ * </p>
+ * <p>
+ * Endpoints :
+ * </p>
+ * <ul>
+ *   <li>GET /api/search - Recherche des posts correspondant à une requête</li>
+ * </ul>
+ *
+ */
+@RestController
+@RequestMapping("/api/search")
+public class SearchController
+{
+    private final SearchService searchService;
+
+    /**
+     * Constructeur avec injection du service.
+     *
+     * @param searchService le service de recherche
+     */
+    public SearchController(SearchService searchService)
+    {
+        this.searchService = searchService;
+    }
+
+    /**
+     * Recherche les posts correspondant à une requête, classés par pertinence.
+     *
+     * @param q     la requête en texte libre
+     * @param limit le nombre maximal de résultats (optionnel, 20 par défaut, 50 maximum)
+     * @return 200 OK avec les résultats, 400 Bad Request si la requête est vide ou trop longue
+     */
+    @GetMapping
+    public ResponseEntity<?> search(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) Integer limit)
+    {
+        try
+        {
+            SearchResponse response = searchService.search(q, limit);
+            return ResponseEntity.ok(response);
+        }
+        catch (IllegalArgumentException e)
+        {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+}
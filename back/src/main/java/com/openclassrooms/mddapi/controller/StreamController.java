@@ -0,0 +1,74 @@
+package com.openclassrooms.mddapi.controller;
+
+import com.openclassrooms.mddapi.security.CustomUserDetails;
+import com.openclassrooms.mddapi.service.FeedStreamService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Contrôleur des flux temps réel (Server-Sent Events).
+ * <p>
+ * Endpoints :
+ * </p>
+ * <ul>
+ *   <li>GET /api/stream/feed - Flux des nouveaux posts des topics suivis</li>
+ * </ul>
+ *
+ */
+@RestController
+@RequestMapping("/api/stream")
+public class StreamController
+{
+    /**
+     * Délai conseillé au client lorsque le nombre maximal de connexions est atteint, en secondes.
+     */
+    private static final int RETRY_AFTER_SECONDS = 30;
+
+    private final FeedStreamService feedStreamService;
+
+    /**
+     * Constructeur avec injection du service.
+     *
+     * @param feedStreamService le service de diffusion des nouveaux posts
+     */
+    public StreamController(FeedStreamService feedStreamService)
+    {
+        this.feedStreamService = feedStreamService;
+    }
+
+    /**
+     * Ouvre le flux des nouveaux posts des topics suivis par l'utilisateur connecté.
+     * <p>
+     * Chaque post créé dans un topic suivi est envoyé dans un événement {@code post}
+     * (identifiant du post en {@code id}, post en mode extrait en JSON dans
+     * {@code data}). Les posts créés pendant une déconnexion ne sont pas rejoués :
+     * à la reconnexion, le client recharge la première page du fil.
+     * </p>
+     *
+     * @param userDetails les détails de l'utilisateur connecté
+     * @return le flux SSE, 503 Service Unavailable avec Retry-After si le nombre maximal de connexions est atteint
+     */
+    @GetMapping(value = "/feed", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamFeed(@AuthenticationPrincipal CustomUserDetails userDetails)
+    {
+        SseEmitter emitter = feedStreamService.connect(userDetails.getId());
+        if (emitter == null)
+        {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(RETRY_AFTER_SECONDS))
+                    .build();
+        }
+
+        // Désactive la mise en tampon des proxys (nginx) pour que chaque événement parte immédiatement
+        return ResponseEntity.ok()
+                .header("X-Accel-Buffering", "no")
+                .body(emitter);
+    }
+}
@@ -3,6 +3,7 @@ package com.openclassrooms.mddapi.controller;
 import com.openclassrooms.mddapi.dto.TopicRequest;
 import com.openclassrooms.mddapi.dto.TopicResponse;
 import com.openclassrooms.mddapi.security.CustomUserDetails;
+import com.openclassrooms.mddapi.service.ContentVersionService;
 import com.openclassrooms.mddapi.service.TopicService;
 import jakarta.validation.Valid;
 import java.util.List;
@@ -14,6 +15,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 /**
  * Contrôleur REST pour la gestion des topics (thèmes).
@@ -35,15 +37,18 @@ import org.springframework.web.bind.annotation.RestController;
 public class TopicController
 {
     private final TopicService topicService;
+    private final ContentVersionService contentVersionService;
 
     /**
-     * Constructeur avec injection du service.
+     * Constructeur avec injection des services.
      *
-     * @param topicService le service de gestion des topics
+     * @param topicService          le service de gestion des topics
+     * @param contentVersionService le service des versions du contenu (ETags)
      */
-    public TopicController(TopicService topicService)
+    public TopicController(TopicService topicService, ContentVersionService contentVersionService)
     {
         this.topicService = topicService;
+        this.contentVersionService = contentVersionService;
     }
 
     /**
@@ -52,17 +57,30 @@ public class TopicController
      * Si l'utilisateur est connecté, le champ 'subscribed' indique
      * s'il est abonné à chaque topic.
      * </p>
+     * <p>
+     * La réponse porte un ETag : une requête {@code If-None-Match} reçoit un 304
+     * sans lecture en base tant qu'aucun topic n'a été créé et que les abonnements
+     * de l'utilisateur n'ont pas changé.
+     * </p>
      *
      * @param userDetails les détails de l'utilisateur connecté (peut être null)
-     * @return 200 OK avec la liste des topics
+     * @param webRequest  la requête, pour l'en-tête {@code If-None-Match}
+     * @return 200 OK avec la liste des topics, 304 Not Modified si elle n'a pas changé
      */
     @GetMapping
     public ResponseEntity<List<TopicResponse>> getAllTopics(
-            @AuthenticationPrincipal CustomUserDetails userDetails)
+            @AuthenticationPrincipal CustomUserDetails userDetails,
+            WebRequest webRequest)
     {
         Long userId = userDetails != null ? userDetails.getId() : null;
+        String etag = contentVersionService.topicsEtag(userId);
+        if (webRequest.checkNotModified(etag))
+        {
+            return ConditionalGet.notModified(etag);
+        }
+
         List<TopicResponse> topics = topicService.getAllTopics(userId);
-        return ResponseEntity.ok(topics);
+        return ConditionalGet.ok(etag, topics);
     }
 
     /**
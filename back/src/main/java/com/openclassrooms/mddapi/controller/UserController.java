@@ -3,11 +3,13 @@ package com.openclassrooms.mddapi.controller;
 import com.openclassrooms.mddapi.dto.MessageResponse;
 import com.openclassrooms.mddapi.dto.UpdateUserRequest;
 import com.openclassrooms.mddapi.dto.UserResponse;
-import com.openclassrooms.mddapi.entity.Topic;
 import com.openclassrooms.mddapi.entity.User;
 import com.openclassrooms.mddapi.repository.UserRepository;
 import com.openclassrooms.mddapi.security.CustomUserDetails;
-import com.openclassrooms.mddapi.service.TopicService;
+import com.openclassrooms.mddapi.security.PrincipalCache;
+import com.openclassrooms.mddapi.security.TokenVersionRegistry;
+import com.openclassrooms.mddapi.service.ContentVersionService;
+import com.openclassrooms.mddapi.service.SubscriptionService;
 import com.openclassrooms.mddapi.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
@@ -38,23 +40,34 @@ public class UserController
 {
     private final UserService userService;
     private final UserRepository userRepository;
-    private final TopicService topicService;
+    private final SubscriptionService subscriptionService;
     private final PasswordEncoder passwordEncoder;
+    private final PrincipalCache principalCache;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final ContentVersionService contentVersionService;
 
     /**
      * Constructeur avec injection des dépendances.
      *
-     * @param userService     le service de gestion des utilisateurs
-     * @param userRepository  le repository des utilisateurs
-     * @param topicService    le service de gestion des topics
-     * @param passwordEncoder l'encodeur de mots de passe
+     * @param userService           le service de gestion des utilisateurs
+     * @param userRepository        le repository des utilisateurs
+     * @param subscriptionService   le service de gestion des abonnements
+     * @param passwordEncoder       l'encodeur de mots de passe
+     * @param principalCache        le cache des utilisateurs authentifiés
+     * @param tokenVersionRegistry  le registre des versions de jetons
+     * @param contentVersionService le service des versions du contenu (ETags)
      */
-    public UserController(UserService userService, UserRepository userRepository, TopicService topicService, PasswordEncoder passwordEncoder)
+    public UserController(UserService userService, UserRepository userRepository, SubscriptionService subscriptionService,
+                          PasswordEncoder passwordEncoder, PrincipalCache principalCache,
+                          TokenVersionRegistry tokenVersionRegistry, ContentVersionService contentVersionService)
     {
         this.userService = userService;
         this.userRepository = userRepository;
-        this.topicService = topicService;
+        this.subscriptionService = subscriptionService;
         this.passwordEncoder = passwordEncoder;
+        this.principalCache = principalCache;
+        this.tokenVersionRegistry = tokenVersionRegistry;
+        this.contentVersionService = contentVersionService;
     }
 
     /**
@@ -63,6 +76,9 @@ public class UserController
      * Tous les champs sont optionnels - seuls les champs fournis seront modifiés.
      * Vérifie l'unicité de l'email et du username si modifiés.
      * Hash le nouveau mot de passe si fourni.
+     * L'utilisateur est retiré du cache des utilisateurs authentifiés. Un changement
+     * d'email ou de mot de passe incrémente la version de jeton de l'utilisateur,
+     * ce qui invalide ses jetons en mode sans état.
      * </p>
      *
      * @param request     les nouvelles données du profil (username, email, password optionnels)
@@ -79,6 +95,7 @@ public class UserController
         {
             User user = userService.findById(userDetails.getId())
                     .orElseThrow(() -> new IllegalArgumentException("Utilisateur introuvable"));
+            boolean usernameChanged = false;
 
             // Mise à jour des champs si fournis
             if (request.getUsername() != null && !request.getUsername().trim().isEmpty())
@@ -90,9 +107,12 @@ public class UserController
                     return ResponseEntity.badRequest()
                             .body(new MessageResponse("Ce nom d'utilisateur est déjà utilisé"));
                 }
+                usernameChanged = !user.getUsername().equals(request.getUsername());
                 user.setUsername(request.getUsername());
             }
 
+            boolean revokeTokens = false;
+
             if (request.getEmail() != null && !request.getEmail().trim().isEmpty())
             {
                 // Vérifier si l'email est déjà utilisé par un autre utilisateur
@@ -102,6 +122,7 @@ public class UserController
                     return ResponseEntity.badRequest()
                             .body(new MessageResponse("Cet email est déjà utilisé"));
                 }
+                revokeTokens = !user.getEmail().equals(request.getEmail());
                 user.setEmail(request.getEmail());
             }
 
@@ -109,10 +130,30 @@ public class UserController
             {
                 // Hasher le nouveau mot de passe
                 user.setPassword(passwordEncoder.encode(request.getPassword()));
+                revokeTokens = true;
+            }
+
+            if (revokeTokens)
+            {
+                user.setTokenVersion(user.getTokenVersion() + 1);
             }
 
             userRepository.save(user);
 
+            if (usernameChanged)
+            {
+                // Le nom d'utilisateur est affiché dans les posts et commentaires : les ETags sont invalidés
+                contentVersionService.allChanged();
+            }
+
+            if (revokeTokens)
+            {
+                tokenVersionRegistry.update(user.getId(), user.getTokenVersion());
+            }
+
+            // L'ancien email est le subject des jetons en cours
+            principalCache.invalidate(userDetails.getUsername());
+
             // Préparer la réponse
             UserResponse response = new UserResponse();
             response.setId(user.getId());
@@ -132,7 +173,8 @@ public class UserController
     /**
      * Abonne l'utilisateur connecté à un topic.
      * <p>
-     * Vérifie que l'utilisateur n'est pas déjà abonné avant d'ajouter l'abonnement.
+     * L'abonnement est ajouté par une seule requête idempotente, sans charger
+     * la liste des abonnements de l'utilisateur.
      * </p>
      *
      * @param topicId     l'identifiant du topic auquel s'abonner
@@ -140,29 +182,18 @@ public class UserController
      * @return 200 OK avec message de confirmation, 400 Bad Request si déjà abonné ou topic introuvable
      */
     @PostMapping("/me/subscriptions/{topicId}")
-    @Transactional
     public ResponseEntity<?> subscribeToTopic(
             @PathVariable Long topicId,
             @AuthenticationPrincipal CustomUserDetails userDetails)
     {
         try
         {
-            // Récupère l'utilisateur et le topic
-            User user = userService.findById(userDetails.getId())
-                    .orElseThrow(() -> new IllegalArgumentException("Utilisateur introuvable"));
-            Topic topic = topicService.findById(topicId);
-
-            // Vérifie si déjà abonné
-            if (user.getSubscriptions().contains(topic))
+            if (!subscriptionService.subscribe(userDetails.getId(), topicId))
             {
                 return ResponseEntity.badRequest()
                         .body(new MessageResponse("Vous êtes déjà abonné à ce thème"));
             }
 
-            // Ajoute l'abonnement
-            user.getSubscriptions().add(topic);
-            userRepository.save(user);
-
             return ResponseEntity.ok(new MessageResponse("Abonnement réussi"));
         }
         catch (IllegalArgumentException e)
@@ -174,7 +205,8 @@ public class UserController
     /**
      * Désabonne l'utilisateur connecté d'un topic.
      * <p>
-     * Vérifie que l'utilisateur est bien abonné avant de retirer l'abonnement.
+     * L'abonnement est retiré par une seule requête idempotente, sans charger
+     * la liste des abonnements de l'utilisateur.
      * </p>
      *
      * @param topicId     l'identifiant du topic duquel se désabonner
@@ -182,29 +214,18 @@ public class UserController
      * @return 200 OK avec message de confirmation, 400 Bad Request si non abonné ou topic introuvable
      */
     @DeleteMapping("/me/subscriptions/{topicId}")
-    @Transactional
     public ResponseEntity<?> unsubscribeFromTopic(
             @PathVariable Long topicId,
             @AuthenticationPrincipal CustomUserDetails userDetails)
     {
         try
         {
-            // Récupère l'utilisateur et le topic
-            User user = userService.findById(userDetails.getId())
-                    .orElseThrow(() -> new IllegalArgumentException("Utilisateur introuvable"));
-            Topic topic = topicService.findById(topicId);
-
-            // Vérifie si l'utilisateur est bien abonné
-            if (!user.getSubscriptions().contains(topic))
+            if (!subscriptionService.unsubscribe(userDetails.getId(), topicId))
             {
                 return ResponseEntity.badRequest()
                         .body(new MessageResponse("Vous n'êtes pas abonné à ce thème"));
             }
 
-            // Retire l'abonnement
-            user.getSubscriptions().remove(topic);
-            userRepository.save(user);
-
             return ResponseEntity.ok(new MessageResponse("Désabonnement réussi"));
         }
         catch (IllegalArgumentException e)
@@ -0,0 +1,82 @@
+package com.openclassrooms.mddapi.dto;
+
+import java.util.List;
+
+/**
+ * DTO de réponse pour une page de commentaires d'un post.
+ * <p>
+ * Les commentaires sont triés du plus ancien au plus récent. Le curseur
+ * {@code nextCursor} permet de demander la page suivante ; il est null
+ * lorsque la dernière page a été atteinte.
+ * </p>
+ *
+ */
+public class CommentPageResponse
+{
+    /**
+     * Commentaires de la page courante.
+     */
+    private List<CommentResponse> comments;
+
+    /**
+     * Curseur opaque à transmettre dans le paramètre {@code after} pour la page suivante.
+     * Null s'il n'y a plus de commentaires à charger.
+     */
+    private String nextCursor;
+
+    /**
+     * Nombre total de commentaires du post.
+     */
+    private long totalCount;
+
+    /**
+     * Constructeur par défaut.
+     */
+    public CommentPageResponse()
+    {
+    }
+
+    /**
+     * Constructeur avec initialisation de la page.
+     *
+     * @param comments   les commentaires de la page
+     * @param nextCursor le curseur de la page suivante (peut être null)
+     * @param totalCount le nombre total de commentaires du post
+     */
+    public CommentPageResponse(List<CommentResponse> comments, String nextCursor, long totalCount)
+    {
+        this.comments = comments;
+        this.nextCursor = nextCursor;
+        this.totalCount = totalCount;
+    }
+
+    public List<CommentResponse> getComments()
+    {
+        return comments;
+    }
+
+    public void setComments(List<CommentResponse> comments)
+    {
+        this.comments = comments;
+    }
+
+    public String getNextCursor()
+    {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor)
+    {
+        this.nextCursor = nextCursor;
+    }
+
+    public long getTotalCount()
+    {
+        return totalCount;
+    }
+
+    public void setTotalCount(long totalCount)
+    {
+        this.totalCount = totalCount;
+    }
+}
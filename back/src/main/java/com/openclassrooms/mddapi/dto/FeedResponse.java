@@ -0,0 +1,65 @@
+package com.openclassrooms.mddapi.dto;
+
+import java.util.List;
+
+/**
+ * DTO de réponse pour une page du fil d'actualité personnalisé.
+ * <p>
+ * Contient les posts des topics auxquels l'utilisateur est abonné, du plus
+ * récent au plus ancien, ainsi que le curseur permettant de demander la page
+ * suivante. Le curseur est null lorsque la dernière page a été atteinte.
+ * </p>
+ *
+ */
+public class FeedResponse
+{
+    /**
+     * Posts de la page courante (sans les commentaires).
+     */
+    private List<PostResponse> posts;
+
+    /**
+     * Curseur opaque à transmettre pour obtenir la page suivante.
+     * Null s'il n'y a plus de posts à charger.
+     */
+    private String nextCursor;
+
+    /**
+     * Constructeur par défaut.
+     */
+    public FeedResponse()
+    {
+    }
+
+    /**
+     * Constructeur avec initialisation de la page.
+     *
+     * @param posts      les posts de la page
+     * @param nextCursor le curseur de la page suivante (peut être null)
+     */
+    public FeedResponse(List<PostResponse> posts, String nextCursor)
+    {
+        this.posts = posts;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<PostResponse> getPosts()
+    {
+        return posts;
+    }
+
+    public void setPosts(List<PostResponse> posts)
+    {
+        this.posts = posts;
+    }
+
+    public String getNextCursor()
+    {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor)
+    {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,131 @@
+package com.openclassrooms.mddapi.dto;
+
+import java.util.List;
+
+/**
+ * DTO du rapport d'un import en masse de posts et de commentaires.
+ * <p>
+ * Indique le nombre de lignes importées et rejetées, les premières erreurs
+ * rencontrées (avec leur numéro de ligne), la durée de l'import et le débit
+ * obtenu en lignes par seconde.
+ * </p>
+ *
+ */
+public class ImportReport
+{
+    /**
+     * Nombre de posts importés.
+     */
+    private long posts;
+
+    /**
+     * Nombre de commentaires importés.
+     */
+    private long comments;
+
+    /**
+     * Nombre de lignes rejetées (invalides ou dont le lot a échoué).
+     */
+    private long rejected;
+
+    /**
+     * Premières erreurs rencontrées, préfixées par leur numéro de ligne.
+     */
+    private List<String> errors;
+
+    /**
+     * Durée de l'import, en millisecondes.
+     */
+    private long durationMillis;
+
+    /**
+     * Débit de l'import, en lignes importées par seconde.
+     */
+    private long rowsPerSecond;
+
+    /**
+     * Constructeur par défaut.
+     */
+    public ImportReport()
+    {
+    }
+
+    /**
+     * Constructeur avec l'ensemble des résultats de l'import.
+     *
+     * @param posts          le nombre de posts importés
+     * @param comments       le nombre de commentaires importés
+     * @param rejected       le nombre de lignes rejetées
+     * @param errors         les premières erreurs rencontrées
+     * @param durationMillis la durée de l'import, en millisecondes
+     */
+    public ImportReport(long posts, long comments, long rejected, List<String> errors, long durationMillis)
+    {
+        this.posts = posts;
+        this.comments = comments;
+        this.rejected = rejected;
+        this.errors = errors;
+        this.durationMillis = durationMillis;
+        this.rowsPerSecond = (posts + comments) * 1000 / Math.max(1, durationMillis);
+    }
+
+    public long getPosts()
+    {
+        return posts;
+    }
+
+    public void setPosts(long posts)
+    {
+        this.posts = posts;
+    }
+
+    public long getComments()
+    {
+        return comments;
+    }
+
+    public void setComments(long comments)
+    {
+        this.comments = comments;
+    }
+
+    public long getRejected()
+    {
+        return rejected;
+    }
+
+    public void setRejected(long rejected)
+    {
+        this.rejected = rejected;
+    }
+
+    public List<String> getErrors()
+    {
+        return errors;
+    }
+
+    public void setErrors(List<String> errors)
+    {
+        this.errors = errors;
+    }
+
+    public long getDurationMillis()
+    {
+        return durationMillis;
+    }
+
+    public void setDurationMillis(long durationMillis)
+    {
+        this.durationMillis = durationMillis;
+    }
+
+    public long getRowsPerSecond()
+    {
+        return rowsPerSecond;
+    }
+
+    public void setRowsPerSecond(long rowsPerSecond)
+    {
+        this.rowsPerSecond = rowsPerSecond;
+    }
+}
@@ -0,0 +1,104 @@
+package com.openclassrooms.mddapi.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Curseur opaque utilisé pour la pagination par clé (keyset pagination).
+ * <p>
+ * Un curseur désigne la dernière ligne d'une page par le couple
+ * {@code (createdAt, id)}. La page suivante commence strictement après
+ * cette ligne, ce qui évite les {@code OFFSET} coûteux et reste stable
+ * lorsque de nouvelles lignes sont insérées entre deux appels.
+ * </p>
+ * <p>
+ * Le curseur est transmis au client sous forme d'une chaîne Base64 URL-safe.
+ * Le client ne doit faire aucune hypothèse sur son contenu et se contenter
+ * de le renvoyer tel quel.
+ * </p>
+ *
+ */
+public class PageCursor
+{
+    /**
+     * Séparateur entre la date et l'identifiant dans la forme décodée.
+     */
+    private static final String SEPARATOR = "|";
+
+    /**
+     * Date de création de la dernière ligne de la page.
+     */
+    private final Instant createdAt;
+
+    /**
+     * Identifiant de la dernière ligne de la page.
+     */
+    private final Long id;
+
+    /**
+     * Constructeur avec les deux composantes de la clé.
+     *
+     * @param createdAt la date de création de la dernière ligne lue
+     * @param id        l'identifiant de la dernière ligne lue
+     */
+    public PageCursor(Instant createdAt, Long id)
+    {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    /**
+     * Décode un curseur reçu du client.
+     *
+     * @param value la valeur opaque transmise par le client (peut être null ou vide)
+     * @return le curseur décodé, ou null si aucune valeur n'est fournie
+     * @throws IllegalArgumentException si la valeur n'est pas un curseur valide
+     */
+    public static PageCursor decode(String value)
+    {
+        if (value == null || value.isBlank())
+        {
+            return null;
+        }
+
+        try
+        {
+            String decoded = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+            int separatorIndex = decoded.lastIndexOf(SEPARATOR);
+            Instant createdAt = Instant.parse(decoded.substring(0, separatorIndex));
+            Long id = Long.valueOf(decoded.substring(separatorIndex + 1));
+            return new PageCursor(createdAt, id);
+        }
+        catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e)
+        {
+            throw new IllegalArgumentException("Curseur de pagination invalide");
+        }
+    }
+
+    /**
+     * Encode le curseur sous sa forme opaque transmise au client.
+     * <p>
+     * La date est conservée avec sa précision complète (microsecondes)
+     * afin que la comparaison côté base ne saute aucune ligne.
+     * </p>
+     *
+     * @return la représentation Base64 URL-safe du curseur
+     */
+    public String encode()
+    {
+        String raw = createdAt.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public Instant getCreatedAt()
+    {
+        return createdAt;
+    }
+
+    public Long getId()
+    {
+        return id;
+    }
+}
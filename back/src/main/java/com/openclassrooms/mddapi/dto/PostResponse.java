@@ -1,5 +1,6 @@
 package com.openclassrooms.mddapi.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.util.List;
 
@@ -25,8 +26,15 @@ public class PostResponse
     
     /**
      * Contenu textuel du post.
+     * Omis dans les listes en mode extrait ({@code view=excerpt}).
      */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private String content;
+
+    /**
+     * Extrait du contenu (200 caractères au plus), à afficher dans les listes.
+     */
+    private String excerpt;
     
     /**
      * Identifiant du topic associé.
@@ -60,6 +68,21 @@ public class PostResponse
      */
     private List<CommentResponse> comments;
 
+    /**
+     * Nombre total de commentaires du post.
+     * Lu dans la colonne dénormalisée {@code posts.comment_count}, y compris dans les listes.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long commentCount;
+
+    /**
+     * Curseur de la page de commentaires suivante, à transmettre à
+     * {@code GET /api/posts/{id}/comments?after=}.
+     * Omis si les commentaires ne sont pas paginés ou s'il n'en reste pas à charger.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String commentsNextCursor;
+
     public Long getId()
     {
         return id;
@@ -90,6 +113,16 @@ public class PostResponse
         this.content = content;
     }
 
+    public String getExcerpt()
+    {
+        return excerpt;
+    }
+
+    public void setExcerpt(String excerpt)
+    {
+        this.excerpt = excerpt;
+    }
+
     public Long getTopicId()
     {
         return topicId;
@@ -149,4 +182,24 @@ public class PostResponse
     {
         this.comments = comments;
     }
+
+    public Long getCommentCount()
+    {
+        return commentCount;
+    }
+
+    public void setCommentCount(Long commentCount)
+    {
+        this.commentCount = commentCount;
+    }
+
+    public String getCommentsNextCursor()
+    {
+        return commentsNextCursor;
+    }
+
+    public void setCommentsNextCursor(String commentsNextCursor)
+    {
+        this.commentsNextCursor = commentsNextCursor;
+    }
 }
@@ -0,0 +1,81 @@
+package com.openclassrooms.mddapi.dto;
+
+import java.util.List;
+
+/**
+ * DTO de réponse d'une recherche plein texte.
+ * <p>
+ * Contient les posts les plus pertinents, du plus pertinent au moins pertinent,
+ * et le nombre total de posts correspondant à la requête (qui peut dépasser
+ * le nombre de posts retournés).
+ * </p>
+ *
+ */
+public class SearchResponse
+{
+    /**
+     * Requête telle que saisie par l'utilisateur.
+     */
+    private String query;
+
+    /**
+     * Nombre total de posts correspondant à la requête.
+     */
+    private int total;
+
+    /**
+     * Posts retenus (sans les commentaires).
+     */
+    private List<PostResponse> results;
+
+    /**
+     * Constructeur par défaut.
+     */
+    public SearchResponse()
+    {
+    }
+
+    /**
+     * Constructeur avec initialisation des résultats.
+     *
+     * @param query   la requête
+     * @param total   le nombre total de posts trouvés
+     * @param results les posts retenus
+     */
+    public SearchResponse(String query, int total, List<PostResponse> results)
+    {
+        this.query = query;
+        this.total = total;
+        this.results = results;
+    }
+
+    public String getQuery()
+    {
+        return query;
+    }
+
+    public void setQuery(String query)
+    {
+        this.query = query;
+    }
+
+    public int getTotal()
+    {
+        return total;
+    }
+
+    public void setTotal(int total)
+    {
+        this.total = total;
+    }
+
+    public List<PostResponse> getResults()
+    {
+        return results;
+    }
+
+    public void setResults(List<PostResponse> results)
+    {
+        this.results = results;
+    }
+}
@@ -9,6 +9,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
@@ -36,9 +37,12 @@ public class Comment
 {
     /**
      * Identifiant unique du commentaire (clé primaire auto-générée).
+     * Attribué par blocs depuis la table {@code id_generators}, comme celui de {@link Post}.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "comment_ids")
+    @TableGenerator(name = "comment_ids", table = "id_generators", pkColumnName = "name", valueColumnName = "next_val",
+            pkColumnValue = "comments", allocationSize = 50)
     private Long id;
 
     /**
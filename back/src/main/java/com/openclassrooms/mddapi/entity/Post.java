@@ -8,11 +8,15 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 
 /**
  * Entité JPA représentant un post (article) de l'application.
@@ -34,11 +38,23 @@ import java.time.Instant;
 @AllArgsConstructor
 public class Post
 {
+    /**
+     * Longueur maximale d'un extrait, en caractères (hors points de suspension).
+     */
+    public static final int EXCERPT_LENGTH = 200;
+
     /**
      * Identifiant unique du post (clé primaire auto-générée).
+     * <p>
+     * Attribué par blocs de 50 depuis la table {@code id_generators} (et non par
+     * AUTO_INCREMENT) : Hibernate peut ainsi regrouper les insertions en lots JDBC,
+     * et l'import en masse réserve ses identifiants dans la même table.
+     * </p>
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "post_ids")
+    @TableGenerator(name = "post_ids", table = "id_generators", pkColumnName = "name", valueColumnName = "next_val",
+            pkColumnValue = "posts", allocationSize = 50)
     @Column(name = "post_id")
     private Long id;
 
@@ -56,12 +72,27 @@ public class Post
     @Column(nullable = false, columnDefinition = "TEXT")
     private String content;
 
+    /**
+     * Extrait du contenu affiché dans les listes (voir {@link #excerptOf(String)}).
+     * Calculé à l'enregistrement : les listes ne lisent jamais la colonne TEXT.
+     */
+    @Column(nullable = false)
+    private String excerpt;
+
     /**
      * Date et heure de création du post.
-     * Initialisée automatiquement à la création de l'instance.
+     * Initialisée automatiquement à la création de l'instance, tronquée à la
+     * microseconde (précision de la colonne) pour que la valeur en mémoire
+     * soit identique à celle relue en base.
      */
     @Column(name = "created_at", nullable = false)
-    private Instant createdAt = Instant.now();
+    private Instant createdAt = Instant.now().truncatedTo(ChronoUnit.MICROS);
+
+    /**
+     * Nombre de commentaires, maintenu par incréments SQL (jamais réécrit par Hibernate).
+     */
+    @Column(name = "comment_count", nullable = false, updatable = false)
+    private long commentCount = 0;
 
     /**
      * Topic (thème) auquel ce post est associé (obligatoire).
@@ -78,4 +109,37 @@ public class Post
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User author;
+
+    /**
+     * Calcule l'extrait d'un contenu : espaces regroupés, tronqué à
+     * {@value #EXCERPT_LENGTH} caractères et suivi de « … » s'il est plus long.
+     * <p>
+     * Même règle que la migration {@code V5__add_post_excerpt.sql} pour les posts existants :
+     * les blancs Unicode (espace insécable compris) sont regroupés comme le fait
+     * {@code [[:space:]]} sous MySQL 8, et la longueur est comptée en points de code
+     * comme {@code CHAR_LENGTH}.
+     * </p>
+     *
+     * @param content le contenu du post
+     * @return l'extrait du contenu
+     */
+    public static String excerptOf(String content)
+    {
+        String text = content.replaceAll("(?U)\\s+", " ").strip();
+        if (text.codePointCount(0, text.length()) <= EXCERPT_LENGTH)
+        {
+            return text;
+        }
+        return text.substring(0, text.offsetByCodePoints(0, EXCERPT_LENGTH)).stripTrailing() + "…";
+    }
+
+    /**
+     * Met à jour l'extrait à partir du contenu avant chaque écriture en base.
+     */
+    @PrePersist
+    @PreUpdate
+    void updateExcerpt()
+    {
+        excerpt = excerptOf(content);
+    }
 }
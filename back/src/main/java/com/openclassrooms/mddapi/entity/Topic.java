@@ -5,6 +5,8 @@ import java.time.Instant;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * Entité JPA représentant un topic (thème) de l'application.
@@ -17,9 +19,15 @@ import lombok.AllArgsConstructor;
  * Les horodatages sont gérés automatiquement via les callbacks JPA
  * {@link #onCreate()} et {@link #onUpdate()}.
  * </p>
+ * <p>
+ * Les topics sont conservés dans le cache de second niveau d'Hibernate
+ * (région {@code topics}) : une lecture par identifiant n'interroge pas la base.
+ * </p>
  *
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "topics")
 @Table(name = "topics")
 @Data
 @NoArgsConstructor
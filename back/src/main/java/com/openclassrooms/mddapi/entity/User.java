@@ -1,5 +1,6 @@
 package com.openclassrooms.mddapi.entity;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
@@ -17,6 +18,8 @@ import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.Instant;
 import java.util.List;
 
@@ -31,9 +34,16 @@ import java.util.List;
  * Les contraintes d'unicité sont appliquées sur l'email et le username
  * pour éviter les doublons.
  * </p>
+ * <p>
+ * Les utilisateurs et leurs abonnements sont conservés dans le cache de second
+ * niveau d'Hibernate (régions {@code users} et {@code userSubscriptions}) : une
+ * lecture par identifiant n'interroge pas la base.
+ * </p>
  *
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
 @Table(name = "users", uniqueConstraints = {
         @UniqueConstraint(columnNames = "email"),
         @UniqueConstraint(columnNames = "username")
@@ -85,16 +95,28 @@ public class User
     @Column(name = "updated_at", nullable = false)
     private Instant updatedAt = Instant.now();
 
+    /**
+     * Version des jetons JWT de l'utilisateur.
+     * Incrémentée lorsqu'un changement doit invalider les jetons en cours
+     * (email ou mot de passe) ; vérifiée par le mode d'authentification sans état.
+     */
+    @Column(name = "token_version", nullable = false)
+    private long tokenVersion = 0;
+
     /**
      * Liste des topics (thèmes) auxquels l'utilisateur est abonné.
      * Relation ManyToMany avec chargement lazy pour optimiser les performances.
      * Un utilisateur peut suivre plusieurs topics, et un topic peut avoir plusieurs abonnés.
+     * Les abonnements sont écrits directement dans la table de jointure (voir
+     * {@code SubscriptionService}), dont la clé unique (user_id, topic_id) garantit l'unicité.
      */
     @ManyToMany(fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "userSubscriptions")
     @JoinTable(
         name = "subscriptions",
         joinColumns = @JoinColumn(name = "user_id"),
-        inverseJoinColumns = @JoinColumn(name = "topic_id")
+        inverseJoinColumns = @JoinColumn(name = "topic_id"),
+        uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "topic_id"})
     )
     @ToString.Exclude
     @EqualsAndHashCode.Exclude
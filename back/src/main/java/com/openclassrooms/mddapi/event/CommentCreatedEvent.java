@@ -0,0 +1,101 @@
+package com.openclassrooms.mddapi.event;
+
+import java.time.Instant;
+
+/**
+ * Événement publié lorsqu'un nouveau commentaire a été enregistré.
+ * <p>
+ * Publié par {@code CommentService.createComment} et consommé après la
+ * validation de la transaction ({@code @TransactionalEventListener}) par les
+ * composants qui maintiennent des vues dérivées des commentaires (index de
+ * recherche, posts tendance, etc.).
+ * </p>
+ * <p>
+ * Comme {@link PostCreatedEvent}, l'événement ne transporte que des valeurs
+ * simples, utilisables hors de la session Hibernate.
+ * </p>
+ *
+ */
+public class CommentCreatedEvent
+{
+    /**
+     * Identifiant du commentaire créé.
+     */
+    private final Long commentId;
+
+    /**
+     * Identifiant du post commenté.
+     */
+    private final Long postId;
+
+    /**
+     * Identifiant du topic du post commenté.
+     */
+    private final Long topicId;
+
+    /**
+     * Identifiant de l'auteur du commentaire.
+     */
+    private final Long authorId;
+
+    /**
+     * Date de création du commentaire.
+     */
+    private final Instant createdAt;
+
+    /**
+     * Contenu du commentaire.
+     */
+    private final String content;
+
+    /**
+     * Constructeur avec l'ensemble des informations du commentaire.
+     *
+     * @param commentId l'identifiant du commentaire créé
+     * @param postId    l'identifiant du post commenté
+     * @param topicId   l'identifiant du topic du post commenté
+     * @param authorId  l'identifiant de l'auteur du commentaire
+     * @param createdAt la date de création du commentaire
+     * @param content   le contenu du commentaire
+     */
+    public CommentCreatedEvent(Long commentId, Long postId, Long topicId, Long authorId, Instant createdAt,
+                               String content)
+    {
+        this.commentId = commentId;
+        this.postId = postId;
+        this.topicId = topicId;
+        this.authorId = authorId;
+        this.createdAt = createdAt;
+        this.content = content;
+    }
+
+    public Long getCommentId()
+    {
+        return commentId;
+    }
+
+    public Long getPostId()
+    {
+        return postId;
+    }
+
+    public Long getTopicId()
+    {
+        return topicId;
+    }
+
+    public Long getAuthorId()
+    {
+        return authorId;
+    }
+
+    public Instant getCreatedAt()
+    {
+        return createdAt;
+    }
+
+    public String getContent()
+    {
+        return content;
+    }
+}
@@ -0,0 +1,100 @@
+package com.openclassrooms.mddapi.event;
+
+import java.time.Instant;
+
+/**
+ * Événement publié lorsqu'un nouveau post a été enregistré.
+ * <p>
+ * Publié par {@code PostService.createPost} et consommé après la validation
+ * de la transaction ({@code @TransactionalEventListener}) par les composants
+ * qui maintiennent des vues dérivées des posts (fils d'actualité, index de
+ * recherche, etc.).
+ * </p>
+ * <p>
+ * L'événement ne transporte que des valeurs simples afin de pouvoir être
+ * traité hors de la session Hibernate qui a créé le post.
+ * </p>
+ *
+ */
+public class PostCreatedEvent
+{
+    /**
+     * Identifiant du post créé.
+     */
+    private final Long postId;
+
+    /**
+     * Identifiant du topic du post.
+     */
+    private final Long topicId;
+
+    /**
+     * Identifiant de l'auteur du post.
+     */
+    private final Long authorId;
+
+    /**
+     * Date de création du post.
+     */
+    private final Instant createdAt;
+
+    /**
+     * Titre du post.
+     */
+    private final String title;
+
+    /**
+     * Contenu du post.
+     */
+    private final String content;
+
+    /**
+     * Constructeur avec l'ensemble des informations du post.
+     *
+     * @param postId    l'identifiant du post créé
+     * @param topicId   l'identifiant du topic du post
+     * @param authorId  l'identifiant de l'auteur du post
+     * @param createdAt la date de création du post
+     * @param title     le titre du post
+     * @param content   le contenu du post
+     */
+    public PostCreatedEvent(Long postId, Long topicId, Long authorId, Instant createdAt, String title, String content)
+    {
+        this.postId = postId;
+        this.topicId = topicId;
+        this.authorId = authorId;
+        this.createdAt = createdAt;
+        this.title = title;
+        this.content = content;
+    }
+
+    public Long getPostId()
+    {
+        return postId;
+    }
+
+    public Long getTopicId()
+    {
+        return topicId;
+    }
+
+    public Long getAuthorId()
+    {
+        return authorId;
+    }
+
+    public Instant getCreatedAt()
+    {
+        return createdAt;
+    }
+
+    public String getTitle()
+    {
+        return title;
+    }
+
+    public String getContent()
+    {
+        return content;
+    }
+}
@@ -0,0 +1,56 @@
+package com.openclassrooms.mddapi.event;
+
+/**
+ * Événement publié lorsqu'un utilisateur s'abonne ou se désabonne d'un topic.
+ * <p>
+ * Consommé après la validation de la transaction par les composants qui
+ * dépendent des abonnements (fils d'actualité en mémoire, etc.).
+ * </p>
+ *
+ */
+public class SubscriptionChangedEvent
+{
+    /**
+     * Identifiant de l'utilisateur concerné.
+     */
+    private final Long userId;
+
+    /**
+     * Identifiant du topic concerné.
+     */
+    private final Long topicId;
+
+    /**
+     * True pour un abonnement, false pour un désabonnement.
+     */
+    private final boolean subscribed;
+
+    /**
+     * Constructeur avec l'ensemble des informations de l'abonnement.
+     *
+     * @param userId     l'identifiant de l'utilisateur
+     * @param topicId    l'identifiant du topic
+     * @param subscribed true pour un abonnement, false pour un désabonnement
+     */
+    public SubscriptionChangedEvent(Long userId, Long topicId, boolean subscribed)
+    {
+        this.userId = userId;
+        this.topicId = topicId;
+        this.subscribed = subscribed;
+    }
+
+    public Long getUserId()
+    {
+        return userId;
+    }
+
+    public Long getTopicId()
+    {
+        return topicId;
+    }
+
+    public boolean isSubscribed()
+    {
+        return subscribed;
+    }
+}
@@ -0,0 +1,33 @@
+package com.openclassrooms.mddapi.exception;
+
+/**
+ * Exception levée lorsque la file de hachage des mots de passe est saturée.
+ * <p>
+ * Convertie en réponse 503 Service Unavailable avec un en-tête {@code Retry-After}
+ * par {@link RestExceptionHandler}.
+ * </p>
+ *
+ */
+public class HashingCapacityExceededException extends RuntimeException
+{
+    /**
+     * Délai conseillé au client avant de réessayer, en secondes.
+     */
+    private final long retryAfterSeconds;
+
+    /**
+     * Constructeur avec le délai conseillé avant un nouvel essai.
+     *
+     * @param retryAfterSeconds le délai conseillé, en secondes
+     */
+    public HashingCapacityExceededException(long retryAfterSeconds)
+    {
+        super("Service momentanément surchargé, veuillez réessayer plus tard");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds()
+    {
+        return retryAfterSeconds;
+    }
+}
@@ -1,5 +1,6 @@
 package com.openclassrooms.mddapi.exception;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -50,6 +51,20 @@ public class RestExceptionHandler
         return ResponseEntity.status(exception.getStatusCode()).body(exception.getReason());
     }
 
+    /**
+     * Gestion de la saturation du hachage des mots de passe (connexion, inscription).
+     *
+     * @param exception l'exception avec le délai conseillé avant un nouvel essai
+     * @return 503 Service Unavailable avec l'en-tête Retry-After
+     */
+    @ExceptionHandler(HashingCapacityExceededException.class)
+    public ResponseEntity<String> handleHashingCapacityExceeded(HashingCapacityExceededException exception)
+    {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(exception.getRetryAfterSeconds()))
+            .body(exception.getMessage());
+    }
+
     /**
      * Gestion de l'erreur de fichier trop volumineux lors de l'upload.
      *
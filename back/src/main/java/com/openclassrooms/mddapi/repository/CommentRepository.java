@@ -1,8 +1,18 @@
 package com.openclassrooms.mddapi.repository;
 
 import com.openclassrooms.mddapi.entity.Comment;
+import com.openclassrooms.mddapi.repository.projection.CommentActivity;
+import com.openclassrooms.mddapi.repository.projection.CommentSummary;
+import jakarta.persistence.QueryHint;
+import java.time.Instant;
 import java.util.List;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -16,6 +26,13 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long>
 {
+    /**
+     * Début commun des requêtes retournant des {@link CommentSummary}.
+     */
+    String SUMMARY_SELECT = "SELECT new com.openclassrooms.mddapi.repository.projection.CommentSummary("
+            + "c.id, c.content, c.post.id, a.id, a.username, c.createdAt) "
+            + "FROM Comment c JOIN c.author a ";
+
     /**
      * Récupère tous les commentaires associés à un post spécifique.
      * <p>
@@ -34,4 +51,93 @@ public interface CommentRepository extends JpaRepository<Comment, Long>
      * @return la liste des commentaires de l'auteur
      */
     List<Comment> findByAuthorId(Long authorId);
+
+    /**
+     * Récupère les commentaires d'un post sous forme de projections, en une seule requête.
+     * <p>
+     * Le nom de l'auteur est lu par jointure, sans charger les entités
+     * {@code Comment} ni {@code User}. Les commentaires sont triés du plus
+     * ancien au plus récent.
+     * </p>
+     *
+     * @param postId l'identifiant du post
+     * @return la liste des commentaires du post avec le nom de leur auteur
+     */
+    @Query(SUMMARY_SELECT + "WHERE c.post.id = :postId ORDER BY c.createdAt ASC, c.id ASC")
+    List<CommentSummary> findSummariesByPostId(@Param("postId") Long postId);
+
+    /**
+     * Récupère la première page des commentaires d'un post.
+     * <p>
+     * Pagination par clé sur {@code (created_at, id)}, du plus ancien au plus récent.
+     * </p>
+     *
+     * @param postId   l'identifiant du post
+     * @param pageable la taille de page (seule la première page est utilisée)
+     * @return les premiers commentaires du post
+     */
+    @Query(SUMMARY_SELECT + "WHERE c.post.id = :postId ORDER BY c.createdAt ASC, c.id ASC")
+    List<CommentSummary> findSummaryPageByPostId(@Param("postId") Long postId, Pageable pageable);
+
+    /**
+     * Récupère la page des commentaires d'un post située après un curseur.
+     * <p>
+     * Ne retourne que les commentaires strictement plus récents que le couple
+     * {@code (createdAt, id)} du curseur.
+     * </p>
+     *
+     * @param postId    l'identifiant du post
+     * @param createdAt la date du dernier commentaire de la page précédente
+     * @param id        l'identifiant du dernier commentaire de la page précédente
+     * @param pageable  la taille de page (seule la première page est utilisée)
+     * @return les commentaires suivants du post
+     */
+    @Query(SUMMARY_SELECT + "WHERE c.post.id = :postId "
+            + "AND (c.createdAt > :createdAt OR (c.createdAt = :createdAt AND c.id > :id)) "
+            + "ORDER BY c.createdAt ASC, c.id ASC")
+    List<CommentSummary> findSummaryPageByPostIdAfter(@Param("postId") Long postId, @Param("createdAt") Instant createdAt,
+                                                      @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Parcourt tous les commentaires sous forme de projections, ligne par ligne.
+     * <p>
+     * Même fonctionnement que {@link PostRepository#streamAllSummaries()} : curseur
+     * JDBC par lots de {@code 500} lignes, flux à consommer dans une transaction
+     * et à fermer par l'appelant.
+     * </p>
+     *
+     * @return le flux des commentaires, triés par identifiant
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(SUMMARY_SELECT + "ORDER BY c.id")
+    Stream<CommentSummary> streamAllSummaries();
+
+    /**
+     * Parcourt tous les commentaires groupés par post, ligne par ligne.
+     * <p>
+     * Même fonctionnement que {@link #streamAllSummaries()}. L'ordre (post, date,
+     * identifiant) suit l'index {@code idx_comments_post_created} : le flux peut
+     * être fusionné avec celui des posts triés par identifiant, sans requête par post.
+     * </p>
+     *
+     * @return le flux des commentaires, triés par post puis du plus ancien au plus récent
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(SUMMARY_SELECT + "ORDER BY c.post.id, c.createdAt, c.id")
+    Stream<CommentSummary> streamAllSummariesByPost();
+
+    /**
+     * Parcourt les commentaires créés depuis une date, avec le post et le topic commentés.
+     * <p>
+     * Utilisée pour initialiser les scores des posts tendance au démarrage ; le
+     * flux doit être consommé dans une transaction et fermé par l'appelant.
+     * </p>
+     *
+     * @param since la date à partir de laquelle les commentaires sont lus
+     * @return le flux des commentaires récents, du plus ancien au plus récent
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.openclassrooms.mddapi.repository.projection.CommentActivity(p.id, p.topic.id, c.createdAt) "
+            + "FROM Comment c JOIN c.post p WHERE c.createdAt >= :since ORDER BY c.createdAt ASC")
+    Stream<CommentActivity> streamActivitySince(@Param("since") Instant since);
 }
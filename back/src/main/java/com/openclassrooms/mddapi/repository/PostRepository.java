@@ -1,8 +1,20 @@
 package com.openclassrooms.mddapi.repository;
 
 import com.openclassrooms.mddapi.entity.Post;
+import com.openclassrooms.mddapi.repository.projection.PostSummary;
+import com.openclassrooms.mddapi.repository.projection.TimelineEntry;
+import java.time.Instant;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -11,11 +23,36 @@ import org.springframework.stereotype.Repository;
  * Fournit les opérations CRUD standards ainsi que des méthodes de recherche
  * personnalisées pour filtrer les posts par topic ou auteur.
  * </p>
+ * <p>
+ * Les requêtes du fil d'actualité utilisent une pagination par clé sur
+ * {@code (created_at, post_id)} : la taille de page est fixée par le
+ * {@link Pageable} et la position par le couple de la dernière ligne lue.
+ * </p>
+ * <p>
+ * Les requêtes de liste retournent des projections {@link PostSummary} : le titre
+ * du topic et le nom de l'auteur sont lus par jointure dans la même requête,
+ * sans hydrater d'entités ni déclencher de chargement paresseux.
+ * </p>
  *
  */
 @Repository
 public interface PostRepository extends JpaRepository<Post, Long>
 {
+    /**
+     * Début commun des requêtes retournant des {@link PostSummary}.
+     */
+    String SUMMARY_SELECT = "SELECT new com.openclassrooms.mddapi.repository.projection.PostSummary("
+            + "p.id, p.title, p.content, p.excerpt, t.id, t.title, a.id, a.username, p.createdAt, p.commentCount) "
+            + "FROM Post p JOIN p.topic t JOIN p.author a ";
+
+    /**
+     * Début commun des requêtes du mode liste : comme {@link #SUMMARY_SELECT},
+     * mais l'extrait remplace le contenu complet, qui n'est pas lu.
+     */
+    String LIST_SELECT = "SELECT new com.openclassrooms.mddapi.repository.projection.PostSummary("
+            + "p.id, p.title, p.excerpt, t.id, t.title, a.id, a.username, p.createdAt, p.commentCount) "
+            + "FROM Post p JOIN p.topic t JOIN p.author a ";
+
     /**
      * Récupère tous les posts associés à un topic spécifique.
      *
@@ -31,4 +68,156 @@ public interface PostRepository extends JpaRepository<Post, Long>
      * @return la liste des posts de l'auteur
      */
     List<Post> findByAuthorId(Long authorId);
+
+    /**
+     * Récupère tous les posts sous forme de projections, en une seule requête.
+     *
+     * @return la liste de tous les posts avec le titre du topic et le nom de l'auteur
+     */
+    @Query(SUMMARY_SELECT)
+    List<PostSummary> findAllSummaries();
+
+    /**
+     * Récupère tous les posts en mode liste (extrait sans contenu complet), en une seule requête.
+     *
+     * @return la liste de tous les posts avec leur extrait, le titre du topic et le nom de l'auteur
+     */
+    @Query(LIST_SELECT)
+    List<PostSummary> findAllListItems();
+
+    /**
+     * Récupère un post avec le titre de son topic et le nom de son auteur, en une seule requête.
+     * <p>
+     * Utilisée par la page de détail : les associations LAZY ne sont pas
+     * chargées une à une après coup.
+     * </p>
+     *
+     * @param id l'identifiant du post
+     * @return un Optional contenant la projection du post si trouvé, vide sinon
+     */
+    @Query(SUMMARY_SELECT + "WHERE p.id = :id")
+    Optional<PostSummary> findSummaryById(@Param("id") Long id);
+
+    /**
+     * Lit le nombre de commentaires d'un post dans la colonne dénormalisée.
+     *
+     * @param id l'identifiant du post
+     * @return un Optional contenant le nombre de commentaires reportés en base, vide si le post n'existe pas
+     */
+    @Query("SELECT p.commentCount FROM Post p WHERE p.id = :id")
+    Optional<Long> findCommentCountById(@Param("id") Long id);
+
+    /**
+     * Parcourt tous les posts sous forme de projections, ligne par ligne.
+     * <p>
+     * Le résultat est lu par un curseur JDBC en avant seulement, par lots de
+     * {@code 500} lignes (taille de fetch). Le flux doit être consommé dans une
+     * transaction et fermé par l'appelant. Avec MySQL, la taille de fetch n'est
+     * respectée qu'avec {@code useCursorFetch=true}, imposé par la configuration
+     * du pool de connexions.
+     * </p>
+     *
+     * @return le flux des posts, triés par identifiant
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(SUMMARY_SELECT + "ORDER BY p.id")
+    Stream<PostSummary> streamAllSummaries();
+
+    /**
+     * Récupère les posts d'un topic sous forme de projections, en une seule requête.
+     *
+     * @param topicId l'identifiant du topic
+     * @return la liste des posts du topic avec le titre du topic et le nom de l'auteur
+     */
+    @Query(SUMMARY_SELECT + "WHERE t.id = :topicId")
+    List<PostSummary> findSummariesByTopicId(@Param("topicId") Long topicId);
+
+    /**
+     * Récupère les posts d'un topic en mode liste (extrait sans contenu complet), en une seule requête.
+     *
+     * @param topicId l'identifiant du topic
+     * @return la liste des posts du topic avec leur extrait, le titre du topic et le nom de l'auteur
+     */
+    @Query(LIST_SELECT + "WHERE t.id = :topicId")
+    List<PostSummary> findListItemsByTopicId(@Param("topicId") Long topicId);
+
+    /**
+     * Récupère la première page du fil d'actualité d'un utilisateur.
+     * <p>
+     * Joint les abonnements de l'utilisateur avec les posts côté base et trie
+     * du plus récent au plus ancien. Seul l'extrait des posts est lu (mode liste).
+     * </p>
+     *
+     * @param userId   l'identifiant de l'utilisateur
+     * @param pageable la taille de page (seule la première page est utilisée)
+     * @return les posts les plus récents des topics suivis
+     */
+    @Query(LIST_SELECT
+            + "WHERE t.id IN (SELECT s.id FROM User u JOIN u.subscriptions s WHERE u.id = :userId) "
+            + "ORDER BY p.createdAt DESC, p.id DESC")
+    List<PostSummary> findFeedFirstPage(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * Récupère la page du fil d'actualité située après un curseur.
+     * <p>
+     * Ne retourne que les posts strictement plus anciens que le couple
+     * {@code (createdAt, id)} du curseur, dans le même ordre que
+     * {@link #findFeedFirstPage(Long, Pageable)}.
+     * </p>
+     *
+     * @param userId    l'identifiant de l'utilisateur
+     * @param createdAt la date de création du dernier post de la page précédente
+     * @param id        l'identifiant du dernier post de la page précédente
+     * @param pageable  la taille de page (seule la première page est utilisée)
+     * @return les posts suivants des topics suivis
+     */
+    @Query(LIST_SELECT
+            + "WHERE t.id IN (SELECT s.id FROM User u JOIN u.subscriptions s WHERE u.id = :userId) "
+            + "AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) "
+            + "ORDER BY p.createdAt DESC, p.id DESC")
+    List<PostSummary> findFeedPageAfter(@Param("userId") Long userId, @Param("createdAt") Instant createdAt,
+                                        @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Récupère les clés de tri des posts du fil d'un utilisateur.
+     * <p>
+     * Utilisée pour construire le fil en mémoire d'un utilisateur absent du cache :
+     * seuls l'identifiant, la date et le topic sont lus, sans hydrater d'entité.
+     * </p>
+     *
+     * @param userId   l'identifiant de l'utilisateur
+     * @param pageable le nombre maximal d'entrées à lire
+     * @return les entrées du fil, de la plus récente à la plus ancienne
+     */
+    @Query("SELECT new com.openclassrooms.mddapi.repository.projection.TimelineEntry(p.id, p.createdAt, p.topic.id) "
+            + "FROM Post p WHERE p.topic.id IN (SELECT s.id FROM User u JOIN u.subscriptions s WHERE u.id = :userId) "
+            + "ORDER BY p.createdAt DESC, p.id DESC")
+    List<TimelineEntry> findFeedEntries(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * Récupère les clés de tri des posts les plus récents d'un topic.
+     * <p>
+     * Utilisée pour compléter un fil en mémoire après un nouvel abonnement.
+     * </p>
+     *
+     * @param topicId  l'identifiant du topic
+     * @param pageable le nombre maximal d'entrées à lire
+     * @return les entrées du topic, de la plus récente à la plus ancienne
+     */
+    @Query("SELECT new com.openclassrooms.mddapi.repository.projection.TimelineEntry(p.id, p.createdAt, p.topic.id) "
+            + "FROM Post p WHERE p.topic.id = :topicId ORDER BY p.createdAt DESC, p.id DESC")
+    List<TimelineEntry> findTopicEntries(@Param("topicId") Long topicId, Pageable pageable);
+
+    /**
+     * Charge un ensemble de posts sous forme de projections, en une seule requête.
+     * <p>
+     * Seul l'extrait des posts est lu (mode liste). L'ordre des résultats n'est
+     * pas garanti : l'appelant le rétablit à partir de la liste d'identifiants.
+     * </p>
+     *
+     * @param ids les identifiants des posts à charger
+     * @return les posts trouvés
+     */
+    @Query(LIST_SELECT + "WHERE p.id IN :ids")
+    List<PostSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
 }
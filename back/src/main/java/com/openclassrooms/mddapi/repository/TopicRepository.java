@@ -1,7 +1,11 @@
 package com.openclassrooms.mddapi.repository;
 
 import com.openclassrooms.mddapi.entity.Topic;
+import com.openclassrooms.mddapi.repository.projection.TopicSummary;
+import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -10,11 +14,26 @@ import org.springframework.stereotype.Repository;
  * Fournit les opérations CRUD standards ainsi que des méthodes de recherche
  * personnalisées.
  * </p>
+ * <p>
+ * La recherche par identifiant est servie par le cache de second niveau d'Hibernate
+ * (région {@code topics}) et retourne une entité attachée à la session courante.
+ * La liste complète est mise en cache par {@code TopicService}, sous forme de projections.
+ * </p>
  *
  */
 @Repository
 public interface TopicRepository extends JpaRepository<Topic, Long>
 {
+    /**
+     * Récupère tous les topics sous forme de projections, sans indicateur d'abonnement.
+     *
+     * @return la liste de tous les topics, triés par identifiant
+     */
+    @Query("SELECT new com.openclassrooms.mddapi.repository.projection.TopicSummary("
+            + "t.id, t.title, t.description, t.createdAt, t.updatedAt) "
+            + "FROM Topic t ORDER BY t.id")
+    List<TopicSummary> findAllSummaries();
+
     /**
      * Recherche un topic par son titre (insensible à la casse).
      *
@@ -22,4 +41,21 @@ public interface TopicRepository extends JpaRepository<Topic, Long>
      * @return le topic trouvé, ou null si aucun topic ne correspond
      */
     Topic findByTitleIgnoreCase(String title);
+
+    /**
+     * Récupère tous les topics avec l'indicateur d'abonnement d'un utilisateur, en une seule requête.
+     * <p>
+     * L'abonnement est déterminé par une sous-requête sur la table de jointure,
+     * servie par sa clé unique {@code (user_id, topic_id)}.
+     * </p>
+     *
+     * @param userId l'identifiant de l'utilisateur
+     * @return les topics avec leur indicateur d'abonnement
+     */
+    @Query("SELECT new com.openclassrooms.mddapi.repository.projection.TopicSummary("
+            + "t.id, t.title, t.description, t.createdAt, t.updatedAt, "
+            + "CASE WHEN EXISTS (SELECT 1 FROM User u JOIN u.subscriptions s WHERE u.id = :userId AND s.id = t.id) "
+            + "THEN true ELSE false END) "
+            + "FROM Topic t ORDER BY t.id")
+    List<TopicSummary> findAllWithSubscriptionFlag(@Param("userId") Long userId);
 }
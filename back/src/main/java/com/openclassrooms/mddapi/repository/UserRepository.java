@@ -1,9 +1,15 @@
 package com.openclassrooms.mddapi.repository;
 
 import com.openclassrooms.mddapi.entity.User;
+import com.openclassrooms.mddapi.repository.projection.SubscriptionSummary;
+import jakarta.persistence.QueryHint;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -89,4 +95,52 @@ public interface UserRepository extends JpaRepository<User, Long>
      */
     @Query("SELECT u FROM User u LEFT JOIN FETCH u.subscriptions WHERE u.email = :email")
     Optional<User> findByEmailWithSubscriptions(@Param("email") String email);
+
+    /**
+     * Récupère les identifiants des utilisateurs abonnés à un topic.
+     * <p>
+     * Seule la table de jointure est lue, aucune entité n'est chargée.
+     * </p>
+     *
+     * @param topicId l'identifiant du topic
+     * @return les identifiants des abonnés
+     */
+    @Query("SELECT u.id FROM User u JOIN u.subscriptions t WHERE t.id = :topicId")
+    List<Long> findSubscriberIdsByTopicId(@Param("topicId") Long topicId);
+
+    /**
+     * Récupère les identifiants des topics suivis par un utilisateur.
+     * <p>
+     * Seule la table de jointure est lue, la collection des abonnements n'est pas chargée.
+     * </p>
+     *
+     * @param userId l'identifiant de l'utilisateur
+     * @return les identifiants des topics suivis
+     */
+    @Query("SELECT t.id FROM User u JOIN u.subscriptions t WHERE u.id = :userId")
+    List<Long> findSubscribedTopicIds(@Param("userId") Long userId);
+
+    /**
+     * Parcourt tous les abonnements avec le nom de l'utilisateur et le titre du topic, ligne par ligne.
+     * <p>
+     * Même fonctionnement que {@link PostRepository#streamAllSummaries()} : curseur
+     * JDBC par lots de {@code 500} lignes, flux à consommer dans une transaction
+     * et à fermer par l'appelant.
+     * </p>
+     *
+     * @return le flux des abonnements, triés par utilisateur puis par topic
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.openclassrooms.mddapi.repository.projection.SubscriptionSummary(u.id, u.username, t.id, t.title) "
+            + "FROM User u JOIN u.subscriptions t ORDER BY u.id, t.id")
+    Stream<SubscriptionSummary> streamAllSubscriptions();
+
+    /**
+     * Lit la version courante des jetons d'un utilisateur, sans charger l'entité.
+     *
+     * @param id l'identifiant de l'utilisateur
+     * @return un Optional contenant la version si l'utilisateur existe, vide sinon
+     */
+    @Query("SELECT u.tokenVersion FROM User u WHERE u.id = :id")
+    Optional<Long> findTokenVersionById(@Param("id") Long id);
 }
@@ -0,0 +1,58 @@
+package com.openclassrooms.mddapi.repository.projection;
+
+import java.time.Instant;
+
+/**
+ * Projection minimale d'un commentaire pour le calcul des posts tendance.
+ * <p>
+ * Alimentée par une expression constructeur JPQL : seuls le post commenté,
+ * son topic et la date du commentaire sont lus, sans hydrater d'entité.
+ * </p>
+ *
+ */
+public class CommentActivity
+{
+    /**
+     * Identifiant du post commenté.
+     */
+    private final Long postId;
+
+    /**
+     * Identifiant du topic du post commenté.
+     */
+    private final Long topicId;
+
+    /**
+     * Date de création du commentaire.
+     */
+    private final Instant createdAt;
+
+    /**
+     * Constructeur utilisé par l'expression constructeur JPQL.
+     *
+     * @param postId    l'identifiant du post commenté
+     * @param topicId   l'identifiant du topic du post
+     * @param createdAt la date de création du commentaire
+     */
+    public CommentActivity(Long postId, Long topicId, Instant createdAt)
+    {
+        this.postId = postId;
+        this.topicId = topicId;
+        this.createdAt = createdAt;
+    }
+
+    public Long getPostId()
+    {
+        return postId;
+    }
+
+    public Long getTopicId()
+    {
+        return topicId;
+    }
+
+    public Instant getCreatedAt()
+    {
+        return createdAt;
+    }
+}
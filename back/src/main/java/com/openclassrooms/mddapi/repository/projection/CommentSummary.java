@@ -0,0 +1,72 @@
+package com.openclassrooms.mddapi.repository.projection;
+
+import java.time.Instant;
+
+/**
+ * Projection en lecture seule d'un commentaire avec le nom de son auteur.
+ * <p>
+ * Alimentée par une expression constructeur JPQL qui joint les tables
+ * {@code comments} et {@code users} dans une seule requête, sans hydrater
+ * d'entité {@code Comment} ni charger paresseusement l'auteur.
+ * </p>
+ *
+ */
+public class CommentSummary
+{
+    private final Long id;
+    private final String content;
+    private final Long postId;
+    private final Long authorId;
+    private final String authorName;
+    private final Instant createdAt;
+
+    /**
+     * Constructeur utilisé par l'expression constructeur JPQL.
+     *
+     * @param id         l'identifiant du commentaire
+     * @param content    le contenu du commentaire
+     * @param postId     l'identifiant du post commenté
+     * @param authorId   l'identifiant de l'auteur
+     * @param authorName le nom d'utilisateur de l'auteur
+     * @param createdAt  la date de création du commentaire
+     */
+    public CommentSummary(Long id, String content, Long postId, Long authorId, String authorName, Instant createdAt)
+    {
+        this.id = id;
+        this.content = content;
+        this.postId = postId;
+        this.authorId = authorId;
+        this.authorName = authorName;
+        this.createdAt = createdAt;
+    }
+
+    public Long getId()
+    {
+        return id;
+    }
+
+    public String getContent()
+    {
+        return content;
+    }
+
+    public Long getPostId()
+    {
+        return postId;
+    }
+
+    public Long getAuthorId()
+    {
+        return authorId;
+    }
+
+    public String getAuthorName()
+    {
+        return authorName;
+    }
+
+    public Instant getCreatedAt()
+    {
+        return createdAt;
+    }
+}
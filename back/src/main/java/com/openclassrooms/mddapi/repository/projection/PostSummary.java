@@ -0,0 +1,130 @@
+package com.openclassrooms.mddapi.repository.projection;
+
+import java.time.Instant;
+
+/**
+ * Projection en lecture seule d'un post avec le titre de son topic et le nom de son auteur.
+ * <p>
+ * Alimentée par une expression constructeur JPQL ({@code SELECT new ...}) qui
+ * joint les tables {@code posts}, {@code topics} et {@code users} dans une seule
+ * requête. Aucune entité n'est hydratée ni attachée au contexte de persistance,
+ * ce qui évite le chargement paresseux des associations (problème N+1) lors
+ * de la conversion d'une liste de posts.
+ * </p>
+ * <p>
+ * En mode liste ({@code PostRepository.LIST_SELECT}), seul l'extrait est lu :
+ * le contenu complet (colonne TEXT) est null.
+ * </p>
+ *
+ */
+public class PostSummary
+{
+    private final Long id;
+    private final String title;
+    private final String content;
+    private final String excerpt;
+    private final Long topicId;
+    private final String topicTitle;
+    private final Long authorId;
+    private final String authorName;
+    private final Instant createdAt;
+    private final long commentCount;
+
+    /**
+     * Constructeur utilisé par l'expression constructeur JPQL.
+     *
+     * @param id           l'identifiant du post
+     * @param title        le titre du post
+     * @param content      le contenu du post
+     * @param excerpt      l'extrait du contenu
+     * @param topicId      l'identifiant du topic
+     * @param topicTitle   le titre du topic
+     * @param authorId     l'identifiant de l'auteur
+     * @param authorName   le nom d'utilisateur de l'auteur
+     * @param createdAt    la date de création du post
+     * @param commentCount le nombre de commentaires du post (colonne dénormalisée)
+     */
+    public PostSummary(Long id, String title, String content, String excerpt, Long topicId, String topicTitle,
+                       Long authorId, String authorName, Instant createdAt, long commentCount)
+    {
+        this.id = id;
+        this.title = title;
+        this.content = content;
+        this.excerpt = excerpt;
+        this.topicId = topicId;
+        this.topicTitle = topicTitle;
+        this.authorId = authorId;
+        this.authorName = authorName;
+        this.createdAt = createdAt;
+        this.commentCount = commentCount;
+    }
+
+    /**
+     * Constructeur utilisé par l'expression constructeur JPQL du mode liste, sans le contenu complet.
+     *
+     * @param id           l'identifiant du post
+     * @param title        le titre du post
+     * @param excerpt      l'extrait du contenu
+     * @param topicId      l'identifiant du topic
+     * @param topicTitle   le titre du topic
+     * @param authorId     l'identifiant de l'auteur
+     * @param authorName   le nom d'utilisateur de l'auteur
+     * @param createdAt    la date de création du post
+     * @param commentCount le nombre de commentaires du post (colonne dénormalisée)
+     */
+    public PostSummary(Long id, String title, String excerpt, Long topicId, String topicTitle,
+                       Long authorId, String authorName, Instant createdAt, long commentCount)
+    {
+        this(id, title, null, excerpt, topicId, topicTitle, authorId, authorName, createdAt, commentCount);
+    }
+
+    public Long getId()
+    {
+        return id;
+    }
+
+    public String getTitle()
+    {
+        return title;
+    }
+
+    public String getContent()
+    {
+        return content;
+    }
+
+    public String getExcerpt()
+    {
+        return excerpt;
+    }
+
+    public Long getTopicId()
+    {
+        return topicId;
+    }
+
+    public String getTopicTitle()
+    {
+        return topicTitle;
+    }
+
+    public Long getAuthorId()
+    {
+        return authorId;
+    }
+
+    public String getAuthorName()
+    {
+        return authorName;
+    }
+
+    public Instant getCreatedAt()
+    {
+        return createdAt;
+    }
+
+    public long getCommentCount()
+    {
+        return commentCount;
+    }
+}
@@ -0,0 +1,53 @@
+package com.openclassrooms.mddapi.repository.projection;
+
+/**
+ * Projection en lecture seule d'un abonnement, avec le nom de l'utilisateur et le titre du topic.
+ * <p>
+ * Alimentée par une expression constructeur JPQL sur la table de jointure
+ * {@code subscriptions}, sans hydrater d'entité {@code User} ni {@code Topic}.
+ * </p>
+ *
+ */
+public class SubscriptionSummary
+{
+    private final Long userId;
+    private final String username;
+    private final Long topicId;
+    private final String topicTitle;
+
+    /**
+     * Constructeur utilisé par l'expression constructeur JPQL.
+     *
+     * @param userId     l'identifiant de l'utilisateur abonné
+     * @param username   le nom d'utilisateur de l'abonné
+     * @param topicId    l'identifiant du topic suivi
+     * @param topicTitle le titre du topic suivi
+     */
+    public SubscriptionSummary(Long userId, String username, Long topicId, String topicTitle)
+    {
+        this.userId = userId;
+        this.username = username;
+        this.topicId = topicId;
+        this.topicTitle = topicTitle;
+    }
+
+    public Long getUserId()
+    {
+        return userId;
+    }
+
+    public String getUsername()
+    {
+        return username;
+    }
+
+    public Long getTopicId()
+    {
+        return topicId;
+    }
+
+    public String getTopicTitle()
+    {
+        return topicTitle;
+    }
+}
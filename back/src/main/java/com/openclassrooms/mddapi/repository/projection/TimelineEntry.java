@@ -0,0 +1,59 @@
+package com.openclassrooms.mddapi.repository.projection;
+
+import java.time.Instant;
+
+/**
+ * Projection minimale d'un post pour la construction des fils d'actualité en mémoire.
+ * <p>
+ * Alimentée par une expression constructeur JPQL ({@code SELECT new ...}) :
+ * seules les colonnes nécessaires au tri et au filtrage par topic sont lues,
+ * sans hydrater d'entité {@code Post}.
+ * </p>
+ *
+ */
+public class TimelineEntry
+{
+    /**
+     * Identifiant du post.
+     */
+    private final Long postId;
+
+    /**
+     * Date de création du post.
+     */
+    private final Instant createdAt;
+
+    /**
+     * Identifiant du topic du post.
+     */
+    private final Long topicId;
+
+    /**
+     * Constructeur utilisé par l'expression constructeur JPQL.
+     *
+     * @param postId    l'identifiant du post
+     * @param createdAt la date de création du post
+     * @param topicId   l'identifiant du topic du post
+     */
+    public TimelineEntry(Long postId, Instant createdAt, Long topicId)
+    {
+        this.postId = postId;
+        this.createdAt = createdAt;
+        this.topicId = topicId;
+    }
+
+    public Long getPostId()
+    {
+        return postId;
+    }
+
+    public Instant getCreatedAt()
+    {
+        return createdAt;
+    }
+
+    public Long getTopicId()
+    {
+        return topicId;
+    }
+}
@@ -0,0 +1,113 @@
+package com.openclassrooms.mddapi.repository.projection;
+
+import java.time.Instant;
+
+/**
+ * Projection d'un topic accompagnée de l'indicateur d'abonnement d'un utilisateur.
+ * <p>
+ * Alimentée par une expression constructeur JPQL ({@code SELECT new ...}) : la
+ * liste des topics et l'abonnement de l'utilisateur à chacun sont lus en une
+ * seule requête, sans hydrater d'entité ni charger la collection des abonnements.
+ * </p>
+ * <p>
+ * Immuable : la liste des topics mise en cache est partagée entre les requêtes.
+ * </p>
+ *
+ */
+public class TopicSummary
+{
+    /**
+     * Identifiant du topic.
+     */
+    private final Long id;
+
+    /**
+     * Titre du topic.
+     */
+    private final String title;
+
+    /**
+     * Description du topic.
+     */
+    private final String description;
+
+    /**
+     * Date de création du topic.
+     */
+    private final Instant createdAt;
+
+    /**
+     * Date de dernière modification du topic.
+     */
+    private final Instant updatedAt;
+
+    /**
+     * Indique si l'utilisateur est abonné au topic.
+     */
+    private final boolean subscribed;
+
+    /**
+     * Constructeur utilisé par l'expression constructeur JPQL.
+     *
+     * @param id          l'identifiant du topic
+     * @param title       le titre du topic
+     * @param description la description du topic
+     * @param createdAt   la date de création du topic
+     * @param updatedAt   la date de dernière modification du topic
+     * @param subscribed  true si l'utilisateur est abonné au topic
+     */
+    public TopicSummary(Long id, String title, String description, Instant createdAt, Instant updatedAt,
+                        boolean subscribed)
+    {
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.subscribed = subscribed;
+    }
+
+    /**
+     * Constructeur utilisé par l'expression constructeur JPQL, sans indicateur d'abonnement.
+     *
+     * @param id          l'identifiant du topic
+     * @param title       le titre du topic
+     * @param description la description du topic
+     * @param createdAt   la date de création du topic
+     * @param updatedAt   la date de dernière modification du topic
+     */
+    public TopicSummary(Long id, String title, String description, Instant createdAt, Instant updatedAt)
+    {
+        this(id, title, description, createdAt, updatedAt, false);
+    }
+
+    public Long getId()
+    {
+        return id;
+    }
+
+    public String getTitle()
+    {
+        return title;
+    }
+
+    public String getDescription()
+    {
+        return description;
+    }
+
+    public Instant getCreatedAt()
+    {
+        return createdAt;
+    }
+
+    public Instant getUpdatedAt()
+    {
+        return updatedAt;
+    }
+
+    public boolean isSubscribed()
+    {
+        return subscribed;
+    }
+}
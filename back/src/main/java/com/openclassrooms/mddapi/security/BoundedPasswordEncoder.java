@@ -0,0 +1,165 @@
+package com.openclassrooms.mddapi.security;
+
+import com.openclassrooms.mddapi.exception.HashingCapacityExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Encodeur de mots de passe exécutant le hachage sur un pool de threads borné.
+ * <p>
+ * Le hachage BCrypt est volontairement coûteux en CPU. Exécuté directement sur
+ * les threads de Tomcat, un afflux de connexions (rafale de tentatives, reconnexion
+ * massive après un déploiement) occupe tous les cœurs et dégrade les endpoints de
+ * lecture. Ici, le hachage est confié à un nombre fixe de threads dédiés ; les
+ * demandes en attente sont placées dans une file bornée et, lorsque celle-ci est
+ * pleine, rejetées immédiatement par une {@link HashingCapacityExceededException}
+ * (503 avec {@code Retry-After}).
+ * </p>
+ * <p>
+ * Métriques publiées :
+ * </p>
+ * <ul>
+ *   <li>{@code auth.hashing.queue.size} - nombre de demandes en attente</li>
+ *   <li>{@code auth.hashing.active} - nombre de hachages en cours</li>
+ *   <li>{@code auth.hashing.duration} - durée du hachage (tag {@code operation} : encode / matches)</li>
+ *   <li>{@code auth.hashing.wait} - temps passé dans la file</li>
+ *   <li>{@code auth.hashing.rejected} - demandes rejetées faute de capacité</li>
+ * </ul>
+ *
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, DisposableBean
+{
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long retryAfterSeconds;
+
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Timer waitTimer;
+    private final Counter rejectedCounter;
+
+    /**
+     * Construit l'encodeur et son pool de hachage.
+     *
+     * @param delegate          l'encodeur effectuant le hachage (BCrypt)
+     * @param threads           le nombre de threads de hachage
+     * @param queueCapacity     le nombre maximal de demandes en attente
+     * @param retryAfterSeconds le délai conseillé au client en cas de rejet, en secondes
+     * @param meterRegistry     le registre de métriques
+     */
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, long retryAfterSeconds,
+                                  MeterRegistry meterRegistry)
+    {
+        this.delegate = delegate;
+        this.retryAfterSeconds = retryAfterSeconds;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("auth.hashing.queue.size", executor, pool -> pool.getQueue().size())
+                .description("Demandes de hachage en attente")
+                .register(meterRegistry);
+        Gauge.builder("auth.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Hachages en cours")
+                .register(meterRegistry);
+        this.encodeTimer = Timer.builder("auth.hashing.duration").tag("operation", "encode").register(meterRegistry);
+        this.matchesTimer = Timer.builder("auth.hashing.duration").tag("operation", "matches").register(meterRegistry);
+        this.waitTimer = Timer.builder("auth.hashing.wait")
+                .description("Temps d'attente dans la file de hachage")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("auth.hashing.rejected")
+                .description("Demandes de hachage rejetées faute de capacité")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword)
+    {
+        return submit(() -> encodeTimer.record(() -> delegate.encode(rawPassword)));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword)
+    {
+        return submit(() -> matchesTimer.record(() -> delegate.matches(rawPassword, encodedPassword)));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword)
+    {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Arrête le pool de hachage à la fermeture du contexte.
+     */
+    @Override
+    public void destroy()
+    {
+        executor.shutdown();
+    }
+
+    /**
+     * Soumet une opération de hachage au pool et attend son résultat.
+     *
+     * @param <T>       le type du résultat
+     * @param operation l'opération à exécuter
+     * @return le résultat de l'opération
+     * @throws HashingCapacityExceededException si la file d'attente est pleine
+     */
+    private <T> T submit(Callable<T> operation)
+    {
+        long queuedAt = System.nanoTime();
+        Future<T> future;
+        try
+        {
+            future = executor.submit(() -> {
+                waitTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                return operation.call();
+            });
+        }
+        catch (RejectedExecutionException e)
+        {
+            rejectedCounter.increment();
+            throw new HashingCapacityExceededException(retryAfterSeconds);
+        }
+
+        try
+        {
+            return future.get();
+        }
+        catch (InterruptedException e)
+        {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Hachage du mot de passe interrompu", e);
+        }
+        catch (ExecutionException e)
+        {
+            if (e.getCause() instanceof RuntimeException runtimeException)
+            {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
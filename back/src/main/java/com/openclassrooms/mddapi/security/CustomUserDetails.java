@@ -7,10 +7,13 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 /**
- * Adaptateur pour l'entité User vers l'interface UserDetails de Spring Security.
+ * Utilisateur authentifié, au sens de l'interface UserDetails de Spring Security.
  * <p>
- * Permet à Spring Security d'utiliser notre entité {@link User} personnalisée
- * tout en respectant le contrat {@link UserDetails}.
+ * Instantané immuable des seuls champs utiles à l'authentification (identifiant,
+ * email, username, mot de passe haché, version de jeton), copiés depuis l'entité
+ * {@link User} : il peut être partagé entre threads et conservé en cache sans
+ * référence à une entité détachée ni à ses associations paresseuses. La copie
+ * mise en cache ne contient pas le mot de passe (voir {@link #withoutPassword()}).
  * </p>
  * <p>
  * Note : Les fonctionnalités avancées (expiration de compte, verrouillage, etc.)
@@ -20,19 +23,55 @@ import org.springframework.security.core.userdetails.UserDetails;
  */
 public class CustomUserDetails implements UserDetails
 {
+    private final Long id;
+    private final String email;
+    private final String username;
+
+    /**
+     * Mot de passe haché, null dans les copies conservées en cache ou construites depuis un jeton.
+     */
+    private final String password;
+
+    private final long tokenVersion;
+
+    /**
+     * Constructeur avec l'ensemble des champs.
+     *
+     * @param id           l'identifiant de l'utilisateur
+     * @param email        l'email de l'utilisateur (identifiant de connexion)
+     * @param username     le nom d'utilisateur
+     * @param password     le mot de passe haché (peut être null)
+     * @param tokenVersion la version de jeton de l'utilisateur
+     */
+    public CustomUserDetails(Long id, String email, String username, String password, long tokenVersion)
+    {
+        this.id = id;
+        this.email = email;
+        this.username = username;
+        this.password = password;
+        this.tokenVersion = tokenVersion;
+    }
+
     /**
-     * Entité utilisateur encapsulée.
+     * Copie les champs d'authentification d'une entité User.
+     *
+     * @param user l'entité utilisateur
+     * @return les détails de l'utilisateur, avec son mot de passe haché
      */
-    private final User user;
-    
+    public static CustomUserDetails of(User user)
+    {
+        return new CustomUserDetails(user.getId(), user.getEmail(), user.getUsername(), user.getPassword(),
+                user.getTokenVersion());
+    }
+
     /**
-     * Constructeur avec l'entité User.
+     * Copie sans le mot de passe haché, destinée à être conservée en cache.
      *
-     * @param user l'entité utilisateur à encapsuler
+     * @return les détails de l'utilisateur sans mot de passe
      */
-    public CustomUserDetails(User user)
+    public CustomUserDetails withoutPassword()
     {
-        this.user = user;
+        return password == null ? this : new CustomUserDetails(id, email, username, null, tokenVersion);
     }
 
     /**
@@ -57,7 +96,7 @@ public class CustomUserDetails implements UserDetails
     @Override
     public String getPassword()
     {
-        return user.getPassword();
+        return password;
     }
 
     /**
@@ -68,7 +107,7 @@ public class CustomUserDetails implements UserDetails
     @Override
     public String getUsername()
     {
-        return user.getEmail();
+        return email;
     }
 
     /**
@@ -128,22 +167,44 @@ public class CustomUserDetails implements UserDetails
     }
 
     /**
-     * Retourne l'entité User encapsulée.
+     * Récupère l'identifiant de l'utilisateur.
+     *
+     * @return l'ID de l'utilisateur
+     */
+    public Long getId()
+    {
+        return id;
+    }
+
+    /**
+     * Récupère le nom d'utilisateur affiché (le username de Spring Security est l'email).
      *
-     * @return l'entité utilisateur
+     * @return le nom d'utilisateur
      */
-    public User getUser()
+    public String getDisplayName()
     {
-        return user;
+        return username;
+    }
+
+    public long getTokenVersion()
+    {
+        return tokenVersion;
     }
 
     /**
-     * Récupère l'identifiant de l'utilisateur.
+     * Construit un utilisateur authentifié à partir des claims d'un jeton, sans accès à la base.
+     * <p>
+     * Utilisé par le mode sans état : l'utilisateur ne contient pas de mot de passe.
+     * </p>
      *
-     * @return l'ID de l'utilisateur
+     * @param id           l'identifiant de l'utilisateur
+     * @param email        l'email de l'utilisateur (subject du jeton)
+     * @param username     le nom d'utilisateur
+     * @param tokenVersion la version du jeton
+     * @return les détails de l'utilisateur
      */
-    public Long getId()
+    public static CustomUserDetails fromToken(Long id, String email, String username, long tokenVersion)
     {
-        return user.getId();
+        return new CustomUserDetails(id, email, username, null, tokenVersion);
     }
 }
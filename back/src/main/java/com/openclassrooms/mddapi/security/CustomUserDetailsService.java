@@ -53,6 +53,6 @@ public class CustomUserDetailsService implements UserDetailsService
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
         
         // On convertit l'entité en UserDetails exploitable par Spring Security
-        return new CustomUserDetails(user);
+        return CustomUserDetails.of(user);
     }
 }
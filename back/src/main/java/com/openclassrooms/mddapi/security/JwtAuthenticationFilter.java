@@ -1,9 +1,11 @@
 package com.openclassrooms.mddapi.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import java.io.IOException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -24,6 +26,13 @@ import org.springframework.web.filter.OncePerRequestFilter;
  * Les endpoints publics (login, register) sont exclus de ce filtre.
  * </p>
  * <p>
+ * En mode sans état ({@code app.security.stateless.enabled=true}), l'utilisateur
+ * authentifié est construit à partir des claims du jeton ({@code uid},
+ * {@code username}, {@code tv}) sans lecture de l'utilisateur en base ; seule la
+ * version du jeton est contrôlée via {@link TokenVersionRegistry}. Les jetons
+ * émis avant ce mode (sans ces claims) sont traités comme en mode standard.
+ * </p>
+ * <p>
  * Exécuté une seule fois par requête grâce à {@link OncePerRequestFilter}.
  * </p>
  *
@@ -31,23 +40,40 @@ import org.springframework.web.filter.OncePerRequestFilter;
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter
 {
-    private final CustomUserDetailsService userDetailsService;
+    /**
+     * Cache des utilisateurs authentifiés, indexé par le subject du jeton.
+     */
+    private final PrincipalCache principalCache;
 
     /**
      * Service pour gérer la création et la validation des jetons JWT.
      */
     private final JwtService jwtService;
 
+    /**
+     * Registre des versions de jetons (mode sans état).
+     */
+    private final TokenVersionRegistry tokenVersionRegistry;
+
+    /**
+     * Active la construction de l'utilisateur authentifié à partir des seuls claims du jeton.
+     */
+    @Value("${app.security.stateless.enabled:false}")
+    private boolean stateless;
+
     /**
      * Constructeur avec injection des services.
      *
-     * @param userDetailsService le service pour charger les utilisateurs
-     * @param jwtService         le service JWT
+     * @param principalCache       le cache des utilisateurs authentifiés
+     * @param jwtService           le service JWT
+     * @param tokenVersionRegistry le registre des versions de jetons
      */
-    public JwtAuthenticationFilter(CustomUserDetailsService userDetailsService, JwtService jwtService)
+    public JwtAuthenticationFilter(PrincipalCache principalCache, JwtService jwtService,
+                                   TokenVersionRegistry tokenVersionRegistry)
     {
-        this.userDetailsService = userDetailsService;
+        this.principalCache = principalCache;
         this.jwtService = jwtService;
+        this.tokenVersionRegistry = tokenVersionRegistry;
     }
 
     /**
@@ -88,6 +114,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter
         // On prépare des variables pour le jeton et l'identifiant utilisateur
         String jwt = null;
         String username = null;
+        Claims claims = null;
 
         // On vérifie que l'en-tête existe et suit le format Bearer
         if (authHeader != null && authHeader.startsWith("Bearer "))
@@ -97,11 +124,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter
                 // On extrait le jeton sans le préfixe
                 jwt = authHeader.substring(7);
                 
-                // Vérification basique du format du token avant d'essayer de l'analyser
-                if (jwt != null && !jwt.trim().isEmpty() && jwt.split("\\.").length == 3)
+                // On vérifie le jeton une seule fois (signature et expiration)
+                claims = jwtService.validateToken(jwt);
+                if (claims != null)
                 {
                     // On extrait l'email/username stocké dans le jeton
-                    username = jwtService.extractUsername(jwt);
+                    username = claims.getSubject();
                 }
             }
             catch (Exception e)
@@ -116,11 +144,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter
         {
             try
             {
-                // On charge les informations de l'utilisateur à partir de l'email/username
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                // On construit l'utilisateur depuis le jeton (mode sans état) ou on le charge
+                UserDetails userDetails = stateless && claims.get(JwtService.CLAIM_USER_ID) != null
+                        ? loadFromClaims(claims)
+                        : principalCache.get(username);
 
-                // On vérifie que le jeton est bien valide
-                if (jwtService.isTokenValid(jwt, userDetails.getUsername()))
+                // Le jeton est déjà vérifié : on s'assure qu'il désigne bien cet utilisateur
+                if (userDetails != null && username.equals(userDetails.getUsername()))
                 {
                     // On crée une authentification basée sur les informations de l'utilisateur
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
@@ -141,4 +171,26 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter
         // On poursuit la chaîne de filtres pour laisser la requête continuer
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * Construit l'utilisateur authentifié à partir des claims d'un jeton vérifié.
+     * <p>
+     * Aucune lecture de l'utilisateur en base : seule la version du jeton est
+     * comparée à la version courante, connue en mémoire la plupart du temps.
+     * </p>
+     *
+     * @param claims les claims du jeton vérifié
+     * @return les détails de l'utilisateur, ou null si le jeton a été révoqué
+     */
+    private CustomUserDetails loadFromClaims(Claims claims)
+    {
+        Long userId = claims.get(JwtService.CLAIM_USER_ID, Long.class);
+        Long tokenVersion = claims.get(JwtService.CLAIM_TOKEN_VERSION, Long.class);
+        if (tokenVersion == null || !tokenVersionRegistry.isCurrent(userId, tokenVersion))
+        {
+            return null;
+        }
+        return CustomUserDetails.fromToken(userId, claims.getSubject(),
+                claims.get(JwtService.CLAIM_USERNAME, String.class), tokenVersion);
+    }
 }
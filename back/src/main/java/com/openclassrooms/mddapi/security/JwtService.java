@@ -1,9 +1,21 @@
 package com.openclassrooms.mddapi.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.openclassrooms.mddapi.entity.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
 import java.util.Date;
 import java.util.function.Function;
 import javax.crypto.SecretKey;
@@ -20,11 +32,32 @@ import org.springframework.stereotype.Service;
  * Utilise HMAC-SHA256 pour la signature des tokens.
  * La clé secrète et la durée de validité sont injectées depuis la configuration.
  * </p>
+ * <p>
+ * La clé de signature et le parseur sont construits une seule fois au démarrage
+ * (ils sont immuables et thread-safe). Les jetons déjà vérifiés peuvent être
+ * conservés dans un cache borné, indexé par l'empreinte SHA-256 du jeton, jusqu'à
+ * leur expiration : un jeton présenté à nouveau n'est ni décodé ni re-vérifié.
+ * </p>
  *
  */
 @Service
 public class JwtService
 {
+    /**
+     * Claim portant l'identifiant de l'utilisateur.
+     */
+    public static final String CLAIM_USER_ID = "uid";
+
+    /**
+     * Claim portant le nom d'utilisateur.
+     */
+    public static final String CLAIM_USERNAME = "username";
+
+    /**
+     * Claim portant la version des jetons de l'utilisateur ({@code User.tokenVersion}).
+     */
+    public static final String CLAIM_TOKEN_VERSION = "tv";
+
     /**
      * Clé secrète pour signer les JWT (injectée depuis application.properties).
      * Doit être stockée de manière sécurisée (variable d'environnement).
@@ -39,6 +72,92 @@ public class JwtService
     @Value("${jwt.expiration:86400000}")
     private long expirationMs;
 
+    /**
+     * Nombre maximal de jetons vérifiés conservés en cache (0 pour désactiver le cache).
+     */
+    @Value("${app.security.jwt-cache.max-size:10000}")
+    private long verifiedCacheSize;
+
+    /**
+     * Clé de signature HMAC, décodée une seule fois depuis la clé secrète.
+     */
+    private SecretKey signingKey;
+
+    /**
+     * Parseur de jetons réutilisable (immuable et thread-safe).
+     */
+    private JwtParser jwtParser;
+
+    /**
+     * Claims des jetons déjà vérifiés, indexés par empreinte du jeton, jusqu'à leur expiration.
+     * Null si le cache est désactivé.
+     */
+    private Cache<String, Claims> verifiedTokens;
+
+    /**
+     * Construit la clé de signature, le parseur et le cache des jetons vérifiés.
+     */
+    @PostConstruct
+    void init()
+    {
+        this.signingKey = getSigningKey();
+        this.jwtParser = Jwts.parser().verifyWith(signingKey).build();
+
+        if (verifiedCacheSize > 0)
+        {
+            // Chaque entrée expire à la date d'expiration du jeton correspondant
+            this.verifiedTokens = Caffeine.newBuilder()
+                    .maximumSize(verifiedCacheSize)
+                    .expireAfter(Expiry.creating((String digest, Claims claims) ->
+                            Duration.ofMillis(Math.max(0, claims.getExpiration().getTime() - System.currentTimeMillis()))))
+                    .build();
+        }
+    }
+
+    /**
+     * Vérifie un jeton JWT et retourne ses claims.
+     * <p>
+     * Le jeton n'est décodé et sa signature vérifiée qu'une seule fois : le résultat
+     * est ensuite servi depuis le cache des jetons vérifiés jusqu'à son expiration.
+     * </p>
+     *
+     * @param token le jeton JWT à vérifier
+     * @return les claims du jeton, ou null si le jeton est invalide, mal formé ou expiré
+     */
+    public Claims validateToken(String token)
+    {
+        if (token == null || token.isBlank())
+        {
+            return null;
+        }
+
+        String digest = verifiedTokens != null ? digest(token) : null;
+        Claims claims = digest != null ? verifiedTokens.getIfPresent(digest) : null;
+
+        if (claims == null)
+        {
+            try
+            {
+                // Le parseur rejette les signatures invalides et les jetons expirés
+                claims = jwtParser.parseSignedClaims(token).getPayload();
+            }
+            catch (JwtException | IllegalArgumentException e)
+            {
+                return null;
+            }
+            if (claims.getExpiration() == null || claims.getSubject() == null)
+            {
+                return null;
+            }
+            if (digest != null)
+            {
+                verifiedTokens.put(digest, claims);
+            }
+        }
+
+        return claims.getExpiration().after(new Date()) ? claims : null;
+    }
+
     /**
      * Extrait le nom d'utilisateur (subject) du jeton JWT.
      *
@@ -90,46 +209,62 @@ public class JwtService
                 .subject(username)
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
     /**
-     * Vérifie si un jeton JWT est valide pour un utilisateur donné.
+     * Génère un nouveau jeton JWT portant l'identité complète de l'utilisateur.
      * <p>
-     * Vérifie que le username correspond et que le token n'est pas expiré.
+     * En plus du subject (email), le jeton contient l'identifiant, le username et
+     * la version de jeton de l'utilisateur, ce qui permet au mode sans état de
+     * construire l'utilisateur authentifié sans accès à la base.
      * </p>
      *
-     * @param token    le jeton JWT à valider
-     * @param username l'email/username de l'utilisateur
-     * @return true si le token est valide, false sinon
+     * @param user l'utilisateur pour lequel générer le jeton
+     * @return le jeton JWT signé et encodé
      */
-    public boolean isTokenValid(String token, String username)
+    public String generateToken(User user)
     {
-        String extractedUsername = extractUsername(token);
-        return extractedUsername.equals(username) && !isTokenExpired(token);
+        return generateToken(CustomUserDetails.of(user));
     }
 
     /**
-     * Vérifie si le jeton JWT est expiré.
+     * Génère un nouveau jeton JWT pour un utilisateur authentifié (voir {@link #generateToken(User)}).
      *
-     * @param token le jeton JWT
-     * @return true si le token est expiré, false sinon
+     * @param userDetails l'utilisateur authentifié
+     * @return le jeton JWT signé et encodé
      */
-    private boolean isTokenExpired(String token)
+    public String generateToken(CustomUserDetails userDetails)
     {
-        return extractExpiration(token).before(new Date());
+        Date now = new Date();
+        Date expiryDate = new Date(now.getTime() + expirationMs);
+        return Jwts.builder()
+                .subject(userDetails.getUsername())
+                .claim(CLAIM_USER_ID, userDetails.getId())
+                .claim(CLAIM_USERNAME, userDetails.getDisplayName())
+                .claim(CLAIM_TOKEN_VERSION, userDetails.getTokenVersion())
+                .issuedAt(now)
+                .expiration(expiryDate)
+                .signWith(signingKey)
+                .compact();
     }
 
     /**
-     * Extrait la date d'expiration du jeton JWT.
+     * Vérifie si un jeton JWT est valide pour un utilisateur donné.
+     * <p>
+     * Vérifie que le username correspond et que le token n'est pas expiré.
+     * Le jeton n'est vérifié qu'une fois (voir {@link #validateToken(String)}).
+     * </p>
      *
-     * @param token le jeton JWT
-     * @return la date d'expiration
+     * @param token    le jeton JWT à valider
+     * @param username l'email/username de l'utilisateur
+     * @return true si le token est valide, false sinon
      */
-    private Date extractExpiration(String token)
+    public boolean isTokenValid(String token, String username)
     {
-        return extractClaim(token, Claims::getExpiration);
+        Claims claims = validateToken(token);
+        return claims != null && claims.getSubject().equals(username);
     }
 
     /**
@@ -144,7 +279,7 @@ public class JwtService
         try
         {
             // On parse le jeton signé pour en extraire toutes les informations
-            return Jwts.parser().verifyWith(getSigningKey()).build().parseSignedClaims(token).getPayload();
+            return jwtParser.parseSignedClaims(token).getPayload();
         }
         catch (Exception e)
         {
@@ -153,7 +288,30 @@ public class JwtService
     }
 
     /**
-     * Reconstruit la clé de signature à partir de la clé secrète.
+     * Calcule l'empreinte SHA-256 d'un jeton, utilisée comme clé du cache.
+     * <p>
+     * Le jeton lui-même n'est pas conservé en mémoire.
+     * </p>
+     *
+     * @param token le jeton JWT
+     * @return l'empreinte encodée en Base64
+     */
+    private static String digest(String token)
+    {
+        try
+        {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            // SHA-256 est fourni par toutes les JVM
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Construit la clé de signature à partir de la clé secrète.
      * <p>
      * Décode la clé Base64 et crée une clé HMAC pour l'algorithme HS256.
      * </p>
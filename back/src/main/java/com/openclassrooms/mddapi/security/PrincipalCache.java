@@ -0,0 +1,138 @@
+package com.openclassrooms.mddapi.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Cache des utilisateurs authentifiés, indexé par le subject du jeton JWT (email).
+ * <p>
+ * Évite un aller-retour en base à chaque requête authentifiée : le filtre JWT
+ * ne recharge l'utilisateur que si son entrée est absente ou expirée. Le cache
+ * est borné en taille et ses entrées expirent après une durée courte, ce qui
+ * borne aussi l'obsolescence entre plusieurs instances de l'application.
+ * </p>
+ * <p>
+ * Les entrées sont des instantanés immuables ({@link CustomUserDetails}), sans
+ * mot de passe ni entité JPA : elles sont partagées sans risque entre threads.
+ * </p>
+ * <p>
+ * Une durée de vie nulle désactive le cache (chargement en base à chaque requête).
+ * Les statistiques sont publiées dans Micrometer sous le nom de cache {@code principals}.
+ * </p>
+ *
+ */
+@Component
+public class PrincipalCache
+{
+    private final CustomUserDetailsService userDetailsService;
+
+    /**
+     * Cache Caffeine sous-jacent, null si le cache est désactivé.
+     */
+    private final Cache<String, CustomUserDetails> cache;
+
+    /**
+     * Constructeur avec injection des dépendances et de la configuration.
+     *
+     * @param userDetailsService le service pour charger les utilisateurs en cas d'absence
+     * @param meterRegistry      le registre de métriques
+     * @param ttl                la durée de vie d'une entrée (0 pour désactiver le cache)
+     * @param maxSize            le nombre maximal d'utilisateurs en cache
+     */
+    public PrincipalCache(CustomUserDetailsService userDetailsService, MeterRegistry meterRegistry,
+                          @Value("${app.security.principal-cache.ttl:30s}") Duration ttl,
+                          @Value("${app.security.principal-cache.max-size:10000}") long maxSize)
+    {
+        this.userDetailsService = userDetailsService;
+
+        if (ttl.isZero() || ttl.isNegative())
+        {
+            this.cache = null;
+        }
+        else
+        {
+            this.cache = Caffeine.newBuilder()
+                    .maximumSize(maxSize)
+                    .expireAfterWrite(ttl)
+                    .recordStats()
+                    .build();
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, "principals");
+        }
+    }
+
+    /**
+     * Récupère l'utilisateur correspondant au subject d'un jeton, depuis le cache ou la base.
+     *
+     * @param subject le subject du jeton (email de l'utilisateur)
+     * @return les détails de l'utilisateur
+     * @throws UsernameNotFoundException si l'utilisateur n'existe pas
+     */
+    public CustomUserDetails get(String subject)
+    {
+        if (cache == null)
+        {
+            return load(subject).withoutPassword();
+        }
+
+        // Chargement hors du verrou du cache : une requête JDBC ne doit pas bloquer
+        // les autres clés ni épingler un thread virtuel sur son thread porteur
+        CustomUserDetails userDetails = cache.getIfPresent(subject);
+        if (userDetails == null)
+        {
+            // Le mot de passe haché n'est pas conservé en mémoire au-delà de la requête
+            userDetails = load(subject).withoutPassword();
+            cache.put(subject, userDetails);
+        }
+        return userDetails;
+    }
+
+    /**
+     * Retire un utilisateur du cache.
+     * <p>
+     * Appelée dans une transaction, l'entrée est retirée immédiatement puis à
+     * nouveau après la validation, afin qu'une requête concurrente ne remette
+     * pas en cache l'état antérieur à la modification.
+     * </p>
+     *
+     * @param subject le subject du jeton (email de l'utilisateur)
+     */
+    public void invalidate(String subject)
+    {
+        if (cache == null || subject == null)
+        {
+            return;
+        }
+
+        cache.invalidate(subject);
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+        {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization()
+            {
+                @Override
+                public void afterCommit()
+                {
+                    cache.invalidate(subject);
+                }
+            });
+        }
+    }
+
+    /**
+     * Charge l'utilisateur depuis la base.
+     *
+     * @param subject le subject du jeton (email de l'utilisateur)
+     * @return les détails de l'utilisateur
+     */
+    private CustomUserDetails load(String subject)
+    {
+        return (CustomUserDetails) userDetailsService.loadUserByUsername(subject);
+    }
+}
@@ -0,0 +1,381 @@
+package com.openclassrooms.mddapi.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.mddapi.config.RateLimitProperties;
+import com.openclassrooms.mddapi.dto.MessageResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Filtre de limitation de débit par seau à jetons.
+ * <p>
+ * Placé dans la chaîne Spring Security juste après {@link JwtAuthenticationFilter}
+ * (l'utilisateur connecté est donc connu), il rejette avec 429 Too Many Requests
+ * et un en-tête {@code Retry-After} les requêtes qui dépassent une des règles
+ * configurées, avant tout accès à la base ou hachage de mot de passe.
+ * </p>
+ * <p>
+ * Pour les règles indexées par compte, le corps JSON de la requête est lu une
+ * fois puis rejoué pour le contrôleur, quelle que soit la longueur annoncée (y
+ * compris en {@code Transfer-Encoding: chunked}). Un corps de plus de
+ * {@value #MAX_ACCOUNT_BODY_SIZE} octets est rejeté (413) ; un corps sans
+ * identifiant de compte lisible est décompté sur une clé commune, et non exempté.
+ * </p>
+ * <p>
+ * Une règle {@code failures-only} rend le jeton des requêtes réussies : une
+ * connexion réussie ne consomme pas le quota du compte. Les échecs restent
+ * décomptés quel que soit leur auteur : des tentatives répétées par un tiers
+ * peuvent bloquer les connexions à un compte pendant au plus une période de
+ * remplissage, contrepartie de la protection contre le test de mots de passe
+ * depuis de nombreuses adresses.
+ * </p>
+ * <p>
+ * Les règles par IP utilisent {@link HttpServletRequest#getRemoteAddr()}, résolue
+ * par Tomcat ({@code server.forward-headers-strategy=native}) : derrière un proxy
+ * de confiance ({@code server.tomcat.remoteip.internal-proxies}), c'est l'adresse
+ * du client lue dans {@code X-Forwarded-For}, et non celle du proxy partagée par
+ * tous les clients.
+ * </p>
+ *
+ */
+public class RateLimitFilter extends OncePerRequestFilter
+{
+    /**
+     * Taille maximale d'un corps de requête lu pour en extraire l'identifiant de compte.
+     */
+    private static final int MAX_ACCOUNT_BODY_SIZE = 8 * 1024;
+
+    /**
+     * Clé commune des requêtes dont le corps ne contient pas d'identifiant de compte lisible.
+     */
+    private static final String UNKNOWN_ACCOUNT_KEY = "?";
+
+    private final RateLimiter rateLimiter;
+    private final List<RateLimitProperties.Rule> rules;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    /**
+     * Constructeur avec injection des dépendances.
+     *
+     * @param rateLimiter   le registre des seaux à jetons
+     * @param properties    la configuration des règles de limitation
+     * @param objectMapper  le mapper JSON pour lire l'identifiant de compte et écrire les réponses
+     * @param meterRegistry le registre de métriques
+     */
+    public RateLimitFilter(RateLimiter rateLimiter, RateLimitProperties properties, ObjectMapper objectMapper,
+                           MeterRegistry meterRegistry)
+    {
+        this.rateLimiter = rateLimiter;
+        this.rules = List.copyOf(properties.getRules());
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Applique les règles de limitation correspondant à la requête.
+     *
+     * @param request     la requête HTTP entrante
+     * @param response    la réponse HTTP
+     * @param filterChain la chaîne de filtres à continuer
+     * @throws ServletException en cas d'erreur de traitement
+     * @throws IOException      en cas d'erreur d'E/S
+     */
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException
+    {
+        HttpServletRequest currentRequest = request;
+        String path = request.getServletPath();
+        // Jetons à rendre si la requête réussit (règles failures-only), par index de règle
+        List<Integer> refundRules = new ArrayList<>(0);
+        List<String> refundKeys = new ArrayList<>(0);
+
+        for (int i = 0; i < rules.size(); i++)
+        {
+            RateLimitProperties.Rule rule = rules.get(i);
+            if (!matches(rule, currentRequest.getMethod(), path))
+            {
+                continue;
+            }
+
+            String clientKey;
+            if (rule.getKey() == RateLimitProperties.KeyType.ACCOUNT)
+            {
+                // Le corps est mis en mémoire pour pouvoir être relu par le contrôleur
+                if (!(currentRequest instanceof CachedBodyRequest))
+                {
+                    currentRequest = CachedBodyRequest.of(currentRequest);
+                }
+                CachedBodyRequest cachedRequest = (CachedBodyRequest) currentRequest;
+                if (cachedRequest.isTruncated())
+                {
+                    // Le corps a été lu en partie et ne peut plus être transmis intact
+                    rejectTooLarge(response);
+                    return;
+                }
+                clientKey = accountKey(cachedRequest, rule.getAccountField());
+            }
+            else if (rule.getKey() == RateLimitProperties.KeyType.USER)
+            {
+                clientKey = userKey(currentRequest);
+            }
+            else
+            {
+                clientKey = currentRequest.getRemoteAddr();
+            }
+
+            long waitNanos = rateLimiter.tryConsume(i, rule, clientKey);
+            if (waitNanos > 0)
+            {
+                reject(response, rule, waitNanos);
+                return;
+            }
+            if (rule.isFailuresOnly())
+            {
+                refundRules.add(i);
+                refundKeys.add(clientKey);
+            }
+        }
+
+        filterChain.doFilter(currentRequest, response);
+
+        if (response.getStatus() < 400)
+        {
+            for (int i = 0; i < refundRules.size(); i++)
+            {
+                rateLimiter.refund(refundRules.get(i), refundKeys.get(i));
+            }
+        }
+    }
+
+    /**
+     * Indique si une règle s'applique à une requête.
+     *
+     * @param rule   la règle
+     * @param method la méthode HTTP de la requête
+     * @param path   le chemin de la requête
+     * @return true si la méthode et le chemin correspondent
+     */
+    private boolean matches(RateLimitProperties.Rule rule, String method, String path)
+    {
+        return (rule.getMethod() == null || rule.getMethod().equalsIgnoreCase(method))
+                && pathMatcher.match(rule.getPath(), path);
+    }
+
+    /**
+     * Clé d'un utilisateur connecté, ou de son adresse IP s'il est anonyme.
+     *
+     * @param request la requête HTTP
+     * @return la clé du client
+     */
+    private String userKey(HttpServletRequest request)
+    {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof CustomUserDetails userDetails)
+        {
+            return "user:" + userDetails.getId();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    /**
+     * Clé d'un compte, lue dans le corps JSON de la requête.
+     *
+     * @param request la requête dont le corps est en mémoire
+     * @param field   le champ portant l'identifiant de compte
+     * @return la clé du compte (normalisée en minuscules), ou la clé commune si absente ou illisible
+     */
+    private String accountKey(CachedBodyRequest request, String field)
+    {
+        if (request.getBody().length == 0)
+        {
+            return UNKNOWN_ACCOUNT_KEY;
+        }
+        try
+        {
+            JsonNode value = objectMapper.readTree(request.getBody()).get(field);
+            return value != null && value.isTextual() ? value.asText().trim().toLowerCase() : UNKNOWN_ACCOUNT_KEY;
+        }
+        catch (IOException e)
+        {
+            // Corps invalide : le contrôleur le rejettera
+            return UNKNOWN_ACCOUNT_KEY;
+        }
+    }
+
+    /**
+     * Rejette une requête avec 429 Too Many Requests.
+     *
+     * @param response  la réponse HTTP
+     * @param rule      la règle dépassée
+     * @param waitNanos le délai avant de pouvoir réessayer, en nanosecondes
+     * @throws IOException en cas d'erreur d'écriture de la réponse
+     */
+    private void reject(HttpServletResponse response, RateLimitProperties.Rule rule, long waitNanos) throws IOException
+    {
+        meterRegistry.counter("ratelimit.rejected", "path", rule.getPath(), "key", rule.getKey().name().toLowerCase())
+                .increment();
+
+        long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        objectMapper.writeValue(response.getOutputStream(),
+                new MessageResponse("Trop de requêtes, veuillez réessayer plus tard"));
+    }
+
+    /**
+     * Rejette une requête dont le corps est trop volumineux pour en lire l'identifiant de compte.
+     *
+     * @param response la réponse HTTP
+     * @throws IOException en cas d'erreur d'écriture de la réponse
+     */
+    private void rejectTooLarge(HttpServletResponse response) throws IOException
+    {
+        response.setStatus(HttpStatus.PAYLOAD_TOO_LARGE.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        objectMapper.writeValue(response.getOutputStream(), new MessageResponse("Corps de requête trop volumineux"));
+    }
+
+    /**
+     * Requête dont le corps (borné) a été lu en mémoire et peut être relu.
+     */
+    static final class CachedBodyRequest extends HttpServletRequestWrapper
+    {
+        private final byte[] body;
+
+        /**
+         * Indique que le corps dépasse la taille autorisée (seul son début a été lu).
+         */
+        private final boolean truncated;
+
+        private CachedBodyRequest(HttpServletRequest request, byte[] body, boolean truncated)
+        {
+            super(request);
+            this.body = body;
+            this.truncated = truncated;
+        }
+
+        /**
+         * Lit en mémoire le corps d'une requête, dans la limite de la taille autorisée.
+         * <p>
+         * La lecture ne dépend pas de la longueur annoncée (absente en
+         * {@code Transfer-Encoding: chunked}) : au plus {@value #MAX_ACCOUNT_BODY_SIZE}
+         * octets plus un sont lus, ce qui suffit à détecter un corps trop volumineux.
+         * Un corps annoncé trop volumineux n'est pas lu.
+         * </p>
+         *
+         * @param request la requête d'origine
+         * @return la requête enveloppée
+         * @throws IOException en cas d'erreur de lecture
+         */
+        static CachedBodyRequest of(HttpServletRequest request) throws IOException
+        {
+            if (request.getContentLengthLong() > MAX_ACCOUNT_BODY_SIZE)
+            {
+                return new CachedBodyRequest(request, new byte[0], true);
+            }
+            byte[] body = request.getInputStream().readNBytes(MAX_ACCOUNT_BODY_SIZE + 1);
+            return new CachedBodyRequest(request, body, body.length > MAX_ACCOUNT_BODY_SIZE);
+        }
+
+        byte[] getBody()
+        {
+            return body;
+        }
+
+        boolean isTruncated()
+        {
+            return truncated;
+        }
+
+        @Override
+        public ServletInputStream getInputStream()
+        {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream()
+            {
+                @Override
+                public int read()
+                {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length)
+                {
+                    return input.read(buffer, offset, length);
+                }
+
+                @Override
+                public boolean isFinished()
+                {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady()
+                {
+                    return true;
+                }
+
+                /**
+                 * Le corps est déjà en mémoire : les données sont disponibles immédiatement.
+                 */
+                @Override
+                public void setReadListener(ReadListener listener)
+                {
+                    try
+                    {
+                        if (!isFinished())
+                        {
+                            listener.onDataAvailable();
+                        }
+                        if (isFinished())
+                        {
+                            listener.onAllDataRead();
+                        }
+                    }
+                    catch (IOException e)
+                    {
+                        listener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException
+        {
+            String encoding = getCharacterEncoding() != null ? getCharacterEncoding() : StandardCharsets.UTF_8.name();
+            return new BufferedReader(new InputStreamReader(getInputStream(), encoding));
+        }
+    }
+}
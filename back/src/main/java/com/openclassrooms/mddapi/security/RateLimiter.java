@@ -0,0 +1,90 @@
+package com.openclassrooms.mddapi.security;
+
+import com.openclassrooms.mddapi.config.RateLimitProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Registre en mémoire des seaux à jetons de la limitation de débit.
+ * <p>
+ * Les seaux sont indexés par règle et par client dans une {@link ConcurrentHashMap}
+ * (lectures sans verrou, écritures verrouillées par segment) ; chaque seau se
+ * synchronise sur lui-même. Les seaux inactifs depuis plus de
+ * {@code app.rate-limit.idle-timeout} sont supprimés périodiquement, ce qui borne
+ * la mémoire au nombre de clients récents.
+ * </p>
+ *
+ */
+@Component
+public class RateLimiter
+{
+    private final RateLimitProperties properties;
+
+    /**
+     * Seaux indexés par "indexDeRègle:clé du client".
+     */
+    private final ConcurrentMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * Constructeur avec injection de la configuration.
+     *
+     * @param properties    la configuration des règles de limitation
+     * @param meterRegistry le registre de métriques
+     */
+    public RateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry)
+    {
+        this.properties = properties;
+        Gauge.builder("ratelimit.buckets", buckets, ConcurrentMap::size)
+                .description("Seaux de limitation de débit en mémoire")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Tente de consommer un jeton dans le seau d'un client pour une règle.
+     *
+     * @param ruleIndex l'index de la règle dans la configuration
+     * @param rule      la règle
+     * @param clientKey la clé du client
+     * @return 0 si la requête est autorisée, sinon le délai en nanosecondes avant de pouvoir réessayer
+     */
+    public long tryConsume(int ruleIndex, RateLimitProperties.Rule rule, String clientKey)
+    {
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.computeIfAbsent(ruleIndex + ":" + clientKey,
+                key -> new TokenBucket(rule.getCapacity(), rule.getRefillPeriod().toNanos(), now));
+        return bucket.tryConsume(now);
+    }
+
+    /**
+     * Rend un jeton au seau d'un client pour une règle (requête finalement non décomptée).
+     *
+     * @param ruleIndex l'index de la règle dans la configuration
+     * @param clientKey la clé du client
+     */
+    public void refund(int ruleIndex, String clientKey)
+    {
+        TokenBucket bucket = buckets.get(ruleIndex + ":" + clientKey);
+        if (bucket != null)
+        {
+            bucket.refund();
+        }
+    }
+
+    /**
+     * Supprime les seaux inactifs.
+     * <p>
+     * Un seau inactif depuis {@code idle-timeout} est de toute façon plein : le
+     * supprimer ne change pas le comportement vu par le client.
+     * </p>
+     */
+    @Scheduled(fixedDelayString = "${app.rate-limit.eviction-interval:60000}")
+    public void evictIdleBuckets()
+    {
+        long threshold = System.nanoTime() - properties.getIdleTimeout().toNanos();
+        buckets.values().removeIf(bucket -> bucket.getLastAccessNanos() < threshold);
+    }
+}
@@ -0,0 +1,78 @@
+package com.openclassrooms.mddapi.security;
+
+/**
+ * Seau à jetons d'un client pour une règle de limitation de débit.
+ * <p>
+ * Le remplissage est paresseux : aucun minuteur n'alimente le seau, les jetons
+ * accumulés depuis le dernier accès sont calculés lors de la consommation
+ * suivante. Chaque seau est protégé par son propre verrou : deux clients
+ * différents ne se bloquent jamais mutuellement.
+ * </p>
+ *
+ */
+public class TokenBucket
+{
+    private final double capacity;
+
+    /**
+     * Jetons ajoutés par nanoseconde.
+     */
+    private final double refillPerNano;
+
+    private double tokens;
+    private long lastRefillNanos;
+
+    /**
+     * Date du dernier accès (nanosecondes), lue sans verrou par l'éviction des seaux inactifs.
+     */
+    private volatile long lastAccessNanos;
+
+    /**
+     * Construit un seau plein.
+     *
+     * @param capacity          le nombre maximal de jetons
+     * @param refillPeriodNanos la durée de remplissage complet, en nanosecondes
+     * @param nowNanos          la date courante, en nanosecondes
+     */
+    public TokenBucket(int capacity, long refillPeriodNanos, long nowNanos)
+    {
+        this.capacity = capacity;
+        this.refillPerNano = (double) capacity / refillPeriodNanos;
+        this.tokens = capacity;
+        this.lastRefillNanos = nowNanos;
+        this.lastAccessNanos = nowNanos;
+    }
+
+    /**
+     * Tente de consommer un jeton.
+     *
+     * @param nowNanos la date courante, en nanosecondes
+     * @return 0 si le jeton a été consommé, sinon le délai en nanosecondes avant qu'un jeton soit disponible
+     */
+    public synchronized long tryConsume(long nowNanos)
+    {
+        lastAccessNanos = nowNanos;
+        tokens = Math.min(capacity, tokens + (nowNanos - lastRefillNanos) * refillPerNano);
+        lastRefillNanos = nowNanos;
+
+        if (tokens >= 1)
+        {
+            tokens -= 1;
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) / refillPerNano);
+    }
+
+    /**
+     * Rend un jeton consommé par une requête qui ne doit finalement pas être décomptée.
+     */
+    public synchronized void refund()
+    {
+        tokens = Math.min(capacity, tokens + 1);
+    }
+
+    public long getLastAccessNanos()
+    {
+        return lastAccessNanos;
+    }
+}
@@ -0,0 +1,114 @@
+package com.openclassrooms.mddapi.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.openclassrooms.mddapi.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Registre des versions de jetons des utilisateurs, utilisé par le mode sans état.
+ * <p>
+ * Chaque utilisateur possède une version de jeton ({@code User.tokenVersion}),
+ * incrémentée lorsqu'un changement invalide ses jetons en cours (email, mot de
+ * passe). Un jeton n'est accepté que si la version qu'il porte est la version
+ * courante.
+ * </p>
+ * <p>
+ * Les versions sont conservées en mémoire pendant une courte durée : la base
+ * n'est interrogée que lorsque la version connue d'un utilisateur a expiré.
+ * Sur l'instance qui effectue le changement, la nouvelle version est prise en
+ * compte dès la validation de la transaction ; sur les autres instances, au
+ * plus tard à l'expiration de l'entrée.
+ * </p>
+ *
+ */
+@Component
+public class TokenVersionRegistry
+{
+    private final UserRepository userRepository;
+
+    /**
+     * Versions courantes, indexées par identifiant d'utilisateur.
+     */
+    private final Cache<Long, Long> versions;
+
+    /**
+     * Constructeur avec injection des dépendances et de la configuration.
+     *
+     * @param userRepository le repository pour lire les versions en base
+     * @param meterRegistry  le registre de métriques
+     * @param ttl            la durée pendant laquelle une version lue en base est considérée à jour
+     * @param maxSize        le nombre maximal d'utilisateurs suivis en mémoire
+     */
+    public TokenVersionRegistry(UserRepository userRepository, MeterRegistry meterRegistry,
+                                @Value("${app.security.stateless.version-ttl:30s}") Duration ttl,
+                                @Value("${app.security.stateless.max-users:100000}") long maxSize)
+    {
+        this.userRepository = userRepository;
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, versions, "tokenVersions");
+    }
+
+    /**
+     * Indique si une version de jeton est la version courante d'un utilisateur.
+     *
+     * @param userId  l'identifiant de l'utilisateur
+     * @param version la version portée par le jeton
+     * @return true si la version est courante, false si elle est périmée ou si l'utilisateur n'existe plus
+     */
+    public boolean isCurrent(Long userId, long version)
+    {
+        // Lecture en base hors du verrou du cache (voir PrincipalCache#get)
+        Long current = versions.getIfPresent(userId);
+        if (current == null)
+        {
+            current = userRepository.findTokenVersionById(userId).orElse(null);
+            if (current == null)
+            {
+                return false;
+            }
+            versions.put(userId, current);
+        }
+        return current == version;
+    }
+
+    /**
+     * Enregistre la nouvelle version de jeton d'un utilisateur.
+     * <p>
+     * Appelée dans une transaction, la version n'est publiée qu'après sa
+     * validation ; l'entrée est retirée immédiatement pour forcer une relecture.
+     * </p>
+     *
+     * @param userId  l'identifiant de l'utilisateur
+     * @param version la nouvelle version
+     */
+    public void update(Long userId, long version)
+    {
+        versions.invalidate(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+        {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization()
+            {
+                @Override
+                public void afterCommit()
+                {
+                    versions.put(userId, version);
+                }
+            });
+        }
+        else
+        {
+            versions.put(userId, version);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.openclassrooms.mddapi.service;
+
+import com.openclassrooms.mddapi.event.CommentCreatedEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service de maintenance de la colonne dénormalisée {@code posts.comment_count}.
+ * <p>
+ * Chaque nouveau commentaire incrémente, après la validation de sa transaction,
+ * un compteur en mémoire propre à son post ({@link LongAdder}, réparti en
+ * cellules : les écritures concurrentes sur un post très commenté ne se
+ * bloquent pas). Les incréments accumulés sont reportés périodiquement en base
+ * par un lot de requêtes {@code UPDATE ... SET comment_count = comment_count + ?},
+ * une seule par post, dans une transaction courte : la ligne d'un post n'est
+ * verrouillée qu'une fois par intervalle, quel que soit son nombre de commentaires.
+ * </p>
+ * <p>
+ * Les incréments non encore reportés sont ajoutés aux valeurs lues en base
+ * ({@link #pendingCount(Long)}) afin que les compteurs affichés restent exacts
+ * sur cette instance. En cas d'échec du report, les incréments sont conservés
+ * pour l'intervalle suivant ; ils sont aussi reportés à l'arrêt de l'application.
+ * </p>
+ * <p>
+ * Dérive connue : les incréments ne vivent qu'en mémoire jusqu'à leur report. Un
+ * arrêt brutal du processus (crash, {@code kill -9}) perd au plus un intervalle
+ * d'incréments, et {@code comment_count} reste alors inférieur au nombre réel de
+ * commentaires jusqu'à une correction manuelle, par exemple :
+ * {@code UPDATE posts p SET comment_count = (SELECT COUNT(*) FROM comments c WHERE c.post_id = p.post_id)}
+ * (à exécuter application arrêtée, sinon les incréments en attente seraient comptés deux fois).
+ * </p>
+ *
+ */
+@Service
+public class CommentCounterService implements DisposableBean
+{
+    private static final String INCREMENT_SQL = "UPDATE posts SET comment_count = comment_count + ? WHERE post_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Incréments en attente de report, par identifiant de post.
+     */
+    private final ConcurrentMap<Long, LongAdder> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Compteurs retirés de la table au dernier report, relus une dernière fois au
+     * report suivant : un incrément appliqué par un thread qui détenait encore une
+     * référence vers le compteur n'est ainsi pas perdu.
+     */
+    private List<Map.Entry<Long, LongAdder>> retired = new ArrayList<>();
+
+    /**
+     * Constructeur avec injection des dépendances.
+     *
+     * @param jdbcTemplate       le template JDBC pour les mises à jour par lot
+     * @param transactionManager le gestionnaire de transactions de l'application
+     */
+    public CommentCounterService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager)
+    {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Compte un nouveau commentaire après la validation de sa création.
+     *
+     * @param event l'événement de création du commentaire
+     */
+    @TransactionalEventListener
+    public void onCommentCreated(CommentCreatedEvent event)
+    {
+        pending.computeIfAbsent(event.getPostId(), id -> new LongAdder()).increment();
+    }
+
+    /**
+     * Nombre de commentaires d'un post pas encore reportés en base.
+     *
+     * @param postId l'identifiant du post
+     * @return le nombre de commentaires en attente de report
+     */
+    public long pendingCount(Long postId)
+    {
+        LongAdder adder = pending.get(postId);
+        return adder != null ? adder.sum() : 0;
+    }
+
+    /**
+     * Reporte en base les incréments accumulés depuis le report précédent.
+     * <p>
+     * Les posts sans nouveau commentaire depuis le report précédent sont retirés
+     * de la table, ce qui borne la mémoire aux posts récemment commentés.
+     * </p>
+     */
+    @Scheduled(fixedDelayString = "${app.comments.counter.flush-interval:5000}")
+    public synchronized void flush()
+    {
+        // Tri par post : les verrous de ligne sont pris dans le même ordre par toutes les instances
+        Map<Long, Long> deltas = new TreeMap<>();
+        for (Map.Entry<Long, LongAdder> entry : retired)
+        {
+            addDelta(deltas, entry.getKey(), entry.getValue().sumThenReset());
+        }
+
+        List<Map.Entry<Long, LongAdder>> idle = new ArrayList<>();
+        for (Map.Entry<Long, LongAdder> entry : pending.entrySet())
+        {
+            long delta = entry.getValue().sumThenReset();
+            if (delta == 0 && pending.remove(entry.getKey(), entry.getValue()))
+            {
+                idle.add(entry);
+            }
+            addDelta(deltas, entry.getKey(), delta);
+        }
+        retired = idle;
+
+        if (deltas.isEmpty())
+        {
+            return;
+        }
+
+        List<Object[]> batch = new ArrayList<>(deltas.size());
+        deltas.forEach((postId, delta) -> batch.add(new Object[] {delta, postId}));
+        try
+        {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INCREMENT_SQL, batch));
+        }
+        catch (DataAccessException e)
+        {
+            // Les incréments sont conservés pour le prochain report
+            deltas.forEach((postId, delta) -> pending.computeIfAbsent(postId, id -> new LongAdder()).add(delta));
+            throw e;
+        }
+    }
+
+    /**
+     * Reporte les derniers incréments à l'arrêt de l'application.
+     */
+    @Override
+    public void destroy()
+    {
+        flush();
+    }
+
+    /**
+     * Ajoute un incrément non nul à la table des reports.
+     *
+     * @param deltas la table des reports, par identifiant de post
+     * @param postId l'identifiant du post
+     * @param delta  l'incrément
+     */
+    private static void addDelta(Map<Long, Long> deltas, Long postId, long delta)
+    {
+        if (delta != 0)
+        {
+            deltas.merge(postId, delta, Long::sum);
+        }
+    }
+}
@@ -1,16 +1,23 @@
 package com.openclassrooms.mddapi.service;
 
+import com.openclassrooms.mddapi.dto.CommentPageResponse;
 import com.openclassrooms.mddapi.dto.CommentRequest;
 import com.openclassrooms.mddapi.dto.CommentResponse;
+import com.openclassrooms.mddapi.dto.PageCursor;
 import com.openclassrooms.mddapi.entity.Comment;
 import com.openclassrooms.mddapi.entity.Post;
 import com.openclassrooms.mddapi.entity.User;
+import com.openclassrooms.mddapi.event.CommentCreatedEvent;
 import com.openclassrooms.mddapi.repository.CommentRepository;
 import com.openclassrooms.mddapi.repository.PostRepository;
+import com.openclassrooms.mddapi.repository.projection.CommentSummary;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.stream.Collectors;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -26,22 +33,45 @@ import org.springframework.transaction.annotation.Transactional;
 @Service
 public class CommentService
 {
+    /**
+     * Taille de page par défaut des commentaires.
+     */
+    public static final int DEFAULT_PAGE_SIZE = 20;
+
+    /**
+     * Taille de page maximale autorisée pour les commentaires.
+     */
+    public static final int MAX_PAGE_SIZE = 100;
+
+    /**
+     * Format des dates attendu par le frontend (instance immuable et thread-safe, partagée).
+     */
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy/MM/dd")
+            .withZone(ZoneId.systemDefault());
+
     private final CommentRepository commentRepository;
     private final PostRepository postRepository;
     private final UserService userService;
+    private final CommentCounterService commentCounterService;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Constructeur avec injection des dépendances.
      *
-     * @param commentRepository le repository pour accéder aux données des commentaires
-     * @param postRepository    le repository pour accéder aux données des posts
-     * @param userService       le service pour gérer les utilisateurs
+     * @param commentRepository     le repository pour accéder aux données des commentaires
+     * @param postRepository        le repository pour accéder aux données des posts
+     * @param userService           le service pour gérer les utilisateurs
+     * @param commentCounterService le service des compteurs de commentaires
+     * @param eventPublisher        le publicateur des événements applicatifs
      */
-    public CommentService(CommentRepository commentRepository, PostRepository postRepository, UserService userService)
+    public CommentService(CommentRepository commentRepository, PostRepository postRepository, UserService userService,
+                          CommentCounterService commentCounterService, ApplicationEventPublisher eventPublisher)
     {
         this.commentRepository = commentRepository;
         this.postRepository = postRepository;
         this.userService = userService;
+        this.commentCounterService = commentCounterService;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -68,23 +98,76 @@ public class CommentService
         comment.setAuthor(author);
 
         Comment savedComment = commentRepository.save(comment);
+
+        // L'index de recherche et les scores de tendance sont mis à jour après la validation
+        eventPublisher.publishEvent(new CommentCreatedEvent(savedComment.getId(), post.getId(), post.getTopic().getId(),
+                author.getId(), savedComment.getCreatedAt(), savedComment.getContent()));
+
         return toResponse(savedComment);
     }
 
     /**
      * Récupère tous les commentaires d'un post spécifique.
+     * <p>
+     * Les commentaires et le nom de leurs auteurs sont lus en une seule requête
+     * de projection, du plus ancien au plus récent.
+     * </p>
      *
      * @param postId l'identifiant du post
      * @return la liste des commentaires du post
      */
     public List<CommentResponse> getCommentsByPost(Long postId)
     {
-        List<Comment> comments = commentRepository.findByPostId(postId);
+        List<CommentSummary> comments = commentRepository.findSummariesByPostId(postId);
         return comments.stream()
                 .map(this::toResponse)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Récupère une page de commentaires d'un post, du plus ancien au plus récent.
+     * <p>
+     * Pagination par curseur sur {@code (created_at, id)} : une ligne supplémentaire
+     * est demandée pour savoir s'il existe une page suivante. Le nombre total de
+     * commentaires est calculé par une requête de comptage sur l'index du post.
+     * </p>
+     *
+     * @param postId l'identifiant du post
+     * @param after  le curseur de la page précédente (null pour la première page)
+     * @param limit  la taille de page souhaitée (null pour la valeur par défaut)
+     * @return la page de commentaires, le curseur suivant et le nombre total
+     * @throws IllegalArgumentException si le curseur est invalide
+     */
+    @Transactional(readOnly = true)
+    public CommentPageResponse getCommentsPage(Long postId, String after, Integer limit)
+    {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+        PageCursor cursor = PageCursor.decode(after);
+
+        List<CommentSummary> comments = cursor == null
+                ? commentRepository.findSummaryPageByPostId(postId, pageable)
+                : commentRepository.findSummaryPageByPostIdAfter(postId, cursor.getCreatedAt(), cursor.getId(), pageable);
+
+        // La ligne supplémentaire indique seulement qu'une page suivante existe
+        boolean hasNext = comments.size() > pageSize;
+        List<CommentSummary> page = hasNext ? comments.subList(0, pageSize) : comments;
+
+        String nextCursor = null;
+        if (hasNext)
+        {
+            CommentSummary last = page.get(page.size() - 1);
+            nextCursor = new PageCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+
+        List<CommentResponse> responses = page.stream()
+                .map(this::toResponse)
+                .collect(Collectors.toList());
+        // Total lu dans la colonne dénormalisée plutôt qu'un COUNT(*) à chaque page
+        long total = postRepository.findCommentCountById(postId).orElse(0L) + commentCounterService.pendingCount(postId);
+        return new CommentPageResponse(responses, nextCursor, total);
+    }
+
     /**
      * Convertit une entité Comment en CommentResponse.
      *
@@ -94,15 +177,37 @@ public class CommentService
     public CommentResponse toResponse(Comment comment)
     {
         CommentResponse response = new CommentResponse();
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy/MM/dd")
-                .withZone(ZoneId.systemDefault());
 
         response.setId(comment.getId());
         response.setContent(comment.getContent());
         response.setPostId(comment.getPost().getId());
         response.setAuthorId(comment.getAuthor().getId());
         response.setAuthorName(comment.getAuthor().getUsername());
-        response.setCreatedAt(formatter.format(comment.getCreatedAt()));
+        response.setCreatedAt(DATE_FORMATTER.format(comment.getCreatedAt()));
+
+        return response;
+    }
+
+    /**
+     * Convertit une projection CommentSummary en CommentResponse.
+     * <p>
+     * La projection contient déjà le nom de l'auteur : aucune requête
+     * supplémentaire n'est émise.
+     * </p>
+     *
+     * @param comment la projection à convertir
+     * @return le DTO de réponse
+     */
+    public CommentResponse toResponse(CommentSummary comment)
+    {
+        CommentResponse response = new CommentResponse();
+
+        response.setId(comment.getId());
+        response.setContent(comment.getContent());
+        response.setPostId(comment.getPostId());
+        response.setAuthorId(comment.getAuthorId());
+        response.setAuthorName(comment.getAuthorName());
+        response.setCreatedAt(DATE_FORMATTER.format(comment.getCreatedAt()));
 
         return response;
     }
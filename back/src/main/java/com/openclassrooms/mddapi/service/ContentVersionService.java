@@ -0,0 +1,223 @@
+package com.openclassrooms.mddapi.service;
+
+import com.openclassrooms.mddapi.event.CommentCreatedEvent;
+import com.openclassrooms.mddapi.event.PostCreatedEvent;
+import com.openclassrooms.mddapi.event.SubscriptionChangedEvent;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Service des versions du contenu, utilisé pour calculer les ETags des réponses GET.
+ * <p>
+ * Chaque écriture incrémente en mémoire le compteur de la ressource ou de la
+ * collection qu'elle modifie : un ETag se calcule donc sans requête en base, et
+ * une requête conditionnelle ({@code If-None-Match}) reçoit un 304 avant toute
+ * lecture, conversion ou sérialisation. Les créations de posts, de commentaires
+ * et les changements d'abonnement sont suivis par leurs événements applicatifs.
+ * </p>
+ * <p>
+ * Les compteurs par post et par utilisateur sont répartis sur un nombre fixe de
+ * cases ({@value #STRIPES}) indexées par identifiant : la mémoire est bornée,
+ * au prix d'un ETag invalidé de temps en temps par l'écriture sur une ressource
+ * voisine. Une incrémentation n'a lieu qu'après la validation de l'écriture :
+ * la version est lue avant les données, une réponse ne porte donc
+ * jamais une version plus récente que son contenu.
+ * </p>
+ * <p>
+ * Les ETags commencent par l'époque de l'instance (date de démarrage) : après un
+ * redémarrage, les compteurs repartent de zéro sans jamais reproduire un ETag
+ * déjà émis.
+ * </p>
+ * <p>
+ * Les écritures effectuées sur une autre instance ne sont pas vues par les
+ * compteurs : les ETags portent donc aussi le numéro d'une fenêtre de temps de
+ * {@code app.etag.max-staleness}. À chaque changement de fenêtre, tous les ETags
+ * changent et le client relit le contenu : une instance ne sert un 304 périmé
+ * que pendant au plus cette durée. Une durée nulle supprime la fenêtre
+ * (déploiement à une seule instance).
+ * </p>
+ *
+ */
+@Service
+public class ContentVersionService
+{
+    /**
+     * Nombre de compteurs par post et par utilisateur (puissance de deux).
+     */
+    private static final int STRIPES = 4096;
+
+    /**
+     * Époque de l'instance, préfixe de tous les ETags.
+     */
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    /**
+     * Durée maximale pendant laquelle un ETag reste valide sans écriture sur cette instance.
+     */
+    @Value("${app.etag.max-staleness:30s}")
+    private Duration maxStaleness;
+
+    /**
+     * Version commune à tout le contenu : noms d'utilisateur affichés, import en masse.
+     */
+    private final AtomicLong global = new AtomicLong();
+
+    /**
+     * Version de la liste des topics.
+     */
+    private final AtomicLong topics = new AtomicLong();
+
+    /**
+     * Version de la liste des posts (création d'un post ou d'un commentaire, qui change les compteurs).
+     */
+    private final AtomicLong posts = new AtomicLong();
+
+    /**
+     * Versions des posts (détail et commentaires), par case.
+     */
+    private final AtomicLongArray postStripes = new AtomicLongArray(STRIPES);
+
+    /**
+     * Versions des abonnements des utilisateurs, par case.
+     */
+    private final AtomicLongArray subscriptionStripes = new AtomicLongArray(STRIPES);
+
+    /**
+     * ETag de la liste des topics vue par un utilisateur (avec ses indicateurs d'abonnement).
+     *
+     * @param userId l'identifiant de l'utilisateur connecté (null si anonyme)
+     * @return l'ETag, sans guillemets
+     */
+    public String topicsEtag(Long userId)
+    {
+        String subscriptions = userId == null ? "anon" : userId + "." + subscriptionStripes.get(stripe(userId));
+        return prefix() + "-t" + topics.get() + "-u" + subscriptions;
+    }
+
+    /**
+     * ETag de la liste des posts.
+     *
+     * @param view le mode de liste ({@code full} ou {@code excerpt})
+     * @return l'ETag, sans guillemets
+     */
+    public String postsEtag(String view)
+    {
+        return prefix() + "-p" + posts.get() + "-" + view;
+    }
+
+    /**
+     * ETag d'une représentation d'un post ou de ses commentaires.
+     *
+     * @param postId  l'identifiant du post
+     * @param variant les paramètres de la représentation (pagination des commentaires)
+     * @return l'ETag, sans guillemets
+     */
+    public String postEtag(Long postId, String variant)
+    {
+        return prefix() + "-p" + postId + "." + postStripes.get(stripe(postId)) + "-" + variant;
+    }
+
+    /**
+     * Signale la création d'un topic.
+     */
+    public void topicCreated()
+    {
+        afterCommit(topics::incrementAndGet);
+    }
+
+    /**
+     * Prend en compte un nouveau post après la validation de sa création.
+     *
+     * @param event l'événement de création du post
+     */
+    @TransactionalEventListener
+    public void onPostCreated(PostCreatedEvent event)
+    {
+        posts.incrementAndGet();
+    }
+
+    /**
+     * Prend en compte un nouveau commentaire après la validation de sa création :
+     * le post commenté et la liste des posts (compteurs de commentaires) changent.
+     *
+     * @param event l'événement de création du commentaire
+     */
+    @TransactionalEventListener
+    public void onCommentCreated(CommentCreatedEvent event)
+    {
+        postStripes.incrementAndGet(stripe(event.getPostId()));
+        posts.incrementAndGet();
+    }
+
+    /**
+     * Prend en compte un abonnement ou un désabonnement après sa validation.
+     *
+     * @param event l'événement de changement d'abonnement
+     */
+    @TransactionalEventListener
+    public void onSubscriptionChanged(SubscriptionChangedEvent event)
+    {
+        subscriptionStripes.incrementAndGet(stripe(event.getUserId()));
+    }
+
+    /**
+     * Signale une modification qui peut toucher tout le contenu (nom d'utilisateur, import en masse).
+     */
+    public void allChanged()
+    {
+        afterCommit(global::incrementAndGet);
+    }
+
+    /**
+     * Début commun des ETags : époque de l'instance, fenêtre de temps courante et version globale.
+     *
+     * @return le préfixe des ETags
+     */
+    private String prefix()
+    {
+        long staleness = maxStaleness.toMillis();
+        long window = staleness > 0 ? System.currentTimeMillis() / staleness : 0;
+        return epoch + "-" + Long.toString(window, 36) + "-" + global.get();
+    }
+
+    /**
+     * Exécute une incrémentation après la validation de la transaction courante, ou immédiatement hors transaction.
+     *
+     * @param increment l'incrémentation à exécuter
+     */
+    private static void afterCommit(Runnable increment)
+    {
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+        {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization()
+            {
+                @Override
+                public void afterCommit()
+                {
+                    increment.run();
+                }
+            });
+        }
+        else
+        {
+            increment.run();
+        }
+    }
+
+    /**
+     * Case du compteur d'un identifiant.
+     *
+     * @param id l'identifiant
+     * @return l'indice de la case
+     */
+    private static int stripe(Long id)
+    {
+        return Long.hashCode(id) & (STRIPES - 1);
+    }
+}
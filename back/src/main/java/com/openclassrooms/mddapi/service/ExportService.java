@@ -0,0 +1,233 @@
+package com.openclassrooms.mddapi.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.mddapi.repository.CommentRepository;
+import com.openclassrooms.mddapi.repository.PostRepository;
+import com.openclassrooms.mddapi.repository.UserRepository;
+import com.openclassrooms.mddapi.repository.projection.CommentSummary;
+import com.openclassrooms.mddapi.repository.projection.PostSummary;
+import com.openclassrooms.mddapi.repository.projection.SubscriptionSummary;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service d'export complet des posts, commentaires et abonnements au format NDJSON.
+ * <p>
+ * Chaque ligne est un objet JSON autonome :
+ * </p>
+ * <pre>
+ * {"type":"post","id":1,"topicId":2,"topic":"Java","authorId":3,"author":"alice","title":"...","content":"...","createdAt":"2024-01-31T10:15:30Z","comments":[{"id":7,"authorId":4,"author":"bob","content":"...","createdAt":"..."}]}
+ * {"type":"subscription","userId":3,"username":"alice","topicId":2,"topic":"Java"}
+ * </pre>
+ * <p>
+ * Les posts (triés par identifiant) et les commentaires (triés par post) sont lus
+ * par deux curseurs JDBC en avant seulement, fusionnés au fil de la lecture : les
+ * commentaires d'un post sont écrits dans sa ligne sans requête par post, et seul
+ * le lot de lignes courant de chaque curseur est en mémoire. Les deux lectures
+ * ont lieu dans la même transaction et voient donc le même instantané de la base
+ * (isolation {@code REPEATABLE READ} de MySQL).
+ * </p>
+ * <p>
+ * Avec MySQL, les curseurs ne sont lus par lots qu'avec {@code useCursorFetch=true}
+ * (imposé par la configuration du pool de connexions) ; c'est aussi ce qui permet
+ * de garder deux curseurs ouverts sur la même connexion.
+ * </p>
+ *
+ */
+@Service
+public class ExportService
+{
+    /**
+     * Nombre de lignes écrites entre deux vidages de la sortie.
+     */
+    private static final int FLUSH_INTERVAL = 500;
+
+    /**
+     * Taille du tampon de compression gzip, en octets.
+     */
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    private final PostRepository postRepository;
+    private final CommentRepository commentRepository;
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Constructeur avec injection des dépendances.
+     *
+     * @param postRepository    le repository pour parcourir les posts
+     * @param commentRepository le repository pour parcourir les commentaires
+     * @param userRepository    le repository pour parcourir les abonnements
+     * @param objectMapper      le mapper Jackson de l'application
+     */
+    public ExportService(PostRepository postRepository, CommentRepository commentRepository,
+                         UserRepository userRepository, ObjectMapper objectMapper)
+    {
+        this.postRepository = postRepository;
+        this.commentRepository = commentRepository;
+        this.userRepository = userRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Écrit l'export complet en NDJSON, éventuellement compressé avec gzip.
+     *
+     * @param outputStream le flux de sortie, vidé mais non fermé
+     * @param gzip         true pour compresser la sortie avec gzip
+     * @return le nombre de lignes écrites
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    @Transactional(readOnly = true)
+    public long export(OutputStream outputStream, boolean gzip) throws IOException
+    {
+        if (!gzip)
+        {
+            return writeNdjson(outputStream);
+        }
+
+        GZIPOutputStream compressed = new GZIPOutputStream(outputStream, GZIP_BUFFER_SIZE);
+        long lines = writeNdjson(compressed);
+        // Termine le flux gzip sans fermer la sortie sous-jacente
+        compressed.finish();
+        outputStream.flush();
+        return lines;
+    }
+
+    /**
+     * Écrit les posts avec leurs commentaires puis les abonnements, une ligne JSON par élément.
+     *
+     * @param outputStream le flux de sortie, non fermé
+     * @return le nombre de lignes écrites
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    private long writeNdjson(OutputStream outputStream) throws IOException
+    {
+        long lines = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream))
+        {
+            // La fermeture du flux reste à la charge de l'appelant ; une ligne par objet, sans séparateur
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+
+            try (Stream<PostSummary> posts = postRepository.streamAllSummaries();
+                 Stream<CommentSummary> comments = commentRepository.streamAllSummariesByPost())
+            {
+                Iterator<CommentSummary> commentIterator = comments.iterator();
+                CommentSummary comment = commentIterator.hasNext() ? commentIterator.next() : null;
+
+                Iterator<PostSummary> postIterator = posts.iterator();
+                while (postIterator.hasNext())
+                {
+                    PostSummary post = postIterator.next();
+                    writePostStart(generator, post);
+
+                    while (comment != null && comment.getPostId() <= post.getId())
+                    {
+                        if (comment.getPostId().equals(post.getId()))
+                        {
+                            writeComment(generator, comment);
+                        }
+                        comment = commentIterator.hasNext() ? commentIterator.next() : null;
+                    }
+
+                    generator.writeEndArray();
+                    generator.writeEndObject();
+                    lines = endLine(generator, lines);
+                }
+            }
+
+            try (Stream<SubscriptionSummary> subscriptions = userRepository.streamAllSubscriptions())
+            {
+                Iterator<SubscriptionSummary> iterator = subscriptions.iterator();
+                while (iterator.hasNext())
+                {
+                    writeSubscription(generator, iterator.next());
+                    lines = endLine(generator, lines);
+                }
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Écrit les champs d'un post et ouvre le tableau de ses commentaires.
+     *
+     * @param generator le générateur JSON
+     * @param post      le post à écrire
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    private void writePostStart(JsonGenerator generator, PostSummary post) throws IOException
+    {
+        generator.writeStartObject();
+        generator.writeStringField("type", "post");
+        generator.writeNumberField("id", post.getId());
+        generator.writeNumberField("topicId", post.getTopicId());
+        generator.writeStringField("topic", post.getTopicTitle());
+        generator.writeNumberField("authorId", post.getAuthorId());
+        generator.writeStringField("author", post.getAuthorName());
+        generator.writeStringField("title", post.getTitle());
+        generator.writeStringField("content", post.getContent());
+        generator.writeStringField("createdAt", post.getCreatedAt().toString());
+        generator.writeArrayFieldStart("comments");
+    }
+
+    /**
+     * Écrit un commentaire dans le tableau des commentaires de son post.
+     *
+     * @param generator le générateur JSON
+     * @param comment   le commentaire à écrire
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    private void writeComment(JsonGenerator generator, CommentSummary comment) throws IOException
+    {
+        generator.writeStartObject();
+        generator.writeNumberField("id", comment.getId());
+        generator.writeNumberField("authorId", comment.getAuthorId());
+        generator.writeStringField("author", comment.getAuthorName());
+        generator.writeStringField("content", comment.getContent());
+        generator.writeStringField("createdAt", comment.getCreatedAt().toString());
+        generator.writeEndObject();
+    }
+
+    /**
+     * Écrit un abonnement.
+     *
+     * @param generator    le générateur JSON
+     * @param subscription l'abonnement à écrire
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    private void writeSubscription(JsonGenerator generator, SubscriptionSummary subscription) throws IOException
+    {
+        generator.writeStartObject();
+        generator.writeStringField("type", "subscription");
+        generator.writeNumberField("userId", subscription.getUserId());
+        generator.writeStringField("username", subscription.getUsername());
+        generator.writeNumberField("topicId", subscription.getTopicId());
+        generator.writeStringField("topic", subscription.getTopicTitle());
+        generator.writeEndObject();
+    }
+
+    /**
+     * Termine la ligne courante et vide la sortie tous les {@value #FLUSH_INTERVAL} lignes.
+     *
+     * @param generator le générateur JSON
+     * @param lines     le nombre de lignes écrites avant celle-ci
+     * @return le nombre de lignes écrites, celle-ci comprise
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    private long endLine(JsonGenerator generator, long lines) throws IOException
+    {
+        generator.writeRaw('\n');
+        if (++lines % FLUSH_INTERVAL == 0)
+        {
+            generator.flush();
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,164 @@
+package com.openclassrooms.mddapi.service;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Connexion SSE d'un utilisateur au flux des nouveaux posts.
+ * <p>
+ * Les événements à envoyer sont placés dans un tampon borné, sans jamais bloquer
+ * le thread qui les publie ; un seul envoi à la fois est planifié sur l'exécuteur
+ * fourni, qui vide le tampon puis se termine. Une connexion inactive n'occupe donc
+ * aucun thread, seulement son tampon et sa réponse HTTP suspendue.
+ * </p>
+ * <p>
+ * Lorsque le tampon est plein, le client ne lit pas assez vite : {@link #offer(Set)}
+ * retourne false et l'appelant ferme la connexion. Le client se reconnecte et
+ * recharge le fil plutôt que de faire grossir la mémoire du serveur.
+ * </p>
+ *
+ */
+public class FeedConnection
+{
+    private final Long userId;
+    private final SseEmitter emitter;
+
+    /**
+     * Événements en attente d'envoi, déjà sérialisés et partagés entre les connexions.
+     */
+    private final BlockingQueue<Set<DataWithMediaType>> pending;
+
+    /**
+     * Topics suivis par la connexion (ceux de l'index où elle est enregistrée).
+     */
+    private final Set<Long> topicIds = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Indique qu'un envoi est planifié ou en cours.
+     */
+    private final AtomicBoolean sending = new AtomicBoolean();
+
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    /**
+     * Construit une connexion.
+     *
+     * @param userId     l'identifiant de l'utilisateur connecté
+     * @param emitter    la réponse SSE de la connexion
+     * @param bufferSize le nombre maximal d'événements en attente d'envoi
+     */
+    public FeedConnection(Long userId, SseEmitter emitter, int bufferSize)
+    {
+        this.userId = userId;
+        this.emitter = emitter;
+        this.pending = new ArrayBlockingQueue<>(bufferSize);
+    }
+
+    public Long getUserId()
+    {
+        return userId;
+    }
+
+    public SseEmitter getEmitter()
+    {
+        return emitter;
+    }
+
+    public Set<Long> getTopicIds()
+    {
+        return topicIds;
+    }
+
+    /**
+     * Ajoute un événement au tampon, sans attendre.
+     *
+     * @param event l'événement sérialisé
+     * @return false si le tampon est plein ou la connexion fermée
+     */
+    public boolean offer(Set<DataWithMediaType> event)
+    {
+        return !closed.get() && pending.offer(event);
+    }
+
+    /**
+     * Planifie l'envoi des événements en attente, sauf si un envoi est déjà en cours.
+     *
+     * @param executor l'exécuteur des envois
+     */
+    public void flush(Executor executor)
+    {
+        if (sending.compareAndSet(false, true))
+        {
+            executor.execute(this::send);
+        }
+    }
+
+    /**
+     * Termine la connexion ; sans effet si elle l'est déjà.
+     */
+    public void close()
+    {
+        if (closed.compareAndSet(false, true))
+        {
+            pending.clear();
+            emitter.complete();
+        }
+    }
+
+    /**
+     * Marque la connexion comme fermée sans terminer la réponse (déjà terminée ou en erreur).
+     */
+    public void discard()
+    {
+        closed.set(true);
+        pending.clear();
+    }
+
+    public boolean isClosed()
+    {
+        return closed.get();
+    }
+
+    /**
+     * Envoie les événements en attente jusqu'à vider le tampon.
+     * <p>
+     * Un événement ajouté juste après le dernier {@code poll} est repris par la
+     * seconde vérification, ou par l'envoi planifié par son producteur.
+     * </p>
+     */
+    private void send()
+    {
+        while (true)
+        {
+            Set<DataWithMediaType> event = pending.poll();
+            if (event == null)
+            {
+                sending.set(false);
+                if (pending.isEmpty() || !sending.compareAndSet(false, true))
+                {
+                    return;
+                }
+                continue;
+            }
+
+            try
+            {
+                emitter.send(event);
+            }
+            catch (IOException | IllegalStateException e)
+            {
+                // Client déconnecté ou réponse déjà terminée : le conteneur signale l'erreur
+                // à l'emitter (onError), qui retire la connexion du hub
+                discard();
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,408 @@
+package com.openclassrooms.mddapi.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.openclassrooms.mddapi.dto.PostResponse;
+import com.openclassrooms.mddapi.event.SubscriptionChangedEvent;
+import com.openclassrooms.mddapi.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Service de diffusion en temps réel des nouveaux posts (Server-Sent Events).
+ * <p>
+ * Chaque connexion ouverte sur {@code GET /api/stream/feed} est enregistrée dans
+ * un index topic → connexions, construit à partir des abonnements de l'utilisateur
+ * et tenu à jour par les événements de changement d'abonnement. À la création d'un
+ * post, l'événement est sérialisé une seule fois puis déposé dans le tampon de
+ * chaque connexion abonnée au topic : le coût de la diffusion est proportionnel au
+ * nombre de connexions concernées, et non au nombre total de connexions.
+ * </p>
+ * <p>
+ * Les envois sont effectués sur des threads virtuels, planifiés seulement lorsqu'une
+ * connexion a des événements en attente : une écriture bloquée par un client lent
+ * n'immobilise ni le thread de la requête qui a créé le post, ni les autres
+ * connexions. Chaque tampon est borné ({@code app.stream.buffer-size}) ; une
+ * connexion dont le tampon déborde est fermée (le client se reconnecte et recharge
+ * le fil). Un commentaire SSE est envoyé périodiquement à toutes les connexions
+ * pour que les proxys ne coupent pas les connexions inactives et que les clients
+ * partis soient détectés.
+ * </p>
+ * <p>
+ * Le hub est propre à l'instance : avec plusieurs instances, un client ne reçoit
+ * que les posts créés sur celle à laquelle il est connecté.
+ * </p>
+ * <p>
+ * Métriques publiées :
+ * </p>
+ * <ul>
+ *   <li>{@code feed.stream.connections} - nombre de connexions ouvertes</li>
+ *   <li>{@code feed.stream.dropped} - connexions fermées car leur tampon était plein</li>
+ * </ul>
+ *
+ */
+@Service
+public class FeedStreamService implements DisposableBean
+{
+    /**
+     * Délai de reconnexion conseillé aux clients, en millisecondes.
+     */
+    private static final long RECONNECT_DELAY_MILLIS = 5000;
+
+    /**
+     * Commentaire SSE envoyé périodiquement, partagé par toutes les connexions.
+     */
+    private static final Set<DataWithMediaType> HEARTBEAT = SseEmitter.event().comment("").build();
+
+    private final UserRepository userRepository;
+
+    /**
+     * Writer Jackson des posts diffusés.
+     */
+    private final ObjectWriter postWriter;
+
+    /**
+     * Connexions ouvertes, indexées par topic suivi.
+     */
+    private final ConcurrentMap<Long, Set<FeedConnection>> connectionsByTopic = new ConcurrentHashMap<>();
+
+    /**
+     * Connexions ouvertes, indexées par utilisateur (changements d'abonnement, heartbeats).
+     */
+    private final ConcurrentMap<Long, Set<FeedConnection>> connectionsByUser = new ConcurrentHashMap<>();
+
+    private final AtomicInteger connectionCount = new AtomicInteger();
+
+    /**
+     * Exécuteur des envois, un thread virtuel par envoi planifié.
+     */
+    private final ExecutorService senders = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("feed-stream-", 0).factory());
+
+    private final Counter droppedCounter;
+
+    /**
+     * Nombre maximal de connexions ouvertes sur l'instance.
+     */
+    @Value("${app.stream.max-connections:20000}")
+    private int maxConnections;
+
+    /**
+     * Nombre maximal d'événements en attente d'envoi par connexion.
+     */
+    @Value("${app.stream.buffer-size:32}")
+    private int bufferSize;
+
+    /**
+     * Durée de vie d'une connexion, au terme de laquelle le client se reconnecte.
+     */
+    @Value("${app.stream.timeout:30m}")
+    private Duration timeout;
+
+    /**
+     * Constructeur avec injection des dépendances.
+     *
+     * @param userRepository le repository pour lire les abonnements des utilisateurs
+     * @param objectMapper   le mapper Jackson de l'application
+     * @param meterRegistry  le registre de métriques
+     */
+    public FeedStreamService(UserRepository userRepository, ObjectMapper objectMapper, MeterRegistry meterRegistry)
+    {
+        this.userRepository = userRepository;
+        this.postWriter = objectMapper.writerFor(PostResponse.class);
+
+        Gauge.builder("feed.stream.connections", connectionCount, AtomicInteger::get)
+                .description("Connexions SSE ouvertes")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("feed.stream.dropped")
+                .description("Connexions SSE fermées car le client ne lisait pas assez vite")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Ouvre une connexion au flux des nouveaux posts des topics suivis par un utilisateur.
+     * <p>
+     * Les topics suivis sont lus dans une transaction courte : sans open-in-view
+     * ({@code spring.jpa.open-in-view=false}), la connexion JDBC est rendue au pool
+     * avant que la réponse SSE ne reste ouverte.
+     * </p>
+     *
+     * @param userId l'identifiant de l'utilisateur connecté
+     * @return la réponse SSE, ou null si le nombre maximal de connexions est atteint
+     */
+    public SseEmitter connect(Long userId)
+    {
+        if (connectionCount.incrementAndGet() > maxConnections)
+        {
+            connectionCount.decrementAndGet();
+            return null;
+        }
+
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        FeedConnection connection = new FeedConnection(userId, emitter, bufferSize);
+        emitter.onCompletion(() -> unregister(connection));
+        emitter.onTimeout(connection::close);
+        emitter.onError(error -> unregister(connection));
+
+        // Enregistrée d'abord par utilisateur, pour recevoir les changements d'abonnement
+        // survenant pendant la lecture des topics suivis
+        add(connectionsByUser, userId, connection);
+        try
+        {
+            for (Long topicId : userRepository.findSubscribedTopicIds(userId))
+            {
+                follow(connection, topicId);
+            }
+        }
+        catch (RuntimeException e)
+        {
+            unregister(connection);
+            throw e;
+        }
+
+        // Premier envoi immédiat : le client reçoit les en-têtes et le délai de reconnexion
+        connection.offer(SseEmitter.event().reconnectTime(RECONNECT_DELAY_MILLIS).comment("connected").build());
+        connection.flush(senders);
+        return emitter;
+    }
+
+    /**
+     * Diffuse un nouveau post aux connexions abonnées à son topic, après la validation de sa création.
+     * <p>
+     * Le post est sérialisé immédiatement ; la diffusion n'a lieu que si la
+     * transaction courante est validée (immédiatement hors transaction).
+     * </p>
+     *
+     * @param post le post créé, en mode extrait
+     */
+    public void publish(PostResponse post)
+    {
+        Set<DataWithMediaType> event = toEvent(post);
+        Long topicId = post.getTopicId();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+        {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization()
+            {
+                @Override
+                public void afterCommit()
+                {
+                    dispatch(topicId, event);
+                }
+            });
+        }
+        else
+        {
+            dispatch(topicId, event);
+        }
+    }
+
+    /**
+     * Met à jour l'index des connexions d'un utilisateur après un changement d'abonnement.
+     *
+     * @param event l'événement de changement d'abonnement
+     */
+    @TransactionalEventListener
+    public void onSubscriptionChanged(SubscriptionChangedEvent event)
+    {
+        Set<FeedConnection> connections = connectionsByUser.get(event.getUserId());
+        if (connections == null)
+        {
+            return;
+        }
+
+        for (FeedConnection connection : connections)
+        {
+            if (event.isSubscribed())
+            {
+                follow(connection, event.getTopicId());
+            }
+            else
+            {
+                unfollow(connection, event.getTopicId());
+            }
+        }
+    }
+
+    /**
+     * Envoie un commentaire SSE à toutes les connexions ouvertes.
+     * <p>
+     * Une connexion dont le tampon est plein n'est pas fermée ici : elle le sera
+     * au prochain post si le client ne lit toujours pas.
+     * </p>
+     */
+    @Scheduled(fixedDelayString = "${app.stream.heartbeat-interval:25000}")
+    public void heartbeat()
+    {
+        for (Set<FeedConnection> connections : connectionsByUser.values())
+        {
+            for (FeedConnection connection : connections)
+            {
+                if (connection.offer(HEARTBEAT))
+                {
+                    connection.flush(senders);
+                }
+            }
+        }
+    }
+
+    /**
+     * Ferme toutes les connexions et arrête l'exécuteur des envois à la fermeture du contexte.
+     */
+    @Override
+    public void destroy()
+    {
+        for (Set<FeedConnection> connections : connectionsByUser.values())
+        {
+            connections.forEach(FeedConnection::close);
+        }
+        senders.shutdown();
+    }
+
+    /**
+     * Dépose un événement dans le tampon de chaque connexion abonnée au topic.
+     *
+     * @param topicId l'identifiant du topic du post
+     * @param event   l'événement sérialisé
+     */
+    private void dispatch(Long topicId, Set<DataWithMediaType> event)
+    {
+        Set<FeedConnection> connections = connectionsByTopic.get(topicId);
+        if (connections == null)
+        {
+            return;
+        }
+
+        for (FeedConnection connection : connections)
+        {
+            if (connection.offer(event))
+            {
+                connection.flush(senders);
+            }
+            else if (!connection.isClosed())
+            {
+                droppedCounter.increment();
+                connection.close();
+            }
+        }
+    }
+
+    /**
+     * Construit l'événement SSE d'un post ({@code event: post}, identifiant du post, données JSON).
+     *
+     * @param post le post à diffuser
+     * @return l'événement sérialisé
+     */
+    private Set<DataWithMediaType> toEvent(PostResponse post)
+    {
+        try
+        {
+            return SseEmitter.event()
+                    .id(String.valueOf(post.getId()))
+                    .name("post")
+                    .data(postWriter.writeValueAsString(post))
+                    .build();
+        }
+        catch (JsonProcessingException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Enregistre une connexion dans l'index d'un topic.
+     *
+     * @param connection la connexion
+     * @param topicId    l'identifiant du topic suivi
+     */
+    private void follow(FeedConnection connection, Long topicId)
+    {
+        connection.getTopicIds().add(topicId);
+        add(connectionsByTopic, topicId, connection);
+
+        // Connexion terminée entre-temps : unregister() a pu parcourir ses topics avant cet ajout
+        if (connection.isClosed())
+        {
+            unfollow(connection, topicId);
+        }
+    }
+
+    /**
+     * Retire une connexion de l'index d'un topic, et l'entrée du topic si elle devient vide.
+     *
+     * @param connection la connexion
+     * @param topicId    l'identifiant du topic qui n'est plus suivi
+     */
+    private void unfollow(FeedConnection connection, Long topicId)
+    {
+        connection.getTopicIds().remove(topicId);
+        connectionsByTopic.computeIfPresent(topicId, (id, connections) -> {
+            connections.remove(connection);
+            return connections.isEmpty() ? null : connections;
+        });
+    }
+
+    /**
+     * Ajoute une connexion à l'entrée d'un index, créée si besoin.
+     * <p>
+     * L'ajout a lieu dans {@code compute} : il ne peut pas viser un ensemble
+     * que {@link #unfollow} ou {@link #unregister} vient de retirer de l'index.
+     * </p>
+     *
+     * @param index      l'index des connexions
+     * @param key        la clé de l'entrée (topic ou utilisateur)
+     * @param connection la connexion à ajouter
+     */
+    private static void add(ConcurrentMap<Long, Set<FeedConnection>> index, Long key, FeedConnection connection)
+    {
+        index.compute(key, (id, connections) -> {
+            Set<FeedConnection> entry = connections != null ? connections : ConcurrentHashMap.newKeySet();
+            entry.add(connection);
+            return entry;
+        });
+    }
+
+    /**
+     * Retire une connexion terminée de tous les index ; sans effet si elle l'est déjà.
+     *
+     * @param connection la connexion terminée
+     */
+    private void unregister(FeedConnection connection)
+    {
+        connection.discard();
+        boolean[] removed = new boolean[1];
+        connectionsByUser.computeIfPresent(connection.getUserId(), (id, connections) -> {
+            removed[0] = connections.remove(connection);
+            return connections.isEmpty() ? null : connections;
+        });
+        if (!removed[0])
+        {
+            return;
+        }
+
+        for (Long topicId : connection.getTopicIds())
+        {
+            unfollow(connection, topicId);
+        }
+        connectionCount.decrementAndGet();
+    }
+}
@@ -0,0 +1,554 @@
+package com.openclassrooms.mddapi.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.mddapi.dto.ImportReport;
+import com.openclassrooms.mddapi.entity.Post;
+import com.openclassrooms.mddapi.entity.Topic;
+import com.openclassrooms.mddapi.entity.User;
+import com.openclassrooms.mddapi.repository.PostRepository;
+import com.openclassrooms.mddapi.repository.TopicRepository;
+import com.openclassrooms.mddapi.repository.UserRepository;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.TreeMap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service d'import en masse de posts et de commentaires au format NDJSON.
+ * <p>
+ * L'entrée est lue ligne par ligne (un objet JSON par ligne) sans être chargée
+ * en mémoire. Deux types de lignes sont acceptés :
+ * </p>
+ * <pre>
+ * {"type":"post","ref":"forum-42","topic":"Java","author":"alice","title":"...","content":"...","createdAt":"2024-01-31T10:15:30Z"}
+ * {"type":"comment","postRef":"forum-42","author":"bob","content":"...","createdAt":"2024-01-31T11:00:00Z"}
+ * </pre>
+ * <p>
+ * Le topic est désigné par son titre ({@code topic}) ou son identifiant
+ * ({@code topicId}), l'auteur par son nom d'utilisateur ({@code author}). Un
+ * commentaire désigne son post par la référence externe d'un post du même
+ * import ({@code postRef}) ou par l'identifiant d'un post existant
+ * ({@code postId}). La date est optionnelle (date de l'import par défaut).
+ * </p>
+ * <p>
+ * Les identifiants sont réservés par blocs dans la table {@code id_generators},
+ * partagée avec Hibernate : ils sont connus avant l'insertion, ce qui permet
+ * d'insérer par lots JDBC ({@code app.import.batch-size} lignes par requête
+ * groupée et par transaction ; avec {@code rewriteBatchedStatements=true},
+ * imposé par la configuration du pool de connexions, chaque lot devient une
+ * seule instruction {@code INSERT} multi-lignes).
+ * Les compteurs {@code posts.comment_count} sont mis à jour dans la transaction
+ * de chaque lot de commentaires.
+ * </p>
+ * <p>
+ * Une ligne invalide est rejetée sans interrompre l'import ; un lot refusé par
+ * la base est rejeté en entier. Les lignes importées ne passent pas par les
+ * événements applicatifs : l'index de recherche est reconstruit, les fils
+ * d'actualité en mémoire sont écartés et les ETags invalidés à la fin de l'import.
+ * </p>
+ *
+ */
+@Service
+public class ImportService
+{
+    /**
+     * Nombre maximal d'erreurs détaillées dans le rapport.
+     */
+    public static final int MAX_REPORTED_ERRORS = 20;
+
+    /**
+     * Longueur maximale d'un titre de post (colonne {@code VARCHAR(255)}).
+     */
+    private static final int MAX_TITLE_LENGTH = 255;
+
+    private static final String INSERT_POST_SQL = "INSERT INTO posts "
+            + "(post_id, title, content, excerpt, created_at, topic_id, user_id, comment_count) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, 0)";
+    private static final String INSERT_COMMENT_SQL = "INSERT INTO comments "
+            + "(id, content, created_at, user_id, post_id) VALUES (?, ?, ?, ?, ?)";
+    private static final String INCREMENT_COMMENT_COUNT_SQL = "UPDATE posts SET comment_count = comment_count + ? "
+            + "WHERE post_id = ?";
+    private static final String SELECT_NEXT_ID_SQL = "SELECT next_val FROM id_generators WHERE name = ? FOR UPDATE";
+    private static final String RESERVE_IDS_SQL = "UPDATE id_generators SET next_val = next_val + ? WHERE name = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TopicRepository topicRepository;
+    private final UserRepository userRepository;
+    private final PostRepository postRepository;
+    private final SearchService searchService;
+    private final TimelineService timelineService;
+    private final ContentVersionService contentVersionService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Transaction d'un lot d'insertions.
+     */
+    private final TransactionTemplate batchTransaction;
+
+    /**
+     * Transaction indépendante et courte de réservation d'un bloc d'identifiants.
+     */
+    private final TransactionTemplate idTransaction;
+
+    /**
+     * Nombre de lignes par lot d'insertion (et par bloc d'identifiants réservé).
+     */
+    @Value("${app.import.batch-size:1000}")
+    private int batchSize;
+
+    /**
+     * Constructeur avec injection des dépendances.
+     *
+     * @param jdbcTemplate          le template JDBC pour les insertions par lot
+     * @param transactionManager    le gestionnaire de transactions de l'application
+     * @param topicRepository       le repository pour résoudre les topics
+     * @param userRepository        le repository pour résoudre les auteurs
+     * @param postRepository        le repository pour vérifier les posts existants
+     * @param searchService         le service de recherche, reconstruit après l'import
+     * @param timelineService       le service des fils d'actualité, écartés après l'import
+     * @param contentVersionService le service des versions du contenu, invalidées après l'import
+     * @param objectMapper          le mapper JSON pour lire les lignes
+     */
+    public ImportService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                         TopicRepository topicRepository, UserRepository userRepository, PostRepository postRepository,
+                         SearchService searchService, TimelineService timelineService,
+                         ContentVersionService contentVersionService, ObjectMapper objectMapper)
+    {
+        this.jdbcTemplate = jdbcTemplate;
+        this.topicRepository = topicRepository;
+        this.userRepository = userRepository;
+        this.postRepository = postRepository;
+        this.searchService = searchService;
+        this.timelineService = timelineService;
+        this.contentVersionService = contentVersionService;
+        this.objectMapper = objectMapper;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.idTransaction = new TransactionTemplate(transactionManager);
+        this.idTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Importe des posts et des commentaires depuis un flux NDJSON.
+     *
+     * @param input le flux NDJSON (UTF-8), lu jusqu'à la fin mais non fermé
+     * @return le rapport de l'import
+     * @throws IOException en cas d'erreur de lecture du flux
+     */
+    public ImportReport importNdjson(InputStream input) throws IOException
+    {
+        long start = System.nanoTime();
+        ImportSession session = new ImportSession();
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null)
+        {
+            lineNumber++;
+            if (line.isBlank())
+            {
+                continue;
+            }
+            try
+            {
+                session.add(lineNumber, objectMapper.readTree(line));
+            }
+            catch (JsonProcessingException e)
+            {
+                session.reject(lineNumber, "JSON invalide");
+            }
+            catch (IllegalArgumentException e)
+            {
+                session.reject(lineNumber, e.getMessage());
+            }
+        }
+        session.flushComments();
+
+        if (session.importedPosts + session.importedComments > 0)
+        {
+            searchService.rebuild();
+            timelineService.clear();
+            contentVersionService.allChanged();
+        }
+
+        long durationMillis = (System.nanoTime() - start) / 1_000_000;
+        return new ImportReport(session.importedPosts, session.importedComments, session.rejected, session.errors,
+                durationMillis);
+    }
+
+    /**
+     * Réserve un bloc d'identifiants consécutifs dans la table {@code id_generators}.
+     * <p>
+     * Même convention que l'optimiseur {@code pooled-lo} d'Hibernate : la ligne
+     * contient le premier identifiant libre, le bloc est {@code [next_val, next_val + count[}.
+     * </p>
+     *
+     * @param name  le nom du générateur ({@code posts} ou {@code comments})
+     * @param count la taille du bloc
+     * @return le premier identifiant du bloc
+     */
+    private long reserveIds(String name, int count)
+    {
+        Long first = idTransaction.execute(status ->
+        {
+            Long next = jdbcTemplate.queryForObject(SELECT_NEXT_ID_SQL, Long.class, name);
+            jdbcTemplate.update(RESERVE_IDS_SQL, count, name);
+            return next;
+        });
+        if (first == null)
+        {
+            throw new IllegalStateException("Générateur d'identifiants introuvable : " + name);
+        }
+        return first;
+    }
+
+    /**
+     * Post lu et validé, en attente d'insertion.
+     */
+    private record PostRow(long line, long id, String ref, String title, String content, Instant createdAt,
+                           long topicId, long authorId)
+    {
+    }
+
+    /**
+     * Commentaire lu et validé, en attente d'insertion.
+     */
+    private record CommentRow(long line, long id, String content, Instant createdAt, long authorId, long postId)
+    {
+    }
+
+    /**
+     * Bloc d'identifiants réservé, consommé au fil des lignes.
+     */
+    private final class IdBlock
+    {
+        private final String name;
+        private long next;
+        private long limit;
+
+        private IdBlock(String name)
+        {
+            this.name = name;
+        }
+
+        private long next()
+        {
+            if (next == limit)
+            {
+                next = reserveIds(name, batchSize);
+                limit = next + batchSize;
+            }
+            return next++;
+        }
+    }
+
+    /**
+     * État d'un import : références résolues, lots en attente et compteurs.
+     */
+    private final class ImportSession
+    {
+        private final Map<String, Long> topicIdsByTitle = new HashMap<>();
+        private final Set<Long> topicIds = new HashSet<>();
+        private final Map<String, Long> userIdsByUsername = new HashMap<>();
+        private final Set<Long> existingPostIds = new HashSet<>();
+        private final Map<String, Long> postIdsByRef = new HashMap<>();
+
+        private final IdBlock postIds = new IdBlock("posts");
+        private final IdBlock commentIds = new IdBlock("comments");
+
+        private List<PostRow> pendingPosts = new ArrayList<>();
+        private List<CommentRow> pendingComments = new ArrayList<>();
+
+        /**
+         * Calendrier UTC de liaison des dates (même convention qu'Hibernate pour les {@link Instant}).
+         */
+        private final Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+
+        private long importedPosts;
+        private long importedComments;
+        private long rejected;
+        private final List<String> errors = new ArrayList<>();
+
+        private ImportSession()
+        {
+            for (Topic topic : topicRepository.findAll())
+            {
+                topicIds.add(topic.getId());
+                topicIdsByTitle.put(topic.getTitle().toLowerCase(), topic.getId());
+            }
+        }
+
+        /**
+         * Valide une ligne et l'ajoute au lot correspondant, envoyé en base dès qu'il est plein.
+         *
+         * @param line le numéro de la ligne
+         * @param node le contenu JSON de la ligne
+         * @throws IllegalArgumentException si la ligne est invalide
+         */
+        private void add(long line, JsonNode node)
+        {
+            String type = node.path("type").asText();
+            if ("post".equals(type))
+            {
+                addPost(line, node);
+            }
+            else if ("comment".equals(type))
+            {
+                addComment(line, node);
+            }
+            else
+            {
+                throw new IllegalArgumentException("type inconnu (attendu : post ou comment)");
+            }
+        }
+
+        private void addPost(long line, JsonNode node)
+        {
+            String title = requiredText(node, "title");
+            if (title.length() > MAX_TITLE_LENGTH)
+            {
+                throw new IllegalArgumentException("titre trop long (" + MAX_TITLE_LENGTH + " caractères maximum)");
+            }
+            String content = requiredText(node, "content");
+            long topicId = resolveTopic(node);
+            long authorId = resolveAuthor(node);
+            Instant createdAt = createdAt(node);
+
+            String ref = node.hasNonNull("ref") ? node.get("ref").asText() : null;
+            if (ref != null && postIdsByRef.containsKey(ref))
+            {
+                throw new IllegalArgumentException("référence de post en double : " + ref);
+            }
+
+            long id = postIds.next();
+            if (ref != null)
+            {
+                postIdsByRef.put(ref, id);
+            }
+            pendingPosts.add(new PostRow(line, id, ref, title, content, createdAt, topicId, authorId));
+            if (pendingPosts.size() >= batchSize)
+            {
+                flushPosts();
+            }
+        }
+
+        private void addComment(long line, JsonNode node)
+        {
+            String content = requiredText(node, "content");
+            long postId = resolvePost(node);
+            long authorId = resolveAuthor(node);
+            Instant createdAt = createdAt(node);
+
+            pendingComments.add(new CommentRow(line, commentIds.next(), content, createdAt, authorId, postId));
+            if (pendingComments.size() >= batchSize)
+            {
+                flushComments();
+            }
+        }
+
+        /**
+         * Insère le lot de posts en attente, en une requête groupée et une transaction.
+         */
+        private void flushPosts()
+        {
+            if (pendingPosts.isEmpty())
+            {
+                return;
+            }
+            List<PostRow> batch = pendingPosts;
+            pendingPosts = new ArrayList<>(batchSize);
+
+            try
+            {
+                batchTransaction.executeWithoutResult(status ->
+                        jdbcTemplate.batchUpdate(INSERT_POST_SQL, batch, batch.size(), (ps, row) ->
+                        {
+                            ps.setLong(1, row.id());
+                            ps.setString(2, row.title());
+                            ps.setString(3, row.content());
+                            ps.setString(4, Post.excerptOf(row.content()));
+                            ps.setTimestamp(5, Timestamp.from(row.createdAt()), utc);
+                            ps.setLong(6, row.topicId());
+                            ps.setLong(7, row.authorId());
+                        }));
+                importedPosts += batch.size();
+            }
+            catch (DataAccessException e)
+            {
+                // Les commentaires suivants ne pourront plus désigner ces posts
+                batch.stream().filter(row -> row.ref() != null).forEach(row -> postIdsByRef.remove(row.ref()));
+                rejectBatch(batch.get(0).line(), batch.get(batch.size() - 1).line(), batch.size(), e);
+            }
+        }
+
+        /**
+         * Insère le lot de commentaires en attente et met à jour les compteurs de leurs posts.
+         * <p>
+         * Les posts en attente sont insérés d'abord, les commentaires pouvant y faire référence.
+         * </p>
+         */
+        private void flushComments()
+        {
+            flushPosts();
+            if (pendingComments.isEmpty())
+            {
+                return;
+            }
+            List<CommentRow> batch = pendingComments;
+            pendingComments = new ArrayList<>(batchSize);
+
+            // Tri par post : les verrous de ligne sont pris dans le même ordre que CommentCounterService
+            Map<Long, Long> countsByPost = new TreeMap<>();
+            batch.forEach(row -> countsByPost.merge(row.postId(), 1L, Long::sum));
+            List<Object[]> increments = new ArrayList<>(countsByPost.size());
+            countsByPost.forEach((postId, count) -> increments.add(new Object[] {count, postId}));
+
+            try
+            {
+                batchTransaction.executeWithoutResult(status ->
+                {
+                    jdbcTemplate.batchUpdate(INSERT_COMMENT_SQL, batch, batch.size(), (ps, row) ->
+                    {
+                        ps.setLong(1, row.id());
+                        ps.setString(2, row.content());
+                        ps.setTimestamp(3, Timestamp.from(row.createdAt()), utc);
+                        ps.setLong(4, row.authorId());
+                        ps.setLong(5, row.postId());
+                    });
+                    jdbcTemplate.batchUpdate(INCREMENT_COMMENT_COUNT_SQL, increments);
+                });
+                importedComments += batch.size();
+            }
+            catch (DataAccessException e)
+            {
+                rejectBatch(batch.get(0).line(), batch.get(batch.size() - 1).line(), batch.size(), e);
+            }
+        }
+
+        private String requiredText(JsonNode node, String field)
+        {
+            JsonNode value = node.get(field);
+            if (value == null || !value.isTextual() || value.asText().isBlank())
+            {
+                throw new IllegalArgumentException("champ '" + field + "' manquant ou vide");
+            }
+            return value.asText();
+        }
+
+        private long resolveTopic(JsonNode node)
+        {
+            Long topicId = null;
+            if (node.hasNonNull("topicId"))
+            {
+                long id = node.get("topicId").asLong();
+                topicId = topicIds.contains(id) ? id : null;
+            }
+            else if (node.hasNonNull("topic"))
+            {
+                topicId = topicIdsByTitle.get(node.get("topic").asText().toLowerCase());
+            }
+            if (topicId == null)
+            {
+                throw new IllegalArgumentException("topic introuvable");
+            }
+            return topicId;
+        }
+
+        private long resolveAuthor(JsonNode node)
+        {
+            String username = requiredText(node, "author");
+            if (!userIdsByUsername.containsKey(username))
+            {
+                userIdsByUsername.put(username, userRepository.findByUsername(username).map(User::getId).orElse(null));
+            }
+            Long authorId = userIdsByUsername.get(username);
+            if (authorId == null)
+            {
+                throw new IllegalArgumentException("auteur introuvable : " + username);
+            }
+            return authorId;
+        }
+
+        private long resolvePost(JsonNode node)
+        {
+            if (node.hasNonNull("postRef"))
+            {
+                Long postId = postIdsByRef.get(node.get("postRef").asText());
+                if (postId == null)
+                {
+                    throw new IllegalArgumentException("post introuvable : " + node.get("postRef").asText());
+                }
+                return postId;
+            }
+            if (node.hasNonNull("postId"))
+            {
+                long postId = node.get("postId").asLong();
+                if (existingPostIds.contains(postId) || postRepository.existsById(postId))
+                {
+                    existingPostIds.add(postId);
+                    return postId;
+                }
+            }
+            throw new IllegalArgumentException("post introuvable (postRef ou postId attendu)");
+        }
+
+        private Instant createdAt(JsonNode node)
+        {
+            if (!node.hasNonNull("createdAt"))
+            {
+                return Instant.now().truncatedTo(ChronoUnit.MICROS);
+            }
+            try
+            {
+                return Instant.parse(node.get("createdAt").asText()).truncatedTo(ChronoUnit.MICROS);
+            }
+            catch (DateTimeParseException e)
+            {
+                throw new IllegalArgumentException("date invalide (format ISO-8601 attendu, ex. 2024-01-31T10:15:30Z)");
+            }
+        }
+
+        private void reject(long line, String message)
+        {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS)
+            {
+                errors.add("ligne " + line + " : " + message);
+            }
+        }
+
+        private void rejectBatch(long firstLine, long lastLine, int size, DataAccessException e)
+        {
+            rejected += size;
+            if (errors.size() < MAX_REPORTED_ERRORS)
+            {
+                errors.add("lignes " + firstLine + " à " + lastLine + " : lot refusé par la base ("
+                        + NestedExceptionUtils.getMostSpecificCause(e).getMessage() + ")");
+            }
+        }
+    }
+}
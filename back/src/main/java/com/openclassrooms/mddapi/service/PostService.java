@@ -1,15 +1,35 @@
 package com.openclassrooms.mddapi.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.openclassrooms.mddapi.dto.CommentPageResponse;
+import com.openclassrooms.mddapi.dto.FeedResponse;
+import com.openclassrooms.mddapi.dto.PageCursor;
 import com.openclassrooms.mddapi.dto.PostRequest;
 import com.openclassrooms.mddapi.dto.PostResponse;
 import com.openclassrooms.mddapi.entity.Post;
 import com.openclassrooms.mddapi.entity.Topic;
 import com.openclassrooms.mddapi.entity.User;
+import com.openclassrooms.mddapi.event.PostCreatedEvent;
 import com.openclassrooms.mddapi.repository.PostRepository;
+import com.openclassrooms.mddapi.repository.projection.PostSummary;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,25 +45,69 @@ import org.springframework.transaction.annotation.Transactional;
 @Service
 public class PostService
 {
+    /**
+     * Taille de page par défaut du fil d'actualité.
+     */
+    public static final int DEFAULT_FEED_PAGE_SIZE = 20;
+
+    /**
+     * Taille de page maximale autorisée pour le fil d'actualité.
+     */
+    public static final int MAX_FEED_PAGE_SIZE = 100;
+
+    /**
+     * Format des dates attendu par le frontend (instance immuable et thread-safe, partagée).
+     */
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy/MM/dd")
+            .withZone(ZoneId.systemDefault());
+
+    /**
+     * Nombre de posts écrits entre deux vidages du tampon de sortie lors d'un export en streaming.
+     */
+    private static final int STREAM_FLUSH_INTERVAL = 500;
+
     private final PostRepository postRepository;
     private final TopicService topicService;
     private final UserService userService;
     private final CommentService commentService;
+    private final TimelineService timelineService;
+    private final CommentCounterService commentCounterService;
+    private final FeedStreamService feedStreamService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Writer Jackson des posts, sans vidage automatique après chaque valeur :
+     * la sortie est vidée par lots lors du streaming.
+     */
+    private final ObjectWriter postWriter;
 
     /**
      * Constructeur avec injection des dépendances.
      *
-     * @param postRepository  le repository pour accéder aux données des posts
-     * @param topicService    le service pour gérer les topics
-     * @param userService     le service pour gérer les utilisateurs
-     * @param commentService  le service pour gérer les commentaires
+     * @param postRepository        le repository pour accéder aux données des posts
+     * @param topicService          le service pour gérer les topics
+     * @param userService           le service pour gérer les utilisateurs
+     * @param commentService        le service pour gérer les commentaires
+     * @param timelineService       le service des fils d'actualité en mémoire
+     * @param commentCounterService le service des compteurs de commentaires en attente de report
+     * @param feedStreamService     le service de diffusion des nouveaux posts (SSE)
+     * @param eventPublisher        le publicateur des événements applicatifs
+     * @param objectMapper          le mapper Jackson de l'application
      */
-    public PostService(PostRepository postRepository, TopicService topicService, UserService userService, CommentService commentService)
+    public PostService(PostRepository postRepository, TopicService topicService, UserService userService, CommentService commentService,
+                       TimelineService timelineService, CommentCounterService commentCounterService,
+                       FeedStreamService feedStreamService, ApplicationEventPublisher eventPublisher, ObjectMapper objectMapper)
     {
         this.postRepository = postRepository;
         this.topicService = topicService;
         this.userService = userService;
         this.commentService = commentService;
+        this.timelineService = timelineService;
+        this.commentCounterService = commentCounterService;
+        this.feedStreamService = feedStreamService;
+        this.eventPublisher = eventPublisher;
+        this.postWriter = objectMapper.writerFor(PostResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
 
     /**
@@ -70,48 +134,253 @@ public class PostService
         post.setAuthor(author);
 
         Post savedPost = postRepository.save(post);
+
+        // Les fils d'actualité des abonnés et l'index de recherche sont mis à jour après la validation
+        eventPublisher.publishEvent(new PostCreatedEvent(savedPost.getId(), topic.getId(), author.getId(),
+                savedPost.getCreatedAt(), savedPost.getTitle(), savedPost.getContent()));
+
+        // Les connexions SSE abonnées au topic reçoivent le post en mode extrait, après la validation
+        feedStreamService.publish(toListResponse(new PostSummary(savedPost.getId(), savedPost.getTitle(), savedPost.getExcerpt(),
+                topic.getId(), topic.getTitle(), author.getId(), author.getUsername(), savedPost.getCreatedAt(), 0)));
+
         return toResponse(savedPost);
     }
 
     /**
      * Récupère tous les articles (sans les commentaires).
+     * <p>
+     * En mode extrait, seul l'extrait précalculé est lu et retourné : la colonne
+     * TEXT du contenu n'est ni lue en base ni envoyée au client.
+     * </p>
      *
+     * @param excerptOnly true pour le mode extrait (sans le contenu complet)
      * @return la liste de tous les posts
      */
-    public List<PostResponse> getAllPosts()
+    public List<PostResponse> getAllPosts(boolean excerptOnly)
     {
-        List<Post> posts = postRepository.findAll();
+        List<PostSummary> posts = excerptOnly ? postRepository.findAllListItems() : postRepository.findAllSummaries();
         return posts.stream()
-                .map(this::toResponseWithoutComments)
+                .map(this::toListResponse)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Écrit tous les articles (sans les commentaires) sous forme de tableau JSON, en streaming.
+     * <p>
+     * Chaque post est sérialisé dès que sa ligne est lue en base : la liste complète
+     * n'est jamais construite en mémoire. Les lignes sont des projections, non gérées
+     * par le contexte de persistance ; tous les 500 posts, la sortie est envoyée au
+     * client, de sorte que la consommation mémoire reste constante quel que soit le
+     * nombre de posts.
+     * </p>
+     * <p>
+     * Le JSON produit est identique à celui de {@link #getAllPosts(boolean)} (à l'ordre près,
+     * ici croissant par identifiant).
+     * </p>
+     *
+     * @param outputStream le flux de sortie de la réponse HTTP
+     * @throws IOException en cas d'erreur d'écriture vers le client
+     */
+    @Transactional(readOnly = true)
+    public void writeAllPosts(OutputStream outputStream) throws IOException
+    {
+        try (Stream<PostSummary> posts = postRepository.streamAllSummaries();
+             JsonGenerator generator = postWriter.createGenerator(outputStream))
+        {
+            // La fermeture du flux HTTP reste à la charge du conteneur
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartArray();
+
+            int written = 0;
+            Iterator<PostSummary> iterator = posts.iterator();
+            while (iterator.hasNext())
+            {
+                postWriter.writeValue(generator, toListResponse(iterator.next()));
+                if (++written % STREAM_FLUSH_INTERVAL == 0)
+                {
+                    generator.flush();
+                }
+            }
+
+            generator.writeEndArray();
+        }
+    }
+
     /**
      * Récupère tous les articles d'un topic spécifique (sans les commentaires).
      *
-     * @param topicId l'identifiant du topic
+     * @param topicId     l'identifiant du topic
+     * @param excerptOnly true pour le mode extrait (sans le contenu complet)
      * @return la liste des posts du topic
      */
-    public List<PostResponse> getPostsByTopic(Long topicId)
+    public List<PostResponse> getPostsByTopic(Long topicId, boolean excerptOnly)
     {
-        List<Post> posts = postRepository.findByTopicId(topicId);
+        List<PostSummary> posts = excerptOnly
+                ? postRepository.findListItemsByTopicId(topicId)
+                : postRepository.findSummariesByTopicId(topicId);
         return posts.stream()
-                .map(this::toResponseWithoutComments)
+                .map(this::toListResponse)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Récupère une page du fil d'actualité personnalisé d'un utilisateur.
+     * <p>
+     * Seuls les posts des topics auxquels l'utilisateur est abonné sont retournés,
+     * du plus récent au plus ancien, en mode extrait (sans le contenu complet).
+     * Une ligne supplémentaire est demandée pour savoir s'il existe une page
+     * suivante sans requête de comptage.
+     * </p>
+     * <p>
+     * La page est d'abord lue dans le fil en mémoire de l'utilisateur
+     * ({@link TimelineService}) ; la jointure SQL n'est utilisée que lorsque
+     * la page dépasse ce que le fil en mémoire contient.
+     * </p>
+     *
+     * @param userId l'identifiant de l'utilisateur connecté
+     * @param cursor le curseur opaque de la page précédente (null pour la première page)
+     * @param size   la taille de page souhaitée (null pour la valeur par défaut)
+     * @return la page de posts et le curseur de la page suivante
+     * @throws IllegalArgumentException si le curseur est invalide
+     */
+    @Transactional(readOnly = true)
+    public FeedResponse getFeed(Long userId, String cursor, Integer size)
+    {
+        int pageSize = size == null ? DEFAULT_FEED_PAGE_SIZE : Math.max(1, Math.min(size, MAX_FEED_PAGE_SIZE));
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        PageCursor after = PageCursor.decode(cursor);
+
+        long[] postIds = timelineService.readPage(userId, after, pageSize + 1);
+        List<PostSummary> posts;
+        if (postIds != null)
+        {
+            posts = findAllInOrder(postIds);
+        }
+        else
+        {
+            posts = after == null
+                    ? postRepository.findFeedFirstPage(userId, limit)
+                    : postRepository.findFeedPageAfter(userId, after.getCreatedAt(), after.getId(), limit);
+        }
+
+        // La ligne supplémentaire indique seulement qu'une page suivante existe
+        boolean hasNext = posts.size() > pageSize;
+        List<PostSummary> page = hasNext ? posts.subList(0, pageSize) : posts;
+
+        String nextCursor = null;
+        if (hasNext)
+        {
+            PostSummary last = page.get(page.size() - 1);
+            nextCursor = new PageCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+
+        List<PostResponse> responses = page.stream()
+                .map(this::toListResponse)
+                .collect(Collectors.toList());
+        return new FeedResponse(responses, nextCursor);
+    }
+
+    /**
+     * Récupère des articles par identifiants en conservant l'ordre fourni, en mode
+     * extrait (sans le contenu complet ni les commentaires).
+     * <p>
+     * Les posts sont lus en une seule requête de projection ; les identifiants
+     * absents de la base sont ignorés.
+     * </p>
+     *
+     * @param postIds les identifiants des posts, dans l'ordre souhaité
+     * @return les posts trouvés, dans l'ordre des identifiants
+     */
+    @Transactional(readOnly = true)
+    public List<PostResponse> getPostsByIds(long[] postIds)
+    {
+        return findAllInOrder(postIds).stream()
+                .map(this::toListResponse)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Charge des posts par identifiants en conservant l'ordre fourni.
+     * <p>
+     * Les identifiants absents de la base (post supprimé entre-temps) sont ignorés.
+     * </p>
+     *
+     * @param postIds les identifiants des posts, dans l'ordre souhaité
+     * @return les posts trouvés, dans l'ordre des identifiants
+     */
+    private List<PostSummary> findAllInOrder(long[] postIds)
+    {
+        if (postIds.length == 0)
+        {
+            return new ArrayList<>();
+        }
+
+        List<Long> ids = Arrays.stream(postIds).boxed().collect(Collectors.toList());
+        Map<Long, PostSummary> postsById = postRepository.findSummariesByIdIn(ids).stream()
+                .collect(Collectors.toMap(PostSummary::getId, Function.identity()));
+
+        List<PostSummary> posts = new ArrayList<>(ids.size());
+        for (Long id : ids)
+        {
+            PostSummary post = postsById.get(id);
+            if (post != null)
+            {
+                posts.add(post);
+            }
+        }
+        return posts;
+    }
+
     /**
      * Récupère un article par son identifiant (avec les commentaires).
+     * <p>
+     * Le détail est chargé en deux requêtes au plus, quel que soit le nombre
+     * de commentaires : une pour le post, son topic et son auteur, une pour
+     * tous les commentaires et le nom de leurs auteurs.
+     * </p>
      *
      * @param id l'identifiant du post
      * @return le DTO du post avec ses commentaires
      * @throws IllegalArgumentException si le post n'existe pas
      */
+    @Transactional(readOnly = true)
     public PostResponse getPostById(Long id)
     {
-        Post post = postRepository.findById(id)
+        return getPostById(id, null);
+    }
+
+    /**
+     * Récupère un article par son identifiant, avec tout ou partie de ses commentaires.
+     * <p>
+     * Si {@code commentsLimit} est null, tous les commentaires sont inclus. Sinon,
+     * seule la première page est incluse, avec le nombre total de commentaires et
+     * le curseur de la page suivante ({@code GET /api/posts/{id}/comments?after=}).
+     * </p>
+     *
+     * @param id            l'identifiant du post
+     * @param commentsLimit la taille de la première page de commentaires (null pour tous)
+     * @return le DTO du post avec ses commentaires
+     * @throws IllegalArgumentException si le post n'existe pas
+     */
+    @Transactional(readOnly = true)
+    public PostResponse getPostById(Long id, Integer commentsLimit)
+    {
+        PostSummary post = postRepository.findSummaryById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Article introuvable avec l'ID : " + id));
-        return toResponse(post);
+
+        PostResponse response = toListResponse(post);
+        if (commentsLimit == null)
+        {
+            response.setComments(commentService.getCommentsByPost(id));
+        }
+        else
+        {
+            CommentPageResponse firstPage = commentService.getCommentsPage(id, null, commentsLimit);
+            response.setComments(firstPage.getComments());
+            response.setCommentCount(firstPage.getTotalCount());
+            response.setCommentsNextCursor(firstPage.getNextCursor());
+        }
+        return response;
     }
 
     /**
@@ -131,7 +400,8 @@ public class PostService
     /**
      * Convertit une entité Post en PostResponse sans les commentaires.
      * <p>
-     * Utilisée pour les listes de posts afin d'optimiser les performances.
+     * Le topic et l'auteur doivent être accessibles (déjà chargés ou session ouverte).
+     * Les listes utilisent {@link #toListResponse(PostSummary)}.
      * </p>
      *
      * @param post l'entité post à convertir
@@ -140,17 +410,46 @@ public class PostService
     private PostResponse toResponseWithoutComments(Post post)
     {
         PostResponse response = new PostResponse();
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy/MM/dd")
-                .withZone(ZoneId.systemDefault());
 
         response.setId(post.getId());
         response.setTitle(post.getTitle());
         response.setContent(post.getContent());
+        response.setExcerpt(post.getExcerpt());
         response.setTopicId(post.getTopic().getId());
         response.setTopicTitle(post.getTopic().getTitle());
         response.setAuthorId(post.getAuthor().getId());
         response.setAuthorName(post.getAuthor().getUsername());
-        response.setCreatedAt(formatter.format(post.getCreatedAt()));
+        response.setCreatedAt(DATE_FORMATTER.format(post.getCreatedAt()));
+        response.setCommentCount(post.getCommentCount() + commentCounterService.pendingCount(post.getId()));
+
+        return response;
+    }
+
+    /**
+     * Convertit une projection PostSummary en PostResponse sans les commentaires.
+     * <p>
+     * Utilisée pour toutes les listes de posts : la projection contient déjà
+     * le titre du topic, le nom de l'auteur et le nombre de commentaires
+     * (colonne dénormalisée), aucune requête supplémentaire n'est émise.
+     * </p>
+     *
+     * @param post la projection à convertir
+     * @return le DTO de réponse sans commentaires
+     */
+    public PostResponse toListResponse(PostSummary post)
+    {
+        PostResponse response = new PostResponse();
+
+        response.setId(post.getId());
+        response.setTitle(post.getTitle());
+        response.setContent(post.getContent());
+        response.setExcerpt(post.getExcerpt());
+        response.setTopicId(post.getTopicId());
+        response.setTopicTitle(post.getTopicTitle());
+        response.setAuthorId(post.getAuthorId());
+        response.setAuthorName(post.getAuthorName());
+        response.setCreatedAt(DATE_FORMATTER.format(post.getCreatedAt()));
+        response.setCommentCount(post.getCommentCount() + commentCounterService.pendingCount(post.getId()));
 
         return response;
     }
@@ -0,0 +1,336 @@
+package com.openclassrooms.mddapi.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index inversé en mémoire des posts et de leurs commentaires, classé par BM25.
+ * <p>
+ * Chaque post et chaque commentaire forme un document, identifié par un numéro
+ * interne dense attribué à l'ajout. Pour chaque terme, la liste des documents
+ * qui le contiennent (postings) est stockée dans des tableaux primitifs qui ne
+ * font que croître : l'index est alimenté par ajouts successifs, sans
+ * réécriture.
+ * </p>
+ * <p>
+ * Les termes du titre d'un post comptent {@value #TITLE_BOOST} fois. Le score
+ * d'un post est le score BM25 de son document augmenté de celui de son
+ * commentaire le plus pertinent, pondéré par {@value #COMMENT_WEIGHT}.
+ * </p>
+ * <p>
+ * Les lectures partagent un verrou en lecture ; les ajouts, courts et sans
+ * entrée/sortie, prennent le verrou en écriture.
+ * </p>
+ *
+ */
+public class SearchIndex
+{
+    /**
+     * Paramètre de saturation de la fréquence des termes (BM25).
+     */
+    private static final float K1 = 1.2f;
+
+    /**
+     * Paramètre de normalisation par la longueur des documents (BM25).
+     */
+    private static final float B = 0.75f;
+
+    /**
+     * Poids des termes du titre d'un post par rapport à ceux de son contenu.
+     */
+    static final int TITLE_BOOST = 2;
+
+    /**
+     * Poids du meilleur commentaire dans le score d'un post.
+     */
+    static final float COMMENT_WEIGHT = 0.5f;
+
+    /**
+     * Postings de chaque terme.
+     */
+    private final Map<String, Postings> postings = new HashMap<>();
+
+    /**
+     * Post auquel appartient chaque document (indexé par numéro de document).
+     */
+    private long[] documentPostIds = new long[1024];
+
+    /**
+     * Longueur pondérée de chaque document (indexée par numéro de document).
+     */
+    private int[] documentLengths = new int[1024];
+
+    /**
+     * Indique pour chaque document s'il s'agit d'un commentaire.
+     */
+    private boolean[] documentIsComment = new boolean[1024];
+
+    private int documentCount;
+    private long totalLength;
+
+    private final Set<Long> indexedPosts = new HashSet<>();
+    private final Set<Long> indexedComments = new HashSet<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Résultat d'une recherche : identifiants des posts les mieux classés et nombre total de posts trouvés.
+     *
+     * @param postIds   les identifiants des posts, du plus pertinent au moins pertinent
+     * @param totalHits le nombre total de posts correspondant à la requête
+     */
+    public record Result(long[] postIds, int totalHits)
+    {
+    }
+
+    /**
+     * Ajoute un post à l'index. Un post déjà indexé est ignoré.
+     *
+     * @param postId  l'identifiant du post
+     * @param title   le titre du post
+     * @param content le contenu du post
+     */
+    public void addPost(long postId, String title, String content)
+    {
+        List<String> titleTerms = TextAnalyzer.analyze(title);
+        List<String> contentTerms = TextAnalyzer.analyze(content);
+
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String term : titleTerms)
+        {
+            frequencies.merge(term, TITLE_BOOST, Integer::sum);
+        }
+        for (String term : contentTerms)
+        {
+            frequencies.merge(term, 1, Integer::sum);
+        }
+        int length = titleTerms.size() * TITLE_BOOST + contentTerms.size();
+
+        lock.writeLock().lock();
+        try
+        {
+            if (indexedPosts.add(postId))
+            {
+                addDocument(postId, false, frequencies, length);
+            }
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ajoute un commentaire à l'index. Un commentaire déjà indexé est ignoré.
+     *
+     * @param commentId l'identifiant du commentaire
+     * @param postId    l'identifiant du post commenté
+     * @param content   le contenu du commentaire
+     */
+    public void addComment(long commentId, long postId, String content)
+    {
+        List<String> terms = TextAnalyzer.analyze(content);
+
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String term : terms)
+        {
+            frequencies.merge(term, 1, Integer::sum);
+        }
+
+        lock.writeLock().lock();
+        try
+        {
+            if (indexedComments.add(commentId))
+            {
+                addDocument(postId, true, frequencies, terms.size());
+            }
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Recherche les posts correspondant à une requête, classés par pertinence.
+     * <p>
+     * Un post correspond s'il contient, dans son titre, son contenu ou un de ses
+     * commentaires, au moins un des termes de la requête.
+     * </p>
+     *
+     * @param query la requête en texte libre
+     * @param limit le nombre maximal de posts retournés
+     * @return les posts les mieux classés et le nombre total de posts trouvés
+     */
+    public Result search(String query, int limit)
+    {
+        Set<String> terms = new LinkedHashSet<>(TextAnalyzer.analyze(query));
+        if (terms.isEmpty())
+        {
+            return new Result(new long[0], 0);
+        }
+
+        Map<Long, float[]> postScores = new HashMap<>();
+        lock.readLock().lock();
+        try
+        {
+            if (documentCount == 0)
+            {
+                return new Result(new long[0], 0);
+            }
+
+            // Score BM25 de chaque document touché par au moins un terme
+            Map<Integer, Float> documentScores = new HashMap<>();
+            float averageLength = Math.max(1f, (float) totalLength / documentCount);
+            for (String term : terms)
+            {
+                Postings termPostings = postings.get(term);
+                if (termPostings == null)
+                {
+                    continue;
+                }
+
+                float idf = (float) Math.log(1 + (documentCount - termPostings.size + 0.5) / (termPostings.size + 0.5));
+                for (int i = 0; i < termPostings.size; i++)
+                {
+                    int document = termPostings.documents[i];
+                    int frequency = termPostings.frequencies[i];
+                    float norm = K1 * (1 - B + B * documentLengths[document] / averageLength);
+                    float score = idf * frequency * (K1 + 1) / (frequency + norm);
+                    documentScores.merge(document, score, Float::sum);
+                }
+            }
+
+            // Regroupement par post : [score du post, meilleur score de commentaire]
+            for (Map.Entry<Integer, Float> entry : documentScores.entrySet())
+            {
+                int document = entry.getKey();
+                float[] scores = postScores.computeIfAbsent(documentPostIds[document], id -> new float[2]);
+                if (documentIsComment[document])
+                {
+                    scores[1] = Math.max(scores[1], entry.getValue());
+                }
+                else
+                {
+                    scores[0] = entry.getValue();
+                }
+            }
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+
+        return topPosts(postScores, limit);
+    }
+
+    /**
+     * Nombre de documents (posts et commentaires) indexés.
+     *
+     * @return le nombre de documents
+     */
+    public int size()
+    {
+        lock.readLock().lock();
+        try
+        {
+            return documentCount;
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Enregistre un document et ses termes. Appelée sous le verrou en écriture.
+     *
+     * @param postId      le post auquel appartient le document
+     * @param isComment   true si le document est un commentaire
+     * @param frequencies la fréquence (pondérée) de chaque terme du document
+     * @param length      la longueur pondérée du document
+     */
+    private void addDocument(long postId, boolean isComment, Map<String, Integer> frequencies, int length)
+    {
+        if (documentCount == documentPostIds.length)
+        {
+            int capacity = documentCount * 2;
+            documentPostIds = Arrays.copyOf(documentPostIds, capacity);
+            documentLengths = Arrays.copyOf(documentLengths, capacity);
+            documentIsComment = Arrays.copyOf(documentIsComment, capacity);
+        }
+
+        int document = documentCount++;
+        documentPostIds[document] = postId;
+        documentLengths[document] = length;
+        documentIsComment[document] = isComment;
+        totalLength += length;
+
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet())
+        {
+            postings.computeIfAbsent(entry.getKey(), term -> new Postings()).add(document, entry.getValue());
+        }
+    }
+
+    /**
+     * Sélectionne les posts les mieux classés.
+     *
+     * @param postScores le score du post et de son meilleur commentaire, par identifiant de post
+     * @param limit      le nombre maximal de posts retournés
+     * @return les posts les mieux classés et le nombre total de posts trouvés
+     */
+    private static Result topPosts(Map<Long, float[]> postScores, int limit)
+    {
+        // Tas minimal de taille bornée : le moins bon des meilleurs posts est en tête
+        PriorityQueue<Map.Entry<Long, Float>> top = new PriorityQueue<>(Math.max(1, limit),
+                (a, b) -> a.getValue().equals(b.getValue())
+                        ? Long.compare(a.getKey(), b.getKey())
+                        : Float.compare(a.getValue(), b.getValue()));
+        for (Map.Entry<Long, float[]> entry : postScores.entrySet())
+        {
+            float score = entry.getValue()[0] + COMMENT_WEIGHT * entry.getValue()[1];
+            top.add(Map.entry(entry.getKey(), score));
+            if (top.size() > limit)
+            {
+                top.poll();
+            }
+        }
+
+        long[] postIds = new long[top.size()];
+        for (int i = postIds.length - 1; i >= 0; i--)
+        {
+            postIds[i] = top.poll().getKey();
+        }
+        return new Result(postIds, postScores.size());
+    }
+
+    /**
+     * Liste des documents contenant un terme, avec la fréquence du terme dans chacun.
+     */
+    private static final class Postings
+    {
+        private int[] documents = new int[4];
+        private int[] frequencies = new int[4];
+        private int size;
+
+        private void add(int document, int frequency)
+        {
+            if (size == documents.length)
+            {
+                documents = Arrays.copyOf(documents, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            documents[size] = document;
+            frequencies[size] = frequency;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.openclassrooms.mddapi.service;
+
+import com.openclassrooms.mddapi.dto.SearchResponse;
+import com.openclassrooms.mddapi.event.CommentCreatedEvent;
+import com.openclassrooms.mddapi.event.PostCreatedEvent;
+import com.openclassrooms.mddapi.repository.CommentRepository;
+import com.openclassrooms.mddapi.repository.PostRepository;
+import com.openclassrooms.mddapi.repository.projection.CommentSummary;
+import com.openclassrooms.mddapi.repository.projection.PostSummary;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Service de recherche plein texte sur les posts et leurs commentaires.
+ * <p>
+ * La recherche est servie par un {@link SearchIndex} en mémoire : aucune requête
+ * {@code LIKE '%...%'} n'est émise, seuls les posts retenus sont lus en base,
+ * par identifiants. L'index est construit depuis la base au démarrage, puis
+ * complété après la validation de chaque création de post ou de commentaire.
+ * </p>
+ * <p>
+ * Les ajouts reçus pendant une reconstruction sont appliqués à l'index courant
+ * et rejoués sur le nouvel index avant qu'il ne le remplace. Chaque reconstruction
+ * conserve ses propres ajouts, et l'index d'une reconstruction n'en remplace pas un
+ * plus récent : lorsqu'un import se termine pendant la reconstruction du démarrage,
+ * l'index construit après l'import est conservé.
+ * </p>
+ * <p>
+ * L'index est propre à l'instance : avec plusieurs instances, les posts et
+ * commentaires créés sur une autre instance n'y entrent qu'à la prochaine
+ * reconstruction (redémarrage ou import).
+ * </p>
+ *
+ */
+@Service
+public class SearchService
+{
+    /**
+     * Nombre de résultats par défaut.
+     */
+    public static final int DEFAULT_LIMIT = 20;
+
+    /**
+     * Nombre maximal de résultats autorisé.
+     */
+    public static final int MAX_LIMIT = 50;
+
+    /**
+     * Longueur maximale d'une requête, en caractères.
+     */
+    public static final int MAX_QUERY_LENGTH = 200;
+
+    private final PostRepository postRepository;
+    private final CommentRepository commentRepository;
+    private final PostService postService;
+
+    /**
+     * Index courant, remplacé en bloc après une reconstruction.
+     */
+    private volatile SearchIndex index = new SearchIndex();
+
+    /**
+     * Ajouts reçus pendant les reconstructions en cours, un tampon par reconstruction.
+     */
+    private final Set<List<Consumer<SearchIndex>>> pendingUpdates = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * Numéro de la dernière reconstruction commencée.
+     */
+    private long rebuildsStarted;
+
+    /**
+     * Numéro de la reconstruction qui a produit l'index courant.
+     */
+    private long installedRebuild;
+
+    /**
+     * Active ou désactive la reconstruction de l'index au démarrage.
+     */
+    @Value("${app.search.rebuild-on-startup:true}")
+    private boolean rebuildOnStartup;
+
+    /**
+     * Constructeur avec injection des dépendances.
+     *
+     * @param postRepository    le repository pour parcourir les posts
+     * @param commentRepository le repository pour parcourir les commentaires
+     * @param postService       le service pour charger les posts trouvés
+     */
+    public SearchService(PostRepository postRepository, CommentRepository commentRepository, PostService postService)
+    {
+        this.postRepository = postRepository;
+        this.commentRepository = commentRepository;
+        this.postService = postService;
+    }
+
+    /**
+     * Recherche les posts dont le titre, le contenu ou un commentaire correspond à une requête.
+     *
+     * @param query la requête en texte libre
+     * @param limit le nombre maximal de résultats (null pour la valeur par défaut)
+     * @return les posts trouvés, du plus pertinent au moins pertinent, et leur nombre total
+     * @throws IllegalArgumentException si la requête est vide ou trop longue
+     */
+    public SearchResponse search(String query, Integer limit)
+    {
+        if (query == null || query.isBlank())
+        {
+            throw new IllegalArgumentException("La recherche ne peut pas être vide");
+        }
+        if (query.length() > MAX_QUERY_LENGTH)
+        {
+            throw new IllegalArgumentException("La recherche ne peut pas dépasser " + MAX_QUERY_LENGTH + " caractères");
+        }
+
+        int size = limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+        SearchIndex.Result result = index.search(query, size);
+        return new SearchResponse(query, result.totalHits(), postService.getPostsByIds(result.postIds()));
+    }
+
+    /**
+     * Indexe un nouveau post après la validation de sa création.
+     *
+     * @param event l'événement de création du post
+     */
+    @TransactionalEventListener
+    public void onPostCreated(PostCreatedEvent event)
+    {
+        apply(target -> target.addPost(event.getPostId(), event.getTitle(), event.getContent()));
+    }
+
+    /**
+     * Indexe un nouveau commentaire après la validation de sa création.
+     *
+     * @param event l'événement de création du commentaire
+     */
+    @TransactionalEventListener
+    public void onCommentCreated(CommentCreatedEvent event)
+    {
+        apply(target -> target.addComment(event.getCommentId(), event.getPostId(), event.getContent()));
+    }
+
+    /**
+     * Construit l'index depuis la base au démarrage de l'application.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuildOnStartup()
+    {
+        if (rebuildOnStartup)
+        {
+            rebuild();
+        }
+    }
+
+    /**
+     * Reconstruit l'index depuis la base puis remplace l'index courant.
+     * <p>
+     * Posts et commentaires sont lus en flux par un curseur JDBC : la mémoire
+     * consommée est celle de l'index, pas celle des lignes lues. Si une autre
+     * reconstruction, commencée après celle-ci, a déjà remplacé l'index, le
+     * résultat de celle-ci est abandonné.
+     * </p>
+     */
+    @Transactional(readOnly = true)
+    public void rebuild()
+    {
+        List<Consumer<SearchIndex>> pending = new ArrayList<>();
+        long rebuildNumber;
+        synchronized (this)
+        {
+            pendingUpdates.add(pending);
+            rebuildNumber = ++rebuildsStarted;
+        }
+
+        SearchIndex rebuilt = new SearchIndex();
+        try
+        {
+            try (Stream<PostSummary> posts = postRepository.streamAllSummaries())
+            {
+                posts.forEach(post -> rebuilt.addPost(post.getId(), post.getTitle(), post.getContent()));
+            }
+            try (Stream<CommentSummary> comments = commentRepository.streamAllSummaries())
+            {
+                comments.forEach(comment -> rebuilt.addComment(comment.getId(), comment.getPostId(), comment.getContent()));
+            }
+        }
+        catch (RuntimeException e)
+        {
+            synchronized (this)
+            {
+                pendingUpdates.remove(pending);
+            }
+            throw e;
+        }
+
+        synchronized (this)
+        {
+            pendingUpdates.remove(pending);
+            if (rebuildNumber < installedRebuild)
+            {
+                // Une reconstruction commencée plus tard a lu la base après celle-ci
+                return;
+            }
+            // Les documents déjà lus en base sont ignorés par l'index
+            pending.forEach(update -> update.accept(rebuilt));
+            installedRebuild = rebuildNumber;
+            index = rebuilt;
+        }
+    }
+
+    /**
+     * Applique un ajout à l'index courant et le conserve pour chaque reconstruction en cours.
+     *
+     * @param update l'ajout à appliquer
+     */
+    private synchronized void apply(Consumer<SearchIndex> update)
+    {
+        for (List<Consumer<SearchIndex>> pending : pendingUpdates)
+        {
+            pending.add(update);
+        }
+        update.accept(index);
+    }
+}
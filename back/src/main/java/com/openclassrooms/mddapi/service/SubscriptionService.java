@@ -0,0 +1,126 @@
+package com.openclassrooms.mddapi.service;
+
+import com.openclassrooms.mddapi.entity.User;
+import com.openclassrooms.mddapi.event.SubscriptionChangedEvent;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Service de gestion des abonnements des utilisateurs aux topics.
+ * <p>
+ * Les abonnements sont écrits directement dans la table de jointure
+ * {@code subscriptions (user_id, topic_id)} par une seule requête idempotente,
+ * sans charger l'utilisateur ni la liste de ses abonnements : le coût est
+ * constant quel que soit le nombre de topics suivis.
+ * </p>
+ * <p>
+ * Un {@link SubscriptionChangedEvent} n'est publié que si une ligne a
+ * effectivement été ajoutée ou supprimée.
+ * </p>
+ * <p>
+ * Les requêtes passent par JDBC et non par une requête native Hibernate : celle-ci
+ * invaliderait toute la région {@code userSubscriptions} du cache de second niveau
+ * (voire toutes les régions sans table déclarée). Seule la collection des abonnements
+ * de l'utilisateur concerné est retirée du cache, après la validation.
+ * </p>
+ *
+ */
+@Service
+public class SubscriptionService
+{
+    /**
+     * Ajout idempotent grâce à la clé unique {@code (user_id, topic_id)} : un abonnement déjà présent est ignoré.
+     */
+    private static final String INSERT_SQL = "INSERT IGNORE INTO subscriptions (user_id, topic_id) VALUES (?, ?)";
+
+    private static final String DELETE_SQL = "DELETE FROM subscriptions WHERE user_id = ? AND topic_id = ?";
+
+    /**
+     * Rôle de la collection des abonnements dans le cache de second niveau.
+     */
+    private static final String SUBSCRIPTIONS_ROLE = User.class.getName() + ".subscriptions";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TopicService topicService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Cache secondLevelCache;
+
+    /**
+     * Constructeur avec injection des dépendances.
+     *
+     * @param jdbcTemplate         le template JDBC des requêtes sur la table de jointure
+     * @param topicService         le service des topics pour vérifier leur existence
+     * @param eventPublisher       le publicateur des événements applicatifs
+     * @param entityManagerFactory la fabrique JPA, pour accéder au cache de second niveau
+     */
+    public SubscriptionService(JdbcTemplate jdbcTemplate, TopicService topicService,
+                               ApplicationEventPublisher eventPublisher, EntityManagerFactory entityManagerFactory)
+    {
+        this.jdbcTemplate = jdbcTemplate;
+        this.topicService = topicService;
+        this.eventPublisher = eventPublisher;
+        this.secondLevelCache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+
+    /**
+     * Abonne un utilisateur à un topic.
+     *
+     * @param userId  l'identifiant de l'utilisateur
+     * @param topicId l'identifiant du topic
+     * @return true si l'abonnement a été créé, false si l'utilisateur était déjà abonné
+     * @throws IllegalArgumentException si le topic n'existe pas
+     */
+    @Transactional
+    public boolean subscribe(Long userId, Long topicId)
+    {
+        topicService.findById(topicId);
+
+        boolean created = jdbcTemplate.update(INSERT_SQL, userId, topicId) > 0;
+        if (created)
+        {
+            // Le fil d'actualité en mémoire est complété après la validation
+            eventPublisher.publishEvent(new SubscriptionChangedEvent(userId, topicId, true));
+        }
+        return created;
+    }
+
+    /**
+     * Désabonne un utilisateur d'un topic.
+     *
+     * @param userId  l'identifiant de l'utilisateur
+     * @param topicId l'identifiant du topic
+     * @return true si l'abonnement a été supprimé, false si l'utilisateur n'était pas abonné
+     * @throws IllegalArgumentException si le topic n'existe pas
+     */
+    @Transactional
+    public boolean unsubscribe(Long userId, Long topicId)
+    {
+        topicService.findById(topicId);
+
+        boolean deleted = jdbcTemplate.update(DELETE_SQL, userId, topicId) > 0;
+        if (deleted)
+        {
+            // Les posts du topic sont retirés du fil d'actualité en mémoire après la validation
+            eventPublisher.publishEvent(new SubscriptionChangedEvent(userId, topicId, false));
+        }
+        return deleted;
+    }
+
+    /**
+     * Retire du cache de second niveau la collection des abonnements de l'utilisateur,
+     * après la validation du changement : les autres utilisateurs restent en cache.
+     *
+     * @param event l'événement de changement d'abonnement
+     */
+    @TransactionalEventListener
+    public void onSubscriptionChanged(SubscriptionChangedEvent event)
+    {
+        secondLevelCache.evictCollectionData(SUBSCRIPTIONS_ROLE, event.getUserId());
+    }
+}
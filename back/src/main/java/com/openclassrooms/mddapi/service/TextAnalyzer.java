@@ -0,0 +1,168 @@
+package com.openclassrooms.mddapi.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Analyseur de texte français utilisé par l'index de recherche.
+ * <p>
+ * Le même traitement est appliqué aux documents indexés et aux requêtes :
+ * </p>
+ * <ul>
+ *   <li>mise en minuscules et suppression des accents ({@code "Développeur"} → {@code "developpeur"}),
+ *   ligatures développées ({@code œ} → {@code oe}) ;</li>
+ *   <li>découpage sur tout caractère qui n'est ni une lettre ni un chiffre, ce qui
+ *   sépare aussi les élisions ({@code "l'API"} → {@code "l"}, {@code "api"}) ;</li>
+ *   <li>suppression des mots vides français et des lettres isolées ;</li>
+ *   <li>racinisation légère (pluriels et terminaisons féminines).</li>
+ * </ul>
+ * <p>
+ * La classe est sans état et thread-safe.
+ * </p>
+ *
+ */
+public final class TextAnalyzer
+{
+    /**
+     * Longueur maximale d'un terme ; au-delà, le terme est tronqué.
+     */
+    private static final int MAX_TERM_LENGTH = 40;
+
+    /**
+     * Mots vides français, sous leur forme sans accents.
+     */
+    private static final Set<String> STOP_WORDS = Set.of(
+            "au", "aux", "avec", "ce", "ces", "cet", "cette", "dans", "de", "des", "du", "elle", "elles",
+            "en", "est", "et", "eu", "il", "ils", "je", "la", "le", "les", "leur", "leurs", "lui", "ma",
+            "mais", "me", "meme", "mes", "moi", "mon", "ne", "nos", "notre", "nous", "on", "ont", "ou",
+            "par", "pas", "pour", "qu", "que", "qui", "sa", "se", "ses", "son", "sont", "sur", "ta", "te",
+            "tes", "toi", "ton", "tu", "un", "une", "vos", "votre", "vous", "ete", "etre", "avoir", "ai",
+            "as", "avons", "avez", "fait", "comme", "si", "plus", "tout", "tous", "tres", "sans", "sous");
+
+    private TextAnalyzer()
+    {
+    }
+
+    /**
+     * Découpe un texte en termes normalisés, dans leur ordre d'apparition.
+     *
+     * @param text le texte à analyser (peut être null)
+     * @return les termes du texte, répétitions comprises
+     */
+    public static List<String> analyze(String text)
+    {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty())
+        {
+            return terms;
+        }
+
+        String folded = fold(text);
+        StringBuilder term = new StringBuilder();
+        for (int i = 0; i <= folded.length(); i++)
+        {
+            char c = i < folded.length() ? folded.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c))
+            {
+                if (term.length() < MAX_TERM_LENGTH)
+                {
+                    term.append(c);
+                }
+            }
+            else if (term.length() > 0)
+            {
+                addTerm(terms, term.toString());
+                term.setLength(0);
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Met un texte en minuscules et en retire les accents.
+     *
+     * @param text le texte à normaliser
+     * @return le texte sans accents, en minuscules
+     */
+    static String fold(String text)
+    {
+        String lower = text.toLowerCase()
+                .replace("œ", "oe")
+                .replace("æ", "ae");
+        String decomposed = Normalizer.normalize(lower, Normalizer.Form.NFD);
+
+        StringBuilder folded = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++)
+        {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) != Character.NON_SPACING_MARK)
+            {
+                folded.append(c);
+            }
+        }
+        return folded.toString();
+    }
+
+    /**
+     * Ajoute un terme à la liste s'il est significatif, après racinisation.
+     *
+     * @param terms la liste des termes
+     * @param term  le terme brut (en minuscules, sans accents)
+     */
+    private static void addTerm(List<String> terms, String term)
+    {
+        boolean numeric = Character.isDigit(term.charAt(0));
+        if ((term.length() < 2 && !numeric) || STOP_WORDS.contains(term))
+        {
+            return;
+        }
+        terms.add(numeric ? term : stem(term));
+    }
+
+    /**
+     * Racinisation française minimale : ramène pluriels et formes féminines
+     * courantes à une forme commune ({@code "articles"} → {@code "articl"},
+     * {@code "journaux"} → {@code "journal"}). Les mots courts sont laissés intacts.
+     *
+     * @param term le terme sans accents
+     * @return la racine du terme
+     */
+    static String stem(String term)
+    {
+        int length = term.length();
+        if (length < 5)
+        {
+            return term;
+        }
+
+        char[] chars = term.toCharArray();
+        if (chars[length - 1] == 'x')
+        {
+            if (chars[length - 3] == 'a' && chars[length - 2] == 'u')
+            {
+                chars[length - 2] = 'l';
+            }
+            return new String(chars, 0, length - 1);
+        }
+
+        if (chars[length - 1] == 's')
+        {
+            length--;
+        }
+        if (chars[length - 1] == 'r')
+        {
+            length--;
+        }
+        if (chars[length - 1] == 'e')
+        {
+            length--;
+        }
+        if (length > 2 && chars[length - 1] == chars[length - 2])
+        {
+            length--;
+        }
+        return new String(chars, 0, length);
+    }
+}
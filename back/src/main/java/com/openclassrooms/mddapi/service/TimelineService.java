@@ -0,0 +1,312 @@
+package com.openclassrooms.mddapi.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.openclassrooms.mddapi.dto.PageCursor;
+import com.openclassrooms.mddapi.event.PostCreatedEvent;
+import com.openclassrooms.mddapi.event.SubscriptionChangedEvent;
+import com.openclassrooms.mddapi.repository.PostRepository;
+import com.openclassrooms.mddapi.repository.UserRepository;
+import com.openclassrooms.mddapi.repository.projection.TimelineEntry;
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Service de gestion des fils d'actualité matérialisés en mémoire (fan-out à l'écriture).
+ * <p>
+ * Chaque utilisateur "chaud" dispose d'un {@link UserTimeline} contenant les
+ * identifiants des posts les plus récents de ses topics. À la création d'un post,
+ * l'identifiant est poussé dans le fil de chaque abonné du topic ; une lecture du
+ * fil devient alors une simple lecture de page en mémoire.
+ * </p>
+ * <p>
+ * Les utilisateurs "froids" (absents du cache) voient leur fil reconstruit depuis
+ * la base au premier accès. Les fils sont conservés dans un cache Caffeine borné
+ * ({@code app.feed.timeline.max-users}, éviction W-TinyLFU) et reconstruits au plus
+ * tard {@code app.feed.timeline.ttl} après leur chargement. Chaque fil occupe
+ * environ {@code 24 × capacity} octets.
+ * </p>
+ * <p>
+ * Les mises à jour sont appliquées après la validation des transactions. Celles
+ * reçues pendant la construction d'un fil sont mises en attente puis rejouées sur
+ * le fil construit : un post ou un changement d'abonnement validé pendant la
+ * lecture en base n'est pas perdu.
+ * </p>
+ * <p>
+ * Les fils sont propres à l'instance : les posts créés et les abonnements modifiés
+ * sur une autre instance n'y apparaissent qu'à leur reconstruction, soit au plus
+ * {@code app.feed.timeline.ttl} plus tard.
+ * </p>
+ *
+ */
+@Service
+public class TimelineService
+{
+    private final PostRepository postRepository;
+    private final UserRepository userRepository;
+
+    /**
+     * Fils en mémoire, indexés par identifiant d'utilisateur.
+     */
+    private Cache<Long, UserTimeline> timelines;
+
+    /**
+     * Fils en cours de construction, qui reçoivent les mises à jour en attendant d'être en cache.
+     */
+    private final ConcurrentMap<Long, PendingTimeline> loading = new ConcurrentHashMap<>();
+
+    /**
+     * Active ou désactive les fils en mémoire (la base est alors toujours interrogée).
+     */
+    @Value("${app.feed.timeline.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * Nombre maximal de posts conservés par fil.
+     */
+    @Value("${app.feed.timeline.capacity:200}")
+    private int capacity;
+
+    /**
+     * Nombre maximal de fils conservés en mémoire.
+     */
+    @Value("${app.feed.timeline.max-users:2000}")
+    private int maxUsers;
+
+    /**
+     * Durée de vie d'un fil après sa construction depuis la base.
+     */
+    @Value("${app.feed.timeline.ttl:5m}")
+    private Duration ttl;
+
+    /**
+     * Constructeur avec injection des dépendances.
+     *
+     * @param postRepository le repository pour lire les clés de tri des posts
+     * @param userRepository le repository pour trouver les abonnés d'un topic
+     */
+    public TimelineService(PostRepository postRepository, UserRepository userRepository)
+    {
+        this.postRepository = postRepository;
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Crée le cache des fils une fois la configuration injectée.
+     */
+    @PostConstruct
+    void init()
+    {
+        timelines = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * Lit une page d'identifiants de posts depuis le fil en mémoire d'un utilisateur.
+     * <p>
+     * Si l'utilisateur n'a pas encore de fil en mémoire, celui-ci est construit
+     * depuis la base (au plus {@code capacity} entrées).
+     * </p>
+     *
+     * @param userId l'identifiant de l'utilisateur
+     * @param after  le curseur de la page précédente (null pour la première page)
+     * @param limit  le nombre maximal d'identifiants à retourner
+     * @return les identifiants de la page, ou null si la page doit être lue en base
+     */
+    public long[] readPage(Long userId, PageCursor after, int limit)
+    {
+        if (!enabled || limit > capacity)
+        {
+            return null;
+        }
+
+        UserTimeline timeline = timelines.getIfPresent(userId);
+        if (timeline == null)
+        {
+            PendingTimeline pending = new PendingTimeline();
+            timeline = timelines.get(userId, id -> load(id, pending));
+            // Le fil est désormais visible dans le cache : les mises à jour suivantes l'y trouvent
+            loading.remove(userId, pending);
+            if (pending.isDiscarded())
+            {
+                timelines.invalidate(userId);
+            }
+        }
+
+        return after == null
+                ? timeline.page(null, null, limit)
+                : timeline.page(after.getCreatedAt(), after.getId(), limit);
+    }
+
+    /**
+     * Pousse un nouveau post dans le fil de chaque abonné de son topic.
+     * <p>
+     * Seuls les fils présents en mémoire ou en construction sont mis à jour :
+     * les autres seront construits depuis la base à leur prochaine lecture.
+     * </p>
+     *
+     * @param event l'événement de création du post
+     */
+    @TransactionalEventListener
+    public void onPostCreated(PostCreatedEvent event)
+    {
+        if (!enabled || (timelines.estimatedSize() == 0 && loading.isEmpty()))
+        {
+            return;
+        }
+
+        for (Long subscriberId : userRepository.findSubscriberIdsByTopicId(event.getTopicId()))
+        {
+            apply(subscriberId, timeline -> timeline.add(event.getPostId(), event.getCreatedAt(), event.getTopicId()));
+        }
+    }
+
+    /**
+     * Met à jour le fil d'un utilisateur après un changement d'abonnement.
+     * <p>
+     * Un abonnement fusionne les posts récents du topic dans le fil ;
+     * un désabonnement en retire tous les posts du topic.
+     * </p>
+     *
+     * @param event l'événement de changement d'abonnement
+     */
+    @TransactionalEventListener
+    public void onSubscriptionChanged(SubscriptionChangedEvent event)
+    {
+        Long userId = event.getUserId();
+        if (!enabled || (timelines.getIfPresent(userId) == null && !loading.containsKey(userId)))
+        {
+            return;
+        }
+
+        if (event.isSubscribed())
+        {
+            List<TimelineEntry> entries = postRepository.findTopicEntries(event.getTopicId(), PageRequest.of(0, capacity));
+            apply(userId, timeline -> timeline.merge(entries, entries.size() < capacity));
+        }
+        else
+        {
+            apply(userId, timeline -> timeline.removeTopic(event.getTopicId()));
+        }
+    }
+
+    /**
+     * Écarte tous les fils en mémoire ; chacun sera reconstruit depuis la base à sa prochaine lecture.
+     * <p>
+     * Utilisée après une écriture qui contourne les événements applicatifs (import en masse).
+     * </p>
+     */
+    public void clear()
+    {
+        // Les fils en construction ont pu lire la base avant l'écriture : ils ne seront pas conservés
+        loading.values().forEach(PendingTimeline::discard);
+        timelines.invalidateAll();
+    }
+
+    /**
+     * Applique une mise à jour au fil d'un utilisateur, en cache ou en construction.
+     * <p>
+     * Le fil en construction est consulté en premier : il n'est retiré qu'une fois
+     * le fil visible dans le cache, une mise à jour trouve donc toujours l'un ou
+     * l'autre. Si aucun des deux n'existe, le fil sera lu en base après la
+     * validation de la mise à jour et la contiendra.
+     * </p>
+     *
+     * @param userId l'identifiant de l'utilisateur
+     * @param update la mise à jour du fil
+     */
+    private void apply(Long userId, Consumer<UserTimeline> update)
+    {
+        PendingTimeline pending = loading.get(userId);
+        if (pending != null)
+        {
+            pending.apply(update);
+            return;
+        }
+
+        UserTimeline timeline = timelines.getIfPresent(userId);
+        if (timeline != null)
+        {
+            update.accept(timeline);
+        }
+    }
+
+    /**
+     * Construit le fil d'un utilisateur depuis la base (appelée par le cache, une fois par utilisateur).
+     * <p>
+     * Le fil est déclaré en construction avant la lecture : les mises à jour
+     * validées pendant la lecture sont rejouées sur le fil construit.
+     * </p>
+     *
+     * @param userId  l'identifiant de l'utilisateur
+     * @param pending le fil en construction, qui reçoit les mises à jour
+     * @return le fil construit
+     */
+    private UserTimeline load(Long userId, PendingTimeline pending)
+    {
+        loading.put(userId, pending);
+        try
+        {
+            List<TimelineEntry> entries = postRepository.findFeedEntries(userId, PageRequest.of(0, capacity));
+            UserTimeline timeline = new UserTimeline(capacity, entries, entries.size() < capacity);
+            pending.complete(timeline);
+            return timeline;
+        }
+        catch (RuntimeException e)
+        {
+            loading.remove(userId, pending);
+            throw e;
+        }
+    }
+
+    /**
+     * Fil en cours de construction : les mises à jour reçues sont conservées puis
+     * rejouées sur le fil construit, et appliquées directement ensuite.
+     */
+    private static final class PendingTimeline
+    {
+        private List<Consumer<UserTimeline>> updates = new ArrayList<>();
+        private UserTimeline timeline;
+        private volatile boolean discarded;
+
+        synchronized void apply(Consumer<UserTimeline> update)
+        {
+            if (timeline != null)
+            {
+                update.accept(timeline);
+            }
+            else
+            {
+                updates.add(update);
+            }
+        }
+
+        synchronized void complete(UserTimeline loaded)
+        {
+            updates.forEach(update -> update.accept(loaded));
+            updates = null;
+            timeline = loaded;
+        }
+
+        void discard()
+        {
+            discarded = true;
+        }
+
+        boolean isDiscarded()
+        {
+            return discarded;
+        }
+    }
+}
@@ -1,14 +1,24 @@
 package com.openclassrooms.mddapi.service;
 
+import com.openclassrooms.mddapi.config.CacheConfig;
 import com.openclassrooms.mddapi.dto.TopicRequest;
 import com.openclassrooms.mddapi.dto.TopicResponse;
 import com.openclassrooms.mddapi.entity.Topic;
-import com.openclassrooms.mddapi.entity.User;
 import com.openclassrooms.mddapi.repository.TopicRepository;
+import com.openclassrooms.mddapi.repository.UserRepository;
+import com.openclassrooms.mddapi.repository.projection.TopicSummary;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.BitSet;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.interceptor.SimpleKey;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,24 +28,60 @@ import org.springframework.transaction.annotation.Transactional;
  * Gère la création, la recherche et la conversion des topics.
  * Permet également de déterminer si un utilisateur est abonné à un topic.
  * </p>
+ * <p>
+ * La liste des topics est mise en cache sous forme de liste immuable de
+ * projections {@link TopicSummary}, partagée sans risque entre les requêtes
+ * (voir {@link CacheConfig}) ; la création d'un topic l'invalide. La recherche
+ * par identifiant est servie par le cache de second niveau d'Hibernate.
+ * </p>
+ * <p>
+ * L'indicateur d'abonnement est calculé à partir des seuls identifiants des
+ * topics suivis, lus une fois par requête et rangés dans un {@link BitSet} :
+ * chaque topic est testé en O(1). Avec {@code app.topics.combined-query=true},
+ * topics et indicateurs sont lus ensemble en une seule requête (sans le cache).
+ * </p>
  *
  */
 @Service
 public class TopicService
 {
+    /**
+     * Format des dates attendu par le frontend (instance immuable et thread-safe, partagée).
+     */
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy/MM/dd")
+            .withZone(ZoneId.systemDefault());
+
     private final TopicRepository topicRepository;
-    private final UserService userService;
+    private final UserRepository userRepository;
+    private final ContentVersionService contentVersionService;
+
+    /**
+     * Cache de la liste des topics ({@link CacheConfig#TOPICS}).
+     */
+    private final Cache topicsCache;
+
+    /**
+     * Lit topics et indicateurs d'abonnement en une seule requête plutôt que
+     * depuis le cache des topics et les identifiants des abonnements.
+     */
+    @Value("${app.topics.combined-query:false}")
+    private boolean combinedQuery;
 
     /**
      * Constructeur avec injection des dépendances.
      *
-     * @param topicRepository le repository pour accéder aux données des topics
-     * @param userService     le service utilisateur pour vérifier les abonnements
+     * @param topicRepository       le repository pour accéder aux données des topics
+     * @param userRepository        le repository utilisateur pour lire les abonnements
+     * @param contentVersionService le service des versions du contenu (ETags)
+     * @param cacheManager          le gestionnaire des caches applicatifs
      */
-    public TopicService(TopicRepository topicRepository, UserService userService)
+    public TopicService(TopicRepository topicRepository, UserRepository userRepository,
+                        ContentVersionService contentVersionService, CacheManager cacheManager)
     {
         this.topicRepository = topicRepository;
-        this.userService = userService;
+        this.userRepository = userRepository;
+        this.contentVersionService = contentVersionService;
+        this.topicsCache = cacheManager.getCache(CacheConfig.TOPICS);
     }
 
     /**
@@ -48,22 +94,39 @@ public class TopicService
      * @param userId l'identifiant de l'utilisateur connecté (peut être null)
      * @return la liste de tous les topics avec leur statut d'abonnement
      */
+    @Transactional(readOnly = true)
     public List<TopicResponse> getAllTopics(Long userId)
     {
-        List<Topic> topics = topicRepository.findAll();
-        User user = null;
-        
-        if (userId != null)
+        if (userId == null)
         {
-            user = userService.findById(userId).orElse(null);
+            return findAllSummaries().stream()
+                    .map(topic -> toResponse(topic, null))
+                    .collect(Collectors.toList());
         }
-        
-        final User currentUser = user;
-        return topics.stream()
-                .map(topic -> toResponse(topic, currentUser))
+
+        if (combinedQuery)
+        {
+            return topicRepository.findAllWithSubscriptionFlag(userId).stream()
+                    .map(topic -> toResponse(topic, topic.isSubscribed()))
+                    .collect(Collectors.toList());
+        }
+
+        SubscribedTopics subscribed = new SubscribedTopics(userRepository.findSubscribedTopicIds(userId));
+        return findAllSummaries().stream()
+                .map(topic -> toResponse(topic, subscribed.contains(topic.getId())))
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Récupère la liste des topics depuis le cache, ou depuis la base en cas d'absence.
+     *
+     * @return la liste immuable de tous les topics, triés par identifiant
+     */
+    private List<TopicSummary> findAllSummaries()
+    {
+        return topicsCache.get(SimpleKey.EMPTY, () -> List.copyOf(topicRepository.findAllSummaries()));
+    }
+
     /**
      * Recherche un topic par son identifiant.
      *
@@ -79,11 +142,15 @@ public class TopicService
 
     /**
      * Crée un nouveau topic.
+     * <p>
+     * La liste des topics en cache est invalidée après la validation de la transaction.
+     * </p>
      *
      * @param request les données du topic à créer (titre, description)
      * @return le DTO du topic créé
      */
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.TOPICS, allEntries = true)
     public TopicResponse createTopic(TopicRequest request)
     {
         // Création de l'entité Topic
@@ -93,6 +160,7 @@ public class TopicService
         
         // Sauvegarde en base
         Topic savedTopic = topicRepository.save(topic);
+        contentVersionService.topicCreated();
         
         // Conversion en DTO de réponse
         return toResponse(savedTopic);
@@ -108,37 +176,80 @@ public class TopicService
     {
         return toResponse(topic, null);
     }
-    
+
     /**
      * Convertit une entité Topic en TopicResponse avec le statut d'abonnement.
-     * <p>
-     * Si un utilisateur est fourni, détermine s'il est abonné au topic.
-     * </p>
      *
-     * @param topic l'entité topic à convertir
-     * @param user  l'utilisateur pour lequel vérifier l'abonnement (peut être null)
+     * @param topic      l'entité topic à convertir
+     * @param subscribed true si l'utilisateur est abonné, null si aucun utilisateur n'est fourni
      * @return le DTO de réponse avec l'indicateur d'abonnement
      */
-    public TopicResponse toResponse(Topic topic, User user)
+    public TopicResponse toResponse(Topic topic, Boolean subscribed)
     {
         TopicResponse response = new TopicResponse();
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy/MM/dd")
-                .withZone(ZoneId.systemDefault());
+        response.setId(topic.getId());
+        response.setTitle(topic.getTitle());
+        response.setDescription(topic.getDescription());
+        response.setCreatedAt(DATE_FORMATTER.format(topic.getCreatedAt()));
+        response.setUpdatedAt(DATE_FORMATTER.format(topic.getUpdatedAt()));
+        response.setSubscribed(subscribed);
+        return response;
+    }
 
+    /**
+     * Convertit une projection TopicSummary en TopicResponse avec le statut d'abonnement.
+     *
+     * @param topic      la projection à convertir
+     * @param subscribed true si l'utilisateur est abonné, null si aucun utilisateur n'est fourni
+     * @return le DTO de réponse avec l'indicateur d'abonnement
+     */
+    private TopicResponse toResponse(TopicSummary topic, Boolean subscribed)
+    {
+        TopicResponse response = new TopicResponse();
         response.setId(topic.getId());
         response.setTitle(topic.getTitle());
         response.setDescription(topic.getDescription());
-        response.setCreatedAt(formatter.format(topic.getCreatedAt()));
-        response.setUpdatedAt(formatter.format(topic.getUpdatedAt()));
-        
-        // Définir le statut d'abonnement si un utilisateur est fourni
-        if (user != null)
+        response.setCreatedAt(DATE_FORMATTER.format(topic.getCreatedAt()));
+        response.setUpdatedAt(DATE_FORMATTER.format(topic.getUpdatedAt()));
+        response.setSubscribed(subscribed);
+        return response;
+    }
+
+    /**
+     * Ensemble des identifiants des topics suivis par un utilisateur.
+     * <p>
+     * Les identifiants de topics sont des entiers auto-incrémentés et denses :
+     * ils sont rangés dans un {@link BitSet}. Un identifiant hors de la plage
+     * d'un {@code int} (cas théorique) est rangé dans un ensemble de secours.
+     * </p>
+     */
+    private static final class SubscribedTopics
+    {
+        private final BitSet ids = new BitSet();
+        private final Set<Long> overflow = new HashSet<>();
+
+        SubscribedTopics(List<Long> topicIds)
         {
-            boolean isSubscribed = user.getSubscriptions() != null && 
-                                   user.getSubscriptions().contains(topic);
-            response.setSubscribed(isSubscribed);
+            for (Long id : topicIds)
+            {
+                if (id >= 0 && id <= Integer.MAX_VALUE)
+                {
+                    ids.set(id.intValue());
+                }
+                else
+                {
+                    overflow.add(id);
+                }
+            }
         }
 
-        return response;
+        boolean contains(Long id)
+        {
+            if (id >= 0 && id <= Integer.MAX_VALUE)
+            {
+                return ids.get(id.intValue());
+            }
+            return overflow.contains(id);
+        }
     }
 }
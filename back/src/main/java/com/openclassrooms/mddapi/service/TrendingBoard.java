@@ -0,0 +1,124 @@
+package com.openclassrooms.mddapi.service;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Classement borné des K posts aux scores les plus élevés.
+ * <p>
+ * Les entrées sont maintenues triées dans un arbre (score décroissant, puis
+ * identifiant décroissant) doublé d'une table des scores des membres : une mise
+ * à jour coûte O(log K), la lecture des N premiers O(N). Un post dont le score
+ * n'atteint pas celui du dernier membre d'un classement plein est ignoré.
+ * </p>
+ * <p>
+ * Les scores ne font que croître (voir {@link TrendingService}) : une mise à jour
+ * portant un score inférieur au score connu, arrivée en retard, est ignorée.
+ * Toutes les méthodes sont synchronisées : les sections critiques sont courtes
+ * et sans entrée/sortie.
+ * </p>
+ *
+ */
+public class TrendingBoard
+{
+    private static final Comparator<Entry> RANKING = Comparator.comparingDouble(Entry::score).reversed()
+            .thenComparing(Comparator.comparingLong(Entry::postId).reversed());
+
+    private final int capacity;
+
+    /**
+     * Membres du classement, du score le plus élevé au plus faible.
+     */
+    private final TreeSet<Entry> ranking = new TreeSet<>(RANKING);
+
+    /**
+     * Score de chaque membre, pour retrouver son entrée dans l'arbre.
+     */
+    private final Map<Long, Double> scores = new HashMap<>();
+
+    /**
+     * Entrée du classement.
+     *
+     * @param postId l'identifiant du post
+     * @param score  le score du post
+     */
+    private record Entry(long postId, double score)
+    {
+    }
+
+    /**
+     * Construit un classement vide.
+     *
+     * @param capacity le nombre maximal de posts classés
+     */
+    public TrendingBoard(int capacity)
+    {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Propose le nouveau score d'un post.
+     *
+     * @param postId l'identifiant du post
+     * @param score  le score du post
+     */
+    public synchronized void offer(long postId, double score)
+    {
+        Double current = scores.get(postId);
+        if (current != null)
+        {
+            if (current >= score)
+            {
+                return;
+            }
+            ranking.remove(new Entry(postId, current));
+        }
+        else if (ranking.size() >= capacity)
+        {
+            Entry last = ranking.last();
+            if (RANKING.compare(new Entry(postId, score), last) >= 0)
+            {
+                return;
+            }
+            ranking.pollLast();
+            scores.remove(last.postId());
+        }
+
+        ranking.add(new Entry(postId, score));
+        scores.put(postId, score);
+    }
+
+    /**
+     * Retire un post du classement.
+     *
+     * @param postId l'identifiant du post
+     */
+    public synchronized void remove(long postId)
+    {
+        Double current = scores.remove(postId);
+        if (current != null)
+        {
+            ranking.remove(new Entry(postId, current));
+        }
+    }
+
+    /**
+     * Lit les premiers posts du classement.
+     *
+     * @param limit le nombre maximal de posts retournés
+     * @return les identifiants des posts, du score le plus élevé au plus faible
+     */
+    public synchronized long[] top(int limit)
+    {
+        long[] postIds = new long[Math.min(limit, ranking.size())];
+        Iterator<Entry> iterator = ranking.iterator();
+        for (int i = 0; i < postIds.length; i++)
+        {
+            postIds[i] = iterator.next().postId();
+        }
+        return postIds;
+    }
+}
@@ -0,0 +1,231 @@
+package com.openclassrooms.mddapi.service;
+
+import com.openclassrooms.mddapi.dto.PostResponse;
+import com.openclassrooms.mddapi.event.CommentCreatedEvent;
+import com.openclassrooms.mddapi.repository.CommentRepository;
+import com.openclassrooms.mddapi.repository.projection.CommentActivity;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Stream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Service de classement des posts tendance, selon l'activité récente de leurs commentaires.
+ * <p>
+ * Chaque commentaire apporte à son post une contribution qui décroît
+ * exponentiellement avec son âge (demi-vie {@code app.trending.half-life}). Les
+ * scores utilisent la décroissance "vers l'avant" : un commentaire créé à
+ * l'instant {@code t} vaut {@code exp(λ·(t - t0))} par rapport à une date de
+ * référence {@code t0} fixe. Tous les scores décroissent alors au même rythme,
+ * leur ordre ne change que lorsqu'un commentaire est ajouté, et un score se met
+ * à jour par simple addition, sans relire les commentaires en base. Les scores
+ * sont conservés sous forme de logarithmes pour ne jamais dépasser la capacité
+ * d'un {@code double}.
+ * </p>
+ * <p>
+ * Les posts les mieux classés sont tenus dans un {@link TrendingBoard} global et
+ * un par topic (K posts au plus chacun) : une lecture coûte O(K), une mise à
+ * jour O(log K). Les scores sont initialisés au démarrage à partir des
+ * commentaires récents, puis mis à jour après la validation de chaque
+ * commentaire ; les posts devenus inactifs sont oubliés périodiquement.
+ * </p>
+ *
+ */
+@Service
+public class TrendingService
+{
+    /**
+     * Nombre de posts retournés par défaut.
+     */
+    public static final int DEFAULT_LIMIT = 20;
+
+    /**
+     * Nombre de demi-vies au-delà duquel l'activité d'un post est négligeable
+     * (contribution inférieure à 1/256 de celle d'un commentaire récent).
+     */
+    private static final int HORIZON_HALF_LIVES = 8;
+
+    private final CommentRepository commentRepository;
+    private final PostService postService;
+
+    /**
+     * Date de référence {@code t0} des scores, en millisecondes.
+     */
+    private final long landmarkMillis = System.currentTimeMillis();
+
+    /**
+     * Taux de décroissance λ, par milliseconde.
+     */
+    private final double decayPerMilli;
+
+    /**
+     * Durée au-delà de laquelle l'activité d'un post est oubliée.
+     */
+    private final Duration horizon;
+
+    /**
+     * Nombre maximal de posts par classement.
+     */
+    private final int capacity;
+
+    /**
+     * Score (logarithme) et topic de chaque post récemment commenté.
+     */
+    private final ConcurrentMap<Long, PostActivity> activity = new ConcurrentHashMap<>();
+
+    private final TrendingBoard globalBoard;
+    private final ConcurrentMap<Long, TrendingBoard> topicBoards = new ConcurrentHashMap<>();
+
+    /**
+     * Score d'un post (logarithme de la somme des contributions) et son topic.
+     *
+     * @param topicId  l'identifiant du topic du post
+     * @param logScore le logarithme du score du post
+     */
+    private record PostActivity(long topicId, double logScore)
+    {
+    }
+
+    /**
+     * Constructeur avec injection des dépendances et de la configuration.
+     *
+     * @param commentRepository le repository pour lire les commentaires récents au démarrage
+     * @param postService       le service pour charger les posts classés
+     * @param halfLife          la demi-vie de la contribution d'un commentaire
+     * @param capacity          le nombre maximal de posts par classement
+     */
+    public TrendingService(CommentRepository commentRepository, PostService postService,
+                           @Value("${app.trending.half-life:6h}") Duration halfLife,
+                           @Value("${app.trending.top-k:100}") int capacity)
+    {
+        this.commentRepository = commentRepository;
+        this.postService = postService;
+        this.decayPerMilli = Math.log(2) / halfLife.toMillis();
+        this.horizon = halfLife.multipliedBy(HORIZON_HALF_LIVES);
+        this.capacity = capacity;
+        this.globalBoard = new TrendingBoard(capacity);
+    }
+
+    /**
+     * Récupère les posts tendance, globalement ou pour un topic.
+     *
+     * @param topicId l'identifiant du topic (null pour tous les topics)
+     * @param limit   le nombre maximal de posts (null pour la valeur par défaut)
+     * @return les posts du plus au moins tendance (sans les commentaires)
+     */
+    public List<PostResponse> getTrending(Long topicId, Integer limit)
+    {
+        int size = limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, capacity));
+        TrendingBoard board = topicId == null ? globalBoard : topicBoards.get(topicId);
+        long[] postIds = board == null ? new long[0] : board.top(size);
+        return postService.getPostsByIds(postIds);
+    }
+
+    /**
+     * Ajoute la contribution d'un nouveau commentaire après la validation de sa création.
+     *
+     * @param event l'événement de création du commentaire
+     */
+    @TransactionalEventListener
+    public void onCommentCreated(CommentCreatedEvent event)
+    {
+        addContribution(event.getPostId(), event.getTopicId(), event.getCreatedAt());
+    }
+
+    /**
+     * Initialise les scores au démarrage à partir des commentaires encore significatifs.
+     * <p>
+     * Les commentaires créés après la construction du service sont ignorés : ils
+     * ont déjà été comptés par {@link #onCommentCreated(CommentCreatedEvent)}.
+     * </p>
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void loadRecentActivity()
+    {
+        try (Stream<CommentActivity> comments = commentRepository.streamActivitySince(Instant.now().minus(horizon)))
+        {
+            comments.filter(comment -> comment.getCreatedAt().toEpochMilli() < landmarkMillis)
+                    .forEach(comment -> addContribution(comment.getPostId(), comment.getTopicId(), comment.getCreatedAt()));
+        }
+    }
+
+    /**
+     * Oublie les posts dont l'activité est devenue négligeable.
+     * <p>
+     * Borne la mémoire aux posts commentés pendant l'horizon
+     * ({@value #HORIZON_HALF_LIVES} demi-vies) ; un post oublié repart de zéro
+     * à son prochain commentaire.
+     * </p>
+     */
+    @Scheduled(fixedDelayString = "${app.trending.prune-interval:600000}")
+    public void pruneInactivePosts()
+    {
+        double threshold = logContribution(Instant.now().minus(horizon));
+
+        for (Map.Entry<Long, PostActivity> entry : activity.entrySet())
+        {
+            // Suppression conditionnelle : un commentaire arrivé entre-temps conserve le post
+            if (entry.getValue().logScore() < threshold && activity.remove(entry.getKey(), entry.getValue()))
+            {
+                globalBoard.remove(entry.getKey());
+                TrendingBoard topicBoard = topicBoards.get(entry.getValue().topicId());
+                if (topicBoard != null)
+                {
+                    topicBoard.remove(entry.getKey());
+                }
+            }
+        }
+    }
+
+    /**
+     * Ajoute la contribution d'un commentaire au score de son post et met à jour les classements.
+     *
+     * @param postId    l'identifiant du post commenté
+     * @param topicId   l'identifiant du topic du post
+     * @param createdAt la date du commentaire
+     */
+    private void addContribution(Long postId, Long topicId, Instant createdAt)
+    {
+        double contribution = logContribution(createdAt);
+        PostActivity updated = activity.merge(postId, new PostActivity(topicId, contribution),
+                (current, added) -> new PostActivity(current.topicId(), logSum(current.logScore(), added.logScore())));
+
+        globalBoard.offer(postId, updated.logScore());
+        topicBoards.computeIfAbsent(updated.topicId(), id -> new TrendingBoard(capacity))
+                .offer(postId, updated.logScore());
+    }
+
+    /**
+     * Logarithme de la contribution d'un commentaire : {@code λ·(t - t0)}.
+     *
+     * @param createdAt la date du commentaire
+     * @return le logarithme de la contribution
+     */
+    private double logContribution(Instant createdAt)
+    {
+        return decayPerMilli * (createdAt.toEpochMilli() - landmarkMillis);
+    }
+
+    /**
+     * Logarithme de la somme de deux valeurs données par leurs logarithmes, sans dépassement de capacité.
+     *
+     * @param a le logarithme de la première valeur
+     * @param b le logarithme de la seconde valeur
+     * @return {@code log(exp(a) + exp(b))}
+     */
+    private static double logSum(double a, double b)
+    {
+        return Math.max(a, b) + Math.log1p(Math.exp(-Math.abs(a - b)));
+    }
+}
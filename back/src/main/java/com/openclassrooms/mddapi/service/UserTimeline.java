@@ -0,0 +1,284 @@
+package com.openclassrooms.mddapi.service;
+
+import com.openclassrooms.mddapi.repository.projection.TimelineEntry;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Fil d'actualité matérialisé en mémoire pour un utilisateur.
+ * <p>
+ * Tampon circulaire de capacité fixe stockant, sous forme de tableaux de
+ * {@code long} primitifs, l'identifiant, la date de création (en microsecondes)
+ * et le topic des posts les plus récents des topics suivis. Les entrées sont
+ * maintenues triées du plus récent au plus ancien selon la clé
+ * {@code (createdAt, postId)}, identique à celle de la pagination SQL.
+ * </p>
+ * <p>
+ * L'indicateur {@code complete} signale que le tampon contient la totalité
+ * du fil : aucune entrée plus ancienne que la dernière retenue n'existe en base.
+ * Dans le cas contraire, une lecture qui dépasse la fin du tampon doit être
+ * servie par la base de données.
+ * </p>
+ * <p>
+ * Toutes les méthodes sont synchronisées : les sections critiques sont courtes
+ * et sans entrée/sortie.
+ * </p>
+ *
+ */
+public class UserTimeline
+{
+    private final long[] postIds;
+    private final long[] createdAtMicros;
+    private final long[] topicIds;
+
+    /**
+     * Index physique de la prochaine écriture (position de l'entrée la plus récente + 1).
+     */
+    private int head;
+
+    /**
+     * Nombre d'entrées présentes dans le tampon.
+     */
+    private int size;
+
+    /**
+     * Indique que le tampon contient l'intégralité du fil de l'utilisateur.
+     */
+    private boolean complete;
+
+    /**
+     * Construit un fil à partir d'entrées lues en base.
+     *
+     * @param capacity le nombre maximal d'entrées conservées
+     * @param entries  les entrées triées du plus récent au plus ancien
+     * @param complete true si la base ne contient pas d'entrée plus ancienne que la dernière fournie
+     */
+    public UserTimeline(int capacity, List<TimelineEntry> entries, boolean complete)
+    {
+        this.postIds = new long[capacity];
+        this.createdAtMicros = new long[capacity];
+        this.topicIds = new long[capacity];
+        this.complete = complete;
+        fill(entries);
+    }
+
+    /**
+     * Ajoute un nouveau post au fil.
+     * <p>
+     * Dans le cas courant (post plus récent que tous les autres), l'ajout est
+     * en O(1). Un post arrivé dans le désordre est inséré à sa place. Si le
+     * tampon est plein, l'entrée la plus ancienne est écartée. Un post plus ancien
+     * que toutes les entrées n'est conservé que si le tampon est complet et non plein.
+     * </p>
+     *
+     * @param postId    l'identifiant du post
+     * @param createdAt la date de création du post
+     * @param topicId   l'identifiant du topic du post
+     */
+    public synchronized void add(long postId, Instant createdAt, long topicId)
+    {
+        long micros = toMicros(createdAt);
+        int capacity = postIds.length;
+        int position = firstOlderThan(micros, postId);
+
+        if (position > 0 && postIds[physical(position - 1)] == postId)
+        {
+            // Déjà présent (ex: ajout concurrent avec un rechargement)
+            return;
+        }
+        if (position == size && (size == capacity || !complete))
+        {
+            // Plus ancien que toutes les entrées retenues : au-delà de la fin d'un tampon plein
+            // ou incomplet, la base peut contenir des posts plus récents que lui et absents du
+            // tampon ; l'ajouter en queue ferait sauter ces posts lors de la pagination
+            complete = false;
+            return;
+        }
+        if (size == capacity)
+        {
+            // On écarte l'entrée la plus ancienne pour faire de la place
+            size--;
+            complete = false;
+        }
+
+        // On décale d'un cran vers la tête les entrées plus récentes que le nouveau post
+        for (int i = 0; i < position; i++)
+        {
+            int from = Math.floorMod(head - 1 - i, capacity);
+            int to = Math.floorMod(head - i, capacity);
+            postIds[to] = postIds[from];
+            createdAtMicros[to] = createdAtMicros[from];
+            topicIds[to] = topicIds[from];
+        }
+        head = (head + 1) % capacity;
+
+        int target = physical(position);
+        postIds[target] = postId;
+        createdAtMicros[target] = micros;
+        topicIds[target] = topicId;
+        size++;
+    }
+
+    /**
+     * Fusionne dans le fil les posts d'un topic auquel l'utilisateur vient de s'abonner.
+     *
+     * @param entries       les posts du topic, triés du plus récent au plus ancien
+     * @param topicComplete true si la liste contient tous les posts du topic
+     */
+    public synchronized void merge(List<TimelineEntry> entries, boolean topicComplete)
+    {
+        for (TimelineEntry entry : entries)
+        {
+            add(entry.getPostId(), entry.getCreatedAt(), entry.getTopicId());
+        }
+        if (!topicComplete)
+        {
+            complete = false;
+        }
+    }
+
+    /**
+     * Retire du fil tous les posts d'un topic (après un désabonnement).
+     *
+     * @param topicId l'identifiant du topic à retirer
+     */
+    public synchronized void removeTopic(long topicId)
+    {
+        int capacity = postIds.length;
+        long[] keptIds = new long[size];
+        long[] keptMicros = new long[size];
+        long[] keptTopics = new long[size];
+        int kept = 0;
+
+        for (int i = 0; i < size; i++)
+        {
+            int index = physical(i);
+            if (topicIds[index] != topicId)
+            {
+                keptIds[kept] = postIds[index];
+                keptMicros[kept] = createdAtMicros[index];
+                keptTopics[kept] = topicIds[index];
+                kept++;
+            }
+        }
+
+        // Réécriture compacte : l'entrée la plus récente juste avant la tête
+        for (int i = 0; i < kept; i++)
+        {
+            int index = kept - 1 - i;
+            postIds[index] = keptIds[i];
+            createdAtMicros[index] = keptMicros[i];
+            topicIds[index] = keptTopics[i];
+        }
+        head = kept % capacity;
+        size = kept;
+    }
+
+    /**
+     * Lit une page d'identifiants de posts après un curseur.
+     * <p>
+     * La position de départ est trouvée par recherche dichotomique, la lecture
+     * est donc en O(log n + limit). Si le tampon ne contient pas assez d'entrées
+     * et n'est pas complet, la page ne peut pas être servie depuis la mémoire.
+     * </p>
+     *
+     * @param afterCreatedAt la date du curseur (null pour la première page)
+     * @param afterId        l'identifiant du curseur (null pour la première page)
+     * @param limit          le nombre maximal d'identifiants à retourner
+     * @return les identifiants des posts de la page, ou null si la base doit être interrogée
+     */
+    public synchronized long[] page(Instant afterCreatedAt, Long afterId, int limit)
+    {
+        int start = afterCreatedAt == null ? 0 : firstOlderThan(toMicros(afterCreatedAt), afterId);
+        int available = size - start;
+
+        if (available < limit && !complete)
+        {
+            return null;
+        }
+
+        int count = Math.min(limit, Math.max(available, 0));
+        long[] page = new long[count];
+        for (int i = 0; i < count; i++)
+        {
+            page[i] = postIds[physical(start + i)];
+        }
+        return page;
+    }
+
+    /**
+     * Remplit le tampon à partir d'entrées triées du plus récent au plus ancien.
+     *
+     * @param entries les entrées à charger
+     */
+    private void fill(List<TimelineEntry> entries)
+    {
+        int count = Math.min(entries.size(), postIds.length);
+        if (count < entries.size())
+        {
+            complete = false;
+        }
+        for (int i = 0; i < count; i++)
+        {
+            TimelineEntry entry = entries.get(i);
+            int index = count - 1 - i;
+            postIds[index] = entry.getPostId();
+            createdAtMicros[index] = toMicros(entry.getCreatedAt());
+            topicIds[index] = entry.getTopicId();
+        }
+        head = count % postIds.length;
+        size = count;
+    }
+
+    /**
+     * Recherche dichotomique de la première position logique strictement plus
+     * ancienne que la clé {@code (micros, postId)}.
+     *
+     * @param micros la date de la clé en microsecondes
+     * @param postId l'identifiant de la clé
+     * @return la position logique (0 = plus récent), ou {@code size} si aucune
+     */
+    private int firstOlderThan(long micros, long postId)
+    {
+        int low = 0;
+        int high = size;
+        while (low < high)
+        {
+            int middle = (low + high) >>> 1;
+            int index = physical(middle);
+            boolean older = createdAtMicros[index] < micros
+                    || (createdAtMicros[index] == micros && postIds[index] < postId);
+            if (older)
+            {
+                high = middle;
+            }
+            else
+            {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Convertit une position logique (0 = plus récent) en index physique.
+     *
+     * @param logical la position logique
+     * @return l'index dans les tableaux
+     */
+    private int physical(int logical)
+    {
+        return Math.floorMod(head - 1 - logical, postIds.length);
+    }
+
+    /**
+     * Convertit une date en microsecondes depuis l'époque, précision de {@code DATETIME(6)}.
+     *
+     * @param instant la date à convertir
+     * @return le nombre de microsecondes depuis l'époque
+     */
+    private static long toMicros(Instant instant)
+    {
+        return instant.getEpochSecond() * 1_000_000L + instant.getNano() / 1_000;
+    }
+}
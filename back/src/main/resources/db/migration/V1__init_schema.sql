@@ -0,0 +1,55 @@
+-- Schéma initial, identique à celui généré jusqu'ici par spring.jpa.hibernate.ddl-auto=update.
+-- Une base existante est marquée à cette version sans exécuter ce script
+-- (spring.flyway.baseline-on-migrate=true) : il ne doit contenir que ce que ces bases ont déjà.
+-- Toute évolution ultérieure (version de jeton, unicité des abonnements, ...) est une migration.
+
+CREATE TABLE users (
+    id         BIGINT       NOT NULL AUTO_INCREMENT,
+    email      VARCHAR(255) NOT NULL,
+    username   VARCHAR(255) NOT NULL,
+    password   VARCHAR(255) NOT NULL,
+    created_at DATETIME(6)  NOT NULL,
+    updated_at DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_email UNIQUE (email),
+    CONSTRAINT uk_users_username UNIQUE (username)
+) ENGINE = InnoDB;
+
+CREATE TABLE topics (
+    topic_id    BIGINT        NOT NULL AUTO_INCREMENT,
+    title       VARCHAR(255)  NOT NULL,
+    description VARCHAR(2000),
+    created_at  DATETIME(6)   NOT NULL,
+    updated_at  DATETIME(6),
+    PRIMARY KEY (topic_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE posts (
+    post_id    BIGINT       NOT NULL AUTO_INCREMENT,
+    title      VARCHAR(255) NOT NULL,
+    content    TEXT         NOT NULL,
+    created_at DATETIME(6)  NOT NULL,
+    topic_id   BIGINT       NOT NULL,
+    user_id    BIGINT       NOT NULL,
+    PRIMARY KEY (post_id),
+    CONSTRAINT fk_posts_topic FOREIGN KEY (topic_id) REFERENCES topics (topic_id),
+    CONSTRAINT fk_posts_user FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE comments (
+    id         BIGINT      NOT NULL AUTO_INCREMENT,
+    content    TEXT        NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    user_id    BIGINT      NOT NULL,
+    post_id    BIGINT      NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_comments_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_comments_post FOREIGN KEY (post_id) REFERENCES posts (post_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE subscriptions (
+    user_id  BIGINT NOT NULL,
+    topic_id BIGINT NOT NULL,
+    CONSTRAINT fk_subscriptions_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_subscriptions_topic FOREIGN KEY (topic_id) REFERENCES topics (topic_id)
+) ENGINE = InnoDB;
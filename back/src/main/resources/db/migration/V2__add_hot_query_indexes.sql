@@ -0,0 +1,16 @@
+-- Index composites des chemins d'accès les plus fréquents.
+-- InnoDB ajoute la clé primaire à chaque index secondaire : (topic_id, created_at) sert
+-- donc aussi le tri (created_at DESC, post_id DESC) du fil et la pagination par curseur.
+-- L'index implicite créé par MySQL pour la clé étrangère de même préfixe est remplacé.
+
+-- Posts d'un topic et fil d'actualité (PostRepository.findByTopicId, findFeed*, findTopicEntries)
+CREATE INDEX idx_posts_topic_created ON posts (topic_id, created_at);
+
+-- Posts d'un auteur (PostRepository.findByAuthorId)
+CREATE INDEX idx_posts_user_created ON posts (user_id, created_at);
+
+-- Commentaires d'un post, dans l'ordre d'affichage (CommentRepository.findByPostId, findSummaryPage*)
+CREATE INDEX idx_comments_post_created ON comments (post_id, created_at);
+
+-- Abonnés d'un topic ; le sens (user_id, topic_id) est couvert par la contrainte d'unicité ajoutée en V6
+CREATE INDEX idx_subscriptions_topic ON subscriptions (topic_id);
@@ -0,0 +1,7 @@
+-- Nombre de commentaires dénormalisé sur chaque post, initialisé depuis la table des commentaires.
+-- Maintenu ensuite par l'application (CommentCounterService), par incréments reportés en lot.
+
+ALTER TABLE posts ADD COLUMN comment_count BIGINT NOT NULL DEFAULT 0;
+
+UPDATE posts p
+SET p.comment_count = (SELECT COUNT(*) FROM comments c WHERE c.post_id = p.post_id);
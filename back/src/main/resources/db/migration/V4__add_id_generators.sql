@@ -0,0 +1,16 @@
+-- Générateur d'identifiants par blocs pour les posts et les commentaires.
+-- Chaque ligne contient le prochain identifiant libre ; Hibernate (optimiseur pooled-lo)
+-- et l'import en masse réservent un bloc en l'augmentant de la taille du bloc.
+-- Les colonnes AUTO_INCREMENT sont conservées mais ne sont plus utilisées pour ces tables.
+
+CREATE TABLE id_generators (
+    name     VARCHAR(255) NOT NULL,
+    next_val BIGINT       NOT NULL,
+    PRIMARY KEY (name)
+) ENGINE = InnoDB;
+
+INSERT INTO id_generators (name, next_val)
+SELECT 'posts', COALESCE(MAX(post_id), 0) + 1 FROM posts;
+
+INSERT INTO id_generators (name, next_val)
+SELECT 'comments', COALESCE(MAX(id), 0) + 1 FROM comments;
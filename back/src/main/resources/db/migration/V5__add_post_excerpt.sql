@@ -0,0 +1,11 @@
+-- Extrait précalculé de chaque post, lu par les listes à la place du contenu complet (TEXT).
+-- Même règle que Post.excerptOf : espaces regroupés, 200 caractères au plus suivis de « … ».
+
+ALTER TABLE posts ADD COLUMN excerpt VARCHAR(255) NULL;
+
+UPDATE posts
+SET excerpt = IF(CHAR_LENGTH(TRIM(REGEXP_REPLACE(content, '[[:space:]]+', ' '))) <= 200,
+                 TRIM(REGEXP_REPLACE(content, '[[:space:]]+', ' ')),
+                 CONCAT(TRIM(TRAILING ' ' FROM LEFT(TRIM(REGEXP_REPLACE(content, '[[:space:]]+', ' ')), 200)), '…'));
+
+ALTER TABLE posts MODIFY COLUMN excerpt VARCHAR(255) NOT NULL;
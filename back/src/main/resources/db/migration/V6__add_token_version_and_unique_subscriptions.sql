@@ -0,0 +1,20 @@
+-- Colonnes et contraintes ajoutées par l'application après le schéma initial (V1),
+-- absentes des bases créées par ddl-auto=update et marquées à la version 1.
+
+-- Version des jetons JWT de chaque utilisateur (révocation des jetons en cours)
+ALTER TABLE users ADD COLUMN token_version BIGINT NOT NULL DEFAULT 0;
+
+-- Unicité des abonnements, dont dépend l'écriture idempotente (INSERT IGNORE) de
+-- SubscriptionService.subscribe. Les doublons existants sont d'abord supprimés :
+-- la table n'a pas de clé primaire, elle est donc reconstruite depuis ses lignes distinctes.
+CREATE TEMPORARY TABLE subscriptions_distinct AS
+    SELECT DISTINCT user_id, topic_id FROM subscriptions;
+
+DELETE FROM subscriptions;
+
+INSERT INTO subscriptions (user_id, topic_id)
+    SELECT user_id, topic_id FROM subscriptions_distinct;
+
+DROP TEMPORARY TABLE subscriptions_distinct;
+
+ALTER TABLE subscriptions ADD CONSTRAINT uk_subscriptions_user_topic UNIQUE (user_id, topic_id);
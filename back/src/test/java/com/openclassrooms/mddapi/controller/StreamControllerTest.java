@@ -0,0 +1,100 @@
+package com.openclassrooms.mddapi.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+/**
+ * Les flux SSE ouverts ne doivent pas retenir de connexion JDBC : avec un pool de
+ * deux connexions, l'API répond encore après l'ouverture de plusieurs flux.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.hikari.maximum-pool-size=2",
+        "spring.datasource.hikari.connection-timeout=1000",
+        "app.rate-limit.enabled=false"
+})
+class StreamControllerTest
+{
+    private static final int STREAMS = 5;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final List<InputStream> streams = new ArrayList<>();
+
+    @AfterEach
+    void closeStreams() throws IOException
+    {
+        for (InputStream stream : streams)
+        {
+            stream.close();
+        }
+    }
+
+    private HttpRequest.Builder request(String path)
+    {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).timeout(Duration.ofSeconds(5));
+    }
+
+    private String register() throws IOException, InterruptedException
+    {
+        String name = "sse" + UUID.randomUUID().toString().substring(0, 8);
+        String body = "{\"username\":\"" + name + "\",\"email\":\"" + name + "@example.com\","
+                + "\"password\":\"Passw0rd!\"}";
+        HttpResponse<String> response = client.send(request("/api/auth/register")
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertThat(response.statusCode()).isEqualTo(200);
+        return objectMapper.readTree(response.body()).get("token").asText();
+    }
+
+    @Test
+    void openStreamsDoNotHoldDatabaseConnections() throws IOException, InterruptedException
+    {
+        String token = register();
+
+        for (int i = 0; i < STREAMS; i++)
+        {
+            HttpResponse<InputStream> stream = client.send(request("/api/stream/feed")
+                            .header("Authorization", "Bearer " + token)
+                            .timeout(Duration.ofMinutes(1))
+                            .build(),
+                    HttpResponse.BodyHandlers.ofInputStream());
+            streams.add(stream.body());
+            assertThat(stream.statusCode()).isEqualTo(200);
+        }
+
+        HttpResponse<String> topics = client.send(request("/api/topics")
+                        .header("Authorization", "Bearer " + token)
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertThat(topics.statusCode()).isEqualTo(200);
+
+        HttpResponse<String> me = client.send(request("/api/auth/me")
+                        .header("Authorization", "Bearer " + token)
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertThat(me.statusCode()).isEqualTo(200);
+    }
+}
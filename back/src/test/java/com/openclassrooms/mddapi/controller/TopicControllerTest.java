@@ -0,0 +1,107 @@
+package com.openclassrooms.mddapi.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.openclassrooms.mddapi.dto.TopicResponse;
+import com.openclassrooms.mddapi.event.SubscriptionChangedEvent;
+import com.openclassrooms.mddapi.security.CustomUserDetails;
+import com.openclassrooms.mddapi.service.ContentVersionService;
+import com.openclassrooms.mddapi.service.TopicService;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+class TopicControllerTest
+{
+    private TopicService topicService;
+    private ContentVersionService contentVersionService;
+    private TopicController topicController;
+
+    @BeforeEach
+    void setUp()
+    {
+        topicService = mock(TopicService.class);
+        when(topicService.getAllTopics(null)).thenReturn(List.of(new TopicResponse()));
+
+        contentVersionService = new ContentVersionService();
+        ReflectionTestUtils.setField(contentVersionService, "maxStaleness", Duration.ZERO);
+
+        topicController = new TopicController(topicService, contentVersionService);
+    }
+
+    private ResponseEntity<List<TopicResponse>> getTopics(String ifNoneMatch)
+    {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/topics");
+        if (ifNoneMatch != null)
+        {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return topicController.getAllTopics(null, new ServletWebRequest(request, new MockHttpServletResponse()));
+    }
+
+    @Test
+    void responseCarriesAnEtagAndIsRevalidatedOnEachUse()
+    {
+        ResponseEntity<List<TopicResponse>> response = getTopics(null);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getETag()).startsWith("\"");
+        assertThat(response.getHeaders().getCacheControl()).isEqualTo("no-cache, private");
+        assertThat(response.getBody()).hasSize(1);
+    }
+
+    @Test
+    void matchingEtagGetsA304WithoutReadingTheTopics()
+    {
+        String etag = getTopics(null).getHeaders().getETag();
+
+        ResponseEntity<List<TopicResponse>> response = getTopics(etag);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.getBody()).isNull();
+        assertThat(response.getHeaders().getETag()).isEqualTo(etag);
+        assertThat(response.getHeaders().getCacheControl()).isEqualTo("no-cache, private");
+        verify(topicService, times(1)).getAllTopics(null);
+    }
+
+    @Test
+    void staleEtagGetsTheNewContent()
+    {
+        String etag = getTopics(null).getHeaders().getETag();
+        contentVersionService.topicCreated();
+
+        ResponseEntity<List<TopicResponse>> response = getTopics(etag);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getETag()).isNotEqualTo(etag);
+        verify(topicService, times(2)).getAllTopics(null);
+    }
+
+    @Test
+    void subscriptionChangeInvalidatesTheSubscriberEtag()
+    {
+        CustomUserDetails alice = new CustomUserDetails(7L, "alice@example.com", "alice", null, 0L);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/topics");
+        String etag = topicController.getAllTopics(alice, new ServletWebRequest(request))
+                .getHeaders().getETag();
+
+        contentVersionService.onSubscriptionChanged(new SubscriptionChangedEvent(7L, 1L, true));
+
+        MockHttpServletRequest revalidation = new MockHttpServletRequest("GET", "/api/topics");
+        revalidation.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        assertThat(topicController.getAllTopics(alice, new ServletWebRequest(revalidation)).getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+    }
+}
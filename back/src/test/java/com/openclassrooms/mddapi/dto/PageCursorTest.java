@@ -0,0 +1,54 @@
+package com.openclassrooms.mddapi.dto;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import org.junit.jupiter.api.Test;
+
+class PageCursorTest
+{
+    private static String base64(String raw)
+    {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void encodedCursorDecodesToTheSameKeyWithMicrosecondPrecision()
+    {
+        Instant createdAt = Instant.parse("2024-03-05T10:15:30.123456Z");
+
+        PageCursor decoded = PageCursor.decode(new PageCursor(createdAt, 42L).encode());
+
+        assertThat(decoded.getCreatedAt()).isEqualTo(createdAt);
+        assertThat(decoded.getId()).isEqualTo(42L);
+    }
+
+    @Test
+    void encodedCursorIsUrlSafeWithoutPadding()
+    {
+        String encoded = new PageCursor(Instant.parse("2024-03-05T10:15:30Z"), 1L).encode();
+
+        assertThat(encoded).doesNotContain("=", "+", "/");
+    }
+
+    @Test
+    void missingCursorMeansFirstPage()
+    {
+        assertThat(PageCursor.decode(null)).isNull();
+        assertThat(PageCursor.decode("")).isNull();
+        assertThat(PageCursor.decode("  ")).isNull();
+    }
+
+    @Test
+    void malformedCursorsAreRejected()
+    {
+        assertThatThrownBy(() -> PageCursor.decode("not base64!")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> PageCursor.decode(base64("no separator"))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> PageCursor.decode(base64("yesterday|1"))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> PageCursor.decode(base64("2024-03-05T10:15:30Z|abc")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
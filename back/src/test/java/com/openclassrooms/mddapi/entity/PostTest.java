@@ -0,0 +1,96 @@
+package com.openclassrooms.mddapi.entity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class PostTest
+{
+    /**
+     * Transcription pas à pas de l'UPDATE de V5__add_post_excerpt.sql : REGEXP_REPLACE sur
+     * [[:space:]], TRIM des espaces, CHAR_LENGTH et LEFT en caractères, TRIM TRAILING ' '.
+     */
+    private static String v5Backfill(String content)
+    {
+        String collapsed = trim(content.replaceAll("(?U)\\s+", " "));
+        if (collapsed.codePointCount(0, collapsed.length()) <= 200)
+        {
+            return collapsed;
+        }
+        String left = collapsed.substring(0, collapsed.offsetByCodePoints(0, 200));
+        return left.replaceAll(" +$", "") + "…";
+    }
+
+    private static String trim(String text)
+    {
+        return text.replaceAll("^ +| +$", "");
+    }
+
+    @Test
+    void whitespaceIsCollapsedAndTrimmed()
+    {
+        assertThat(Post.excerptOf("  Bonjour\n\n\tle  monde \r\n")).isEqualTo("Bonjour le monde");
+    }
+
+    @Test
+    void unicodeSpacesAreCollapsedLikeMysql()
+    {
+        // Espace insécable, espace fine insécable et espace idéographique
+        assertThat(Post.excerptOf("Prix\u00a0: 10\u202f€\u3000net")).isEqualTo("Prix : 10 € net");
+    }
+
+    @Test
+    void contentOfExactlyTheLimitIsKeptWhole()
+    {
+        String content = "a".repeat(Post.EXCERPT_LENGTH);
+
+        assertThat(Post.excerptOf(content)).isEqualTo(content);
+    }
+
+    @Test
+    void longerContentIsCutAndEndsWithAnEllipsis()
+    {
+        String excerpt = Post.excerptOf("a".repeat(Post.EXCERPT_LENGTH + 1));
+
+        assertThat(excerpt).isEqualTo("a".repeat(Post.EXCERPT_LENGTH) + "…");
+    }
+
+    @Test
+    void spaceBeforeTheCutIsDropped()
+    {
+        String excerpt = Post.excerptOf("a".repeat(Post.EXCERPT_LENGTH - 1) + " suite");
+
+        assertThat(excerpt).isEqualTo("a".repeat(Post.EXCERPT_LENGTH - 1) + "…");
+    }
+
+    @Test
+    void lengthIsCountedInCharactersNotUtf16Units()
+    {
+        String emoji = "🚀";
+        String excerpt = Post.excerptOf(emoji.repeat(Post.EXCERPT_LENGTH + 5));
+
+        assertThat(excerpt).isEqualTo(emoji.repeat(Post.EXCERPT_LENGTH) + "…");
+        // Tient dans la colonne VARCHAR(255)
+        assertThat(excerpt.codePointCount(0, excerpt.length())).isEqualTo(Post.EXCERPT_LENGTH + 1);
+    }
+
+    @Test
+    void javaRuleMatchesTheV5Backfill()
+    {
+        String[] contents = {
+                "",
+                "   ",
+                "Court",
+                "\u00a0 Début\u2003et fin \u00a0",
+                "mot ".repeat(60),
+                "x".repeat(199) + "\n\n" + "y".repeat(10),
+                "é".repeat(250),
+                "🚀 ".repeat(150)
+        };
+
+        for (String content : contents)
+        {
+            assertThat(Post.excerptOf(content)).isEqualTo(v5Backfill(content));
+        }
+    }
+}
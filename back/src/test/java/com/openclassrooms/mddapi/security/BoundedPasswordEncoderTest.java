@@ -0,0 +1,180 @@
+package com.openclassrooms.mddapi.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.openclassrooms.mddapi.exception.HashingCapacityExceededException;
+import com.openclassrooms.mddapi.exception.RestExceptionHandler;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+class BoundedPasswordEncoderTest
+{
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown()
+    {
+        release.countDown();
+        if (encoder != null)
+        {
+            encoder.destroy();
+        }
+    }
+
+    /**
+     * Encodeur dont chaque hachage reste bloqué jusqu'à la libération du verrou.
+     */
+    private PasswordEncoder blockingEncoder()
+    {
+        return new PasswordEncoder()
+        {
+            @Override
+            public String encode(CharSequence rawPassword)
+            {
+                started.countDown();
+                try
+                {
+                    release.await(10, TimeUnit.SECONDS);
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+                return "hash:" + rawPassword;
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword)
+            {
+                return encode(rawPassword).equals(encodedPassword);
+            }
+        };
+    }
+
+    /**
+     * Occupe l'unique thread de hachage et remplit l'unique place de la file.
+     */
+    private void saturate() throws InterruptedException
+    {
+        encoder = new BoundedPasswordEncoder(blockingEncoder(), 1, 1, 7, meterRegistry);
+        CompletableFuture.runAsync(() -> encoder.encode("premier"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture.runAsync(() -> encoder.encode("second"));
+        while (meterRegistry.get("auth.hashing.queue.size").gauge().value() < 1)
+        {
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    void hashingRunsOnTheDedicatedPoolWithCorrectResults()
+    {
+        String[] threadName = new String[1];
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(4);
+        encoder = new BoundedPasswordEncoder(new PasswordEncoder()
+        {
+            @Override
+            public String encode(CharSequence rawPassword)
+            {
+                threadName[0] = Thread.currentThread().getName();
+                return bcrypt.encode(rawPassword);
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword)
+            {
+                return bcrypt.matches(rawPassword, encodedPassword);
+            }
+        }, 2, 10, 1, meterRegistry);
+
+        String hash = encoder.encode("Passw0rd!");
+
+        assertThat(threadName[0]).startsWith("password-hashing-");
+        assertThat(encoder.matches("Passw0rd!", hash)).isTrue();
+        assertThat(encoder.matches("mauvais", hash)).isFalse();
+        assertThat(meterRegistry.get("auth.hashing.duration").tag("operation", "matches").timer().count()).isEqualTo(2L);
+    }
+
+    @Test
+    void fullQueueIsRejectedImmediately() throws InterruptedException
+    {
+        saturate();
+
+        assertThatThrownBy(() -> encoder.matches("troisième", "hash"))
+                .isInstanceOf(HashingCapacityExceededException.class)
+                .extracting(e -> ((HashingCapacityExceededException) e).getRetryAfterSeconds())
+                .isEqualTo(7L);
+        assertThat(meterRegistry.get("auth.hashing.rejected").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void fullQueueIsReported503WithRetryAfter() throws Exception
+    {
+        saturate();
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new LoginController(encoder))
+                .setControllerAdvice(new RestExceptionHandler())
+                .build();
+
+        mockMvc.perform(post("/login"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "7"));
+    }
+
+    @Test
+    void delegateFailuresPropagateUnchanged()
+    {
+        encoder = new BoundedPasswordEncoder(new PasswordEncoder()
+        {
+            @Override
+            public String encode(CharSequence rawPassword)
+            {
+                throw new IllegalArgumentException("mot de passe vide");
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword)
+            {
+                return false;
+            }
+        }, 1, 1, 1, meterRegistry);
+
+        assertThatThrownBy(() -> encoder.encode(""))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("mot de passe vide");
+    }
+
+    @RestController
+    public static class LoginController
+    {
+        private final PasswordEncoder passwordEncoder;
+
+        public LoginController(PasswordEncoder passwordEncoder)
+        {
+            this.passwordEncoder = passwordEncoder;
+        }
+
+        @PostMapping("/login")
+        public boolean login()
+        {
+            return passwordEncoder.matches("Passw0rd!", "hash");
+        }
+    }
+}
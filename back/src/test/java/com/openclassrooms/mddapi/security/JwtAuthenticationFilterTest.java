@@ -0,0 +1,166 @@
+package com.openclassrooms.mddapi.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import com.openclassrooms.mddapi.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class JwtAuthenticationFilterTest
+{
+    private static final String EMAIL = "alice@example.com";
+
+    private UserRepository userRepository;
+    private PrincipalCache principalCache;
+    private JwtService jwtService;
+    private TokenVersionRegistry tokenVersionRegistry;
+    private JwtAuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp()
+    {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", Base64.getEncoder().encodeToString(new byte[32]));
+        ReflectionTestUtils.setField(jwtService, "expirationMs", 60_000L);
+        ReflectionTestUtils.setField(jwtService, "verifiedCacheSize", 100L);
+        jwtService.init();
+
+        userRepository = mock(UserRepository.class);
+        principalCache = mock(PrincipalCache.class);
+        tokenVersionRegistry = new TokenVersionRegistry(userRepository, new SimpleMeterRegistry(),
+                Duration.ofMinutes(1), 100);
+
+        filter = new JwtAuthenticationFilter(principalCache, jwtService, tokenVersionRegistry);
+        ReflectionTestUtils.setField(filter, "stateless", true);
+    }
+
+    @AfterEach
+    void clearContext()
+    {
+        SecurityContextHolder.clearContext();
+    }
+
+    private String token(long tokenVersion)
+    {
+        return jwtService.generateToken(new CustomUserDetails(7L, EMAIL, "alice", null, tokenVersion));
+    }
+
+    private Authentication authenticate(String token) throws Exception
+    {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/posts");
+        request.setServletPath("/api/posts");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    @Test
+    void currentTokenIsAuthenticatedFromItsClaims() throws Exception
+    {
+        when(userRepository.findTokenVersionById(7L)).thenReturn(Optional.of(0L));
+
+        Authentication authentication = authenticate(token(0));
+
+        CustomUserDetails principal = (CustomUserDetails) authentication.getPrincipal();
+        assertThat(principal.getId()).isEqualTo(7L);
+        assertThat(principal.getUsername()).isEqualTo(EMAIL);
+        assertThat(principal.getDisplayName()).isEqualTo("alice");
+    }
+
+    @Test
+    void claimsOnlyPathReadsNothingButTheTokenVersion() throws Exception
+    {
+        when(userRepository.findTokenVersionById(7L)).thenReturn(Optional.of(0L));
+        String token = token(0);
+
+        authenticate(token);
+        authenticate(token);
+        authenticate(token);
+
+        // Une seule lecture de la version, mise en mémoire ; jamais l'utilisateur lui-même
+        verify(userRepository, times(1)).findTokenVersionById(7L);
+        verifyNoMoreInteractions(userRepository);
+        verifyNoInteractions(principalCache);
+    }
+
+    @Test
+    void tokenIssuedBeforeAnEmailOrPasswordChangeIsRejected() throws Exception
+    {
+        when(userRepository.findTokenVersionById(7L)).thenReturn(Optional.of(0L));
+        String oldToken = token(0);
+        assertThat(authenticate(oldToken)).isNotNull();
+
+        // Changement d'email ou de mot de passe : UserController incrémente la version
+        tokenVersionRegistry.update(7L, 1L);
+
+        assertThat(authenticate(oldToken)).isNull();
+    }
+
+    @Test
+    void staleTokenIsRejectedWhenTheVersionIsReadFromTheDatabase() throws Exception
+    {
+        // Changement effectué sur une autre instance : la version en base est déjà 1
+        when(userRepository.findTokenVersionById(7L)).thenReturn(Optional.of(1L));
+
+        assertThat(authenticate(token(0))).isNull();
+    }
+
+    @Test
+    void tokenWithTheUpdatedVersionIsAcceptedAgain() throws Exception
+    {
+        when(userRepository.findTokenVersionById(7L)).thenReturn(Optional.of(0L));
+        authenticate(token(0));
+        tokenVersionRegistry.update(7L, 1L);
+
+        assertThat(authenticate(token(1))).isNotNull();
+        assertThat(authenticate(token(0))).isNull();
+    }
+
+    @Test
+    void deletedUserIsRejected() throws Exception
+    {
+        when(userRepository.findTokenVersionById(7L)).thenReturn(Optional.empty());
+
+        assertThat(authenticate(token(0))).isNull();
+    }
+
+    @Test
+    void standardModeLoadsThePrincipal() throws Exception
+    {
+        ReflectionTestUtils.setField(filter, "stateless", false);
+        when(principalCache.get(EMAIL)).thenReturn(new CustomUserDetails(7L, EMAIL, "alice", null, 0L));
+
+        assertThat(authenticate(token(0))).isNotNull();
+        verify(principalCache).get(EMAIL);
+        verify(userRepository, never()).findTokenVersionById(7L);
+    }
+
+    @Test
+    void tokenWithoutIdentityClaimsFallsBackToTheStandardPath() throws Exception
+    {
+        when(principalCache.get(anyString())).thenReturn(new CustomUserDetails(7L, EMAIL, "alice", null, 0L));
+
+        assertThat(authenticate(jwtService.generateToken(EMAIL))).isNotNull();
+        verify(principalCache).get(EMAIL);
+    }
+}
@@ -0,0 +1,83 @@
+package com.openclassrooms.mddapi.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.jsonwebtoken.Claims;
+import java.util.Base64;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class JwtServiceTest
+{
+    private static JwtService jwtService(long expirationMs, long verifiedCacheSize)
+    {
+        JwtService jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", Base64.getEncoder().encodeToString(new byte[32]));
+        ReflectionTestUtils.setField(jwtService, "expirationMs", expirationMs);
+        ReflectionTestUtils.setField(jwtService, "verifiedCacheSize", verifiedCacheSize);
+        jwtService.init();
+        return jwtService;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Cache<String, Claims> verifiedTokens(JwtService jwtService)
+    {
+        return (Cache<String, Claims>) ReflectionTestUtils.getField(jwtService, "verifiedTokens");
+    }
+
+    @Test
+    void verifiedTokenIsCachedOnce()
+    {
+        JwtService jwtService = jwtService(60_000L, 100L);
+        String token = jwtService.generateToken("alice@example.com");
+
+        assertThat(jwtService.validateToken(token).getSubject()).isEqualTo("alice@example.com");
+        assertThat(jwtService.validateToken(token).getSubject()).isEqualTo("alice@example.com");
+
+        assertThat(verifiedTokens(jwtService).estimatedSize()).isEqualTo(1L);
+    }
+
+    @Test
+    void cachedTokenIsRejectedOnceExpired() throws InterruptedException
+    {
+        JwtService jwtService = jwtService(1_000L, 100L);
+        String token = jwtService.generateToken("alice@example.com");
+        Claims claims = jwtService.validateToken(token);
+        assertThat(claims).isNotNull();
+
+        // La date d'expiration du jeton est arrondie à la seconde
+        Thread.sleep(claims.getExpiration().getTime() - System.currentTimeMillis() + 100);
+
+        assertThat(jwtService.validateToken(token)).isNull();
+        Cache<String, Claims> verifiedTokens = verifiedTokens(jwtService);
+        verifiedTokens.cleanUp();
+        assertThat(verifiedTokens.estimatedSize()).isZero();
+    }
+
+    @Test
+    void tokenSignedWithAnotherKeyIsRejectedAndNotCached()
+    {
+        JwtService jwtService = jwtService(60_000L, 100L);
+        JwtService other = new JwtService();
+        ReflectionTestUtils.setField(other, "secretKey", Base64.getEncoder().encodeToString("x".repeat(32).getBytes()));
+        ReflectionTestUtils.setField(other, "expirationMs", 60_000L);
+        other.init();
+
+        assertThat(jwtService.validateToken(other.generateToken("alice@example.com"))).isNull();
+        assertThat(jwtService.validateToken("pas.un.jeton")).isNull();
+        assertThat(verifiedTokens(jwtService).estimatedSize()).isZero();
+    }
+
+    @Test
+    void tokensAreVerifiedWithoutCacheWhenDisabled()
+    {
+        JwtService jwtService = jwtService(60_000L, 0L);
+        String token = jwtService.generateToken("alice@example.com");
+
+        assertThat(verifiedTokens(jwtService)).isNull();
+        assertThat(jwtService.validateToken(token).getSubject()).isEqualTo("alice@example.com");
+        assertThat(jwtService.isTokenValid(token, "alice@example.com")).isTrue();
+        assertThat(jwtService.isTokenValid(token, "bob@example.com")).isFalse();
+    }
+}
@@ -0,0 +1,214 @@
+package com.openclassrooms.mddapi.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.mddapi.config.RateLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class RateLimitFilterTest
+{
+    private static final String LOGIN = "/api/auth/login";
+
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp()
+    {
+        RateLimitProperties.Rule rule = new RateLimitProperties.Rule();
+        rule.setMethod("POST");
+        rule.setPath(LOGIN);
+        rule.setKey(RateLimitProperties.KeyType.ACCOUNT);
+        rule.setAccountField("emailOrUsername");
+        rule.setCapacity(2);
+        rule.setRefillPeriod(Duration.ofHours(1));
+        rule.setFailuresOnly(true);
+
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setRules(List.of(rule));
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        filter = new RateLimitFilter(new RateLimiter(properties, meterRegistry), properties, new ObjectMapper(),
+                meterRegistry);
+    }
+
+    private static MockHttpServletRequest login(String body)
+    {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", LOGIN);
+        request.setServletPath(LOGIN);
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private static FilterChain respondingWith(int status)
+    {
+        return (request, response) -> ((HttpServletResponse) response).setStatus(status);
+    }
+
+    private MockHttpServletResponse send(HttpServletRequest request, FilterChain chain) throws Exception
+    {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    @Test
+    void repeatedFailuresOnAnAccountAreRejectedWithRetryAfter() throws Exception
+    {
+        String body = "{\"emailOrUsername\":\"alice@example.com\",\"password\":\"wrong\"}";
+
+        assertThat(send(login(body), respondingWith(401)).getStatus()).isEqualTo(401);
+        assertThat(send(login(body), respondingWith(401)).getStatus()).isEqualTo(401);
+
+        MockHttpServletResponse rejected = send(login(body), respondingWith(401));
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getHeader(HttpHeaders.RETRY_AFTER)).isNotNull();
+    }
+
+    @Test
+    void accountKeyIsCaseInsensitive() throws Exception
+    {
+        send(login("{\"emailOrUsername\":\"Alice@Example.com\"}"), respondingWith(401));
+        send(login("{\"emailOrUsername\":\"alice@example.com \"}"), respondingWith(401));
+
+        assertThat(send(login("{\"emailOrUsername\":\"ALICE@EXAMPLE.COM\"}"), respondingWith(401)).getStatus())
+                .isEqualTo(429);
+    }
+
+    @Test
+    void successfulLoginsDoNotConsumeTheAccountQuota() throws Exception
+    {
+        String body = "{\"emailOrUsername\":\"bob\",\"password\":\"secret\"}";
+
+        for (int i = 0; i < 5; i++)
+        {
+            assertThat(send(login(body), respondingWith(200)).getStatus()).isEqualTo(200);
+        }
+        assertThat(send(login(body), respondingWith(401)).getStatus()).isEqualTo(401);
+    }
+
+    @Test
+    void bodyWithoutAccountIsChargedToASharedKey() throws Exception
+    {
+        send(login("{}"), respondingWith(400));
+        send(login("not json"), respondingWith(400));
+
+        assertThat(send(login("{\"emailOrUsername\":42}"), respondingWith(400)).getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    void bodyIsReplayedIntactToTheController() throws Exception
+    {
+        String body = "{\"emailOrUsername\":\"carol\",\"password\":\"pé\"}";
+        List<String> seen = new ArrayList<>();
+
+        send(login(body), (request, response) -> seen.add(
+                new String(request.getInputStream().readAllBytes(), StandardCharsets.UTF_8)));
+
+        assertThat(seen).containsExactly(body);
+    }
+
+    @Test
+    void oversizedChunkedBodyIsRejectedWithoutCallingTheController() throws Exception
+    {
+        // Aucune longueur annoncée, comme en Transfer-Encoding: chunked
+        String padding = "x".repeat(9 * 1024);
+        HttpServletRequest chunked = new HttpServletRequestWrapper(
+                login("{\"emailOrUsername\":\"dave\",\"padding\":\"" + padding + "\"}"))
+        {
+            @Override
+            public int getContentLength()
+            {
+                return -1;
+            }
+
+            @Override
+            public long getContentLengthLong()
+            {
+                return -1;
+            }
+        };
+        AtomicInteger calls = new AtomicInteger();
+
+        MockHttpServletResponse response = send(chunked, (request, res) -> calls.incrementAndGet());
+
+        assertThat(response.getStatus()).isEqualTo(413);
+        assertThat(calls.get()).isEqualTo(0);
+    }
+
+    @Test
+    void oversizedDeclaredBodyIsRejected() throws Exception
+    {
+        MockHttpServletRequest request = login("{}");
+        request.setContent(new byte[9 * 1024]);
+
+        assertThat(send(request, respondingWith(200)).getStatus()).isEqualTo(413);
+    }
+
+    @Test
+    void readListenerIsNotifiedOfTheBufferedBody() throws Exception
+    {
+        List<String> events = new ArrayList<>();
+
+        send(login("{\"emailOrUsername\":\"erin\"}"), (request, response) ->
+        {
+            ServletInputStream input = request.getInputStream();
+            input.setReadListener(new ReadListener()
+            {
+                @Override
+                public void onDataAvailable() throws IOException
+                {
+                    events.add("data");
+                    while (!input.isFinished())
+                    {
+                        input.read();
+                    }
+                }
+
+                @Override
+                public void onAllDataRead()
+                {
+                    events.add("end");
+                }
+
+                @Override
+                public void onError(Throwable t)
+                {
+                    events.add("error");
+                }
+            });
+        });
+
+        assertThat(events).containsExactly("data", "end");
+    }
+
+    @Test
+    void otherRoutesAreNotLimited() throws Exception
+    {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/posts");
+        request.setServletPath("/api/posts");
+
+        for (int i = 0; i < 5; i++)
+        {
+            assertThat(send(request, respondingWith(401)).getStatus()).isEqualTo(401);
+        }
+    }
+}
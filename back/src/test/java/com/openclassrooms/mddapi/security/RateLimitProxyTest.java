@@ -0,0 +1,69 @@
+package com.openclassrooms.mddapi.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+/**
+ * Derrière le proxy nginx, les limites par IP s'appliquent à l'adresse du client
+ * transmise dans {@code X-Forwarded-For}, et non à celle du proxy.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "app.rate-limit.rules[0].method=POST",
+        "app.rate-limit.rules[0].path=/api/auth/login",
+        "app.rate-limit.rules[0].key=ip",
+        "app.rate-limit.rules[0].capacity=2",
+        "app.rate-limit.rules[0].refill-period=1h"
+})
+class RateLimitProxyTest
+{
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final AtomicInteger accounts = new AtomicInteger();
+
+    private int login(String forwardedFor) throws IOException, InterruptedException
+    {
+        String body = "{\"emailOrUsername\":\"inconnu" + accounts.incrementAndGet() + "\",\"password\":\"x\"}";
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/auth/login"))
+                .timeout(Duration.ofSeconds(10))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (forwardedFor != null)
+        {
+            request.header("X-Forwarded-For", forwardedFor);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    @Test
+    void clientsBehindTheProxyHaveTheirOwnQuota() throws IOException, InterruptedException
+    {
+        assertThat(login("203.0.113.10")).isEqualTo(401);
+        assertThat(login("203.0.113.10")).isEqualTo(401);
+        assertThat(login("203.0.113.10")).isEqualTo(429);
+
+        // Un autre client passant par le même proxy (127.0.0.1) n'est pas bloqué
+        assertThat(login("203.0.113.20")).isEqualTo(401);
+        assertThat(login(null)).isEqualTo(401);
+    }
+
+    @Test
+    void addressesPrependedByTheClientAreIgnored() throws IOException, InterruptedException
+    {
+        // nginx ajoute l'adresse réelle après celle, falsifiable, envoyée par le client
+        assertThat(login("198.51.100.1, 203.0.113.30")).isEqualTo(401);
+        assertThat(login("198.51.100.2, 203.0.113.30")).isEqualTo(401);
+        assertThat(login("198.51.100.3, 203.0.113.30")).isEqualTo(429);
+    }
+}
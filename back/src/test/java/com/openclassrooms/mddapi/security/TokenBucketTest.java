@@ -0,0 +1,79 @@
+package com.openclassrooms.mddapi.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class TokenBucketTest
+{
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void fullBucketAllowsABurstOfCapacityRequests()
+    {
+        TokenBucket bucket = new TokenBucket(3, 3 * SECOND, 0);
+
+        assertThat(bucket.tryConsume(0)).isEqualTo(0L);
+        assertThat(bucket.tryConsume(0)).isEqualTo(0L);
+        assertThat(bucket.tryConsume(0)).isEqualTo(0L);
+        assertThat(bucket.tryConsume(0)).isGreaterThan(0);
+    }
+
+    @Test
+    void emptyBucketReportsTheDelayUntilTheNextToken()
+    {
+        TokenBucket bucket = new TokenBucket(2, 2 * SECOND, 0);
+        bucket.tryConsume(0);
+        bucket.tryConsume(0);
+
+        // Un jeton par seconde
+        assertThat(bucket.tryConsume(0)).isBetween(SECOND - 1, SECOND);
+        assertThat(bucket.tryConsume(SECOND / 2)).isBetween(SECOND / 2 - 1, SECOND / 2);
+    }
+
+    @Test
+    void tokensAreRefilledLazilyWithElapsedTime()
+    {
+        TokenBucket bucket = new TokenBucket(2, 2 * SECOND, 0);
+        bucket.tryConsume(0);
+        bucket.tryConsume(0);
+
+        assertThat(bucket.tryConsume(SECOND)).isEqualTo(0L);
+        assertThat(bucket.tryConsume(SECOND)).isGreaterThan(0);
+    }
+
+    @Test
+    void refillNeverExceedsCapacity()
+    {
+        TokenBucket bucket = new TokenBucket(2, 2 * SECOND, 0);
+
+        long later = TimeUnit.HOURS.toNanos(1);
+        assertThat(bucket.tryConsume(later)).isEqualTo(0L);
+        assertThat(bucket.tryConsume(later)).isEqualTo(0L);
+        assertThat(bucket.tryConsume(later)).isGreaterThan(0);
+    }
+
+    @Test
+    void refundGivesBackAConsumedTokenUpToCapacity()
+    {
+        TokenBucket bucket = new TokenBucket(1, SECOND, 0);
+        bucket.tryConsume(0);
+
+        bucket.refund();
+        bucket.refund();
+
+        assertThat(bucket.tryConsume(0)).isEqualTo(0L);
+        assertThat(bucket.tryConsume(0)).isGreaterThan(0);
+    }
+
+    @Test
+    void lastAccessIsUpdatedOnEveryAttempt()
+    {
+        TokenBucket bucket = new TokenBucket(1, SECOND, 5);
+
+        bucket.tryConsume(42);
+
+        assertThat(bucket.getLastAccessNanos()).isEqualTo(42L);
+    }
+}
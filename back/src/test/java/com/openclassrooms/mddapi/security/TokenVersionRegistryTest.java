@@ -0,0 +1,86 @@
+package com.openclassrooms.mddapi.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.openclassrooms.mddapi.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+class TokenVersionRegistryTest
+{
+    private UserRepository userRepository;
+    private TokenVersionRegistry registry;
+
+    @BeforeEach
+    void setUp()
+    {
+        userRepository = mock(UserRepository.class);
+        registry = new TokenVersionRegistry(userRepository, new SimpleMeterRegistry(), Duration.ofMinutes(1), 100);
+    }
+
+    @Test
+    void versionIsReadOnceThenServedFromMemory()
+    {
+        when(userRepository.findTokenVersionById(7L)).thenReturn(Optional.of(3L));
+
+        assertThat(registry.isCurrent(7L, 3L)).isTrue();
+        assertThat(registry.isCurrent(7L, 2L)).isFalse();
+
+        verify(userRepository, times(1)).findTokenVersionById(7L);
+    }
+
+    @Test
+    void versionIsReadAgainAfterItsTimeToLive() throws InterruptedException
+    {
+        registry = new TokenVersionRegistry(userRepository, new SimpleMeterRegistry(), Duration.ofMillis(20), 100);
+        when(userRepository.findTokenVersionById(7L)).thenReturn(Optional.of(0L), Optional.of(1L));
+
+        assertThat(registry.isCurrent(7L, 0L)).isTrue();
+        Thread.sleep(50);
+
+        // Version incrémentée par une autre instance
+        assertThat(registry.isCurrent(7L, 0L)).isFalse();
+    }
+
+    @Test
+    void updateInsideATransactionIsPublishedAfterTheCommit()
+    {
+        when(userRepository.findTokenVersionById(7L)).thenReturn(Optional.of(0L));
+        registry.isCurrent(7L, 0L);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try
+        {
+            registry.update(7L, 1L);
+
+            // Entrée retirée : la version est relue en base, encore 0 avant la validation
+            assertThat(registry.isCurrent(7L, 0L)).isTrue();
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        }
+        finally
+        {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(registry.isCurrent(7L, 0L)).isFalse();
+        assertThat(registry.isCurrent(7L, 1L)).isTrue();
+    }
+
+    @Test
+    void unknownUserHasNoCurrentVersion()
+    {
+        when(userRepository.findTokenVersionById(8L)).thenReturn(Optional.empty());
+
+        assertThat(registry.isCurrent(8L, 0L)).isFalse();
+    }
+}
@@ -0,0 +1,124 @@
+package com.openclassrooms.mddapi.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.openclassrooms.mddapi.event.CommentCreatedEvent;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+class CommentCounterServiceTest
+{
+    private JdbcTemplate jdbcTemplate;
+    private CommentCounterService counters;
+    private long nextCommentId;
+
+    @BeforeEach
+    void setUp()
+    {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        counters = new CommentCounterService(jdbcTemplate, mock(PlatformTransactionManager.class));
+    }
+
+    private void comment(long postId)
+    {
+        counters.onCommentCreated(new CommentCreatedEvent(++nextCommentId, postId, 1L, 1L, Instant.now(), "texte"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> flushedBatch()
+    {
+        ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), batch.capture());
+        return batch.getValue();
+    }
+
+    @Test
+    void flushSendsOneIncrementPerPostInPostIdOrder()
+    {
+        comment(7);
+        comment(3);
+        comment(7);
+        comment(7);
+
+        counters.flush();
+
+        List<Object[]> batch = flushedBatch();
+        assertThat(batch).hasSize(2);
+        assertThat(batch.get(0)).containsExactly(1L, 3L);
+        assertThat(batch.get(1)).containsExactly(3L, 7L);
+    }
+
+    @Test
+    void pendingCountCoversIncrementsNotYetFlushed()
+    {
+        comment(5);
+        comment(5);
+
+        assertThat(counters.pendingCount(5L)).isEqualTo(2L);
+        assertThat(counters.pendingCount(6L)).isEqualTo(0L);
+
+        counters.flush();
+
+        assertThat(counters.pendingCount(5L)).isEqualTo(0L);
+    }
+
+    @Test
+    void flushWithoutNewCommentsDoesNotTouchTheDatabase()
+    {
+        counters.flush();
+
+        comment(1);
+        counters.flush();
+        reset(jdbcTemplate);
+
+        // Compteur inactif : retiré de la table puis relu une dernière fois, sans incrément
+        counters.flush();
+        counters.flush();
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void failedFlushKeepsIncrementsForTheNextOne()
+    {
+        comment(4);
+        comment(4);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("base indisponible"));
+
+        assertThatThrownBy(counters::flush).isInstanceOf(DataAccessResourceFailureException.class);
+        assertThat(counters.pendingCount(4L)).isEqualTo(2L);
+
+        reset(jdbcTemplate);
+        comment(4);
+        counters.flush();
+
+        List<Object[]> batch = flushedBatch();
+        assertThat(batch).hasSize(1);
+        assertThat(batch.get(0)).containsExactly(3L, 4L);
+    }
+
+    @Test
+    void shutdownFlushesRemainingIncrements()
+    {
+        comment(9);
+
+        counters.destroy();
+
+        assertThat(flushedBatch().get(0)).containsExactly(1L, 9L);
+    }
+}
@@ -0,0 +1,127 @@
+package com.openclassrooms.mddapi.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.openclassrooms.mddapi.event.CommentCreatedEvent;
+import com.openclassrooms.mddapi.event.PostCreatedEvent;
+import com.openclassrooms.mddapi.event.SubscriptionChangedEvent;
+import java.time.Duration;
+import java.time.Instant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+class ContentVersionServiceTest
+{
+    private ContentVersionService versions;
+
+    @BeforeEach
+    void setUp()
+    {
+        versions = new ContentVersionService();
+        ReflectionTestUtils.setField(versions, "maxStaleness", Duration.ZERO);
+    }
+
+    @Test
+    void etagsAreStableWithoutWrites()
+    {
+        assertThat(versions.postsEtag("full")).isEqualTo(versions.postsEtag("full"));
+        assertThat(versions.postEtag(1L, "c")).isEqualTo(versions.postEtag(1L, "c"));
+        assertThat(versions.topicsEtag(7L)).isEqualTo(versions.topicsEtag(7L));
+        assertThat(versions.postsEtag("full")).isNotEqualTo(versions.postsEtag("excerpt"));
+    }
+
+    @Test
+    void newPostChangesTheListOnly()
+    {
+        String list = versions.postsEtag("full");
+        String post = versions.postEtag(1L, "c");
+
+        versions.onPostCreated(new PostCreatedEvent(2L, 1L, 7L, Instant.now(), "Titre", "Contenu"));
+
+        assertThat(versions.postsEtag("full")).isNotEqualTo(list);
+        assertThat(versions.postEtag(1L, "c")).isEqualTo(post);
+    }
+
+    @Test
+    void newCommentChangesItsPostAndTheList()
+    {
+        String list = versions.postsEtag("full");
+        String commented = versions.postEtag(1L, "c");
+        String other = versions.postEtag(2L, "c");
+
+        versions.onCommentCreated(new CommentCreatedEvent(10L, 1L, 1L, 7L, Instant.now(), "Merci"));
+
+        assertThat(versions.postsEtag("full")).isNotEqualTo(list);
+        assertThat(versions.postEtag(1L, "c")).isNotEqualTo(commented);
+        assertThat(versions.postEtag(2L, "c")).isEqualTo(other);
+    }
+
+    @Test
+    void subscriptionChangesTheTopicsOfThatUserOnly()
+    {
+        String alice = versions.topicsEtag(7L);
+        String bob = versions.topicsEtag(8L);
+        String anonymous = versions.topicsEtag(null);
+
+        versions.onSubscriptionChanged(new SubscriptionChangedEvent(7L, 1L, true));
+
+        assertThat(versions.topicsEtag(7L)).isNotEqualTo(alice);
+        assertThat(versions.topicsEtag(8L)).isEqualTo(bob);
+        assertThat(versions.topicsEtag(null)).isEqualTo(anonymous);
+    }
+
+    @Test
+    void allChangedOutsideATransactionChangesEveryEtagAtOnce()
+    {
+        String topics = versions.topicsEtag(null);
+        String list = versions.postsEtag("full");
+        String post = versions.postEtag(1L, "c");
+
+        versions.allChanged();
+
+        assertThat(versions.topicsEtag(null)).isNotEqualTo(topics);
+        assertThat(versions.postsEtag("full")).isNotEqualTo(list);
+        assertThat(versions.postEtag(1L, "c")).isNotEqualTo(post);
+    }
+
+    @Test
+    void changesInsideATransactionWaitForTheCommit()
+    {
+        String topics = versions.topicsEtag(null);
+        String list = versions.postsEtag("full");
+
+        TransactionSynchronizationManager.initSynchronization();
+        try
+        {
+            versions.topicCreated();
+            versions.allChanged();
+
+            // Une lecture concurrente pendant la transaction voit encore l'ancienne version
+            assertThat(versions.topicsEtag(null)).isEqualTo(topics);
+            assertThat(versions.postsEtag("full")).isEqualTo(list);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        }
+        finally
+        {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(versions.topicsEtag(null)).isNotEqualTo(topics);
+        assertThat(versions.postsEtag("full")).isNotEqualTo(list);
+    }
+
+    @Test
+    void etagsExpireWithTheStalenessWindow() throws InterruptedException
+    {
+        ReflectionTestUtils.setField(versions, "maxStaleness", Duration.ofMillis(1));
+        String list = versions.postsEtag("full");
+
+        Thread.sleep(5);
+
+        assertThat(versions.postsEtag("full")).isNotEqualTo(list);
+    }
+}
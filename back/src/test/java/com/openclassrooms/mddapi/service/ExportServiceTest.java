@@ -0,0 +1,124 @@
+package com.openclassrooms.mddapi.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.mddapi.repository.CommentRepository;
+import com.openclassrooms.mddapi.repository.PostRepository;
+import com.openclassrooms.mddapi.repository.UserRepository;
+import com.openclassrooms.mddapi.repository.projection.CommentSummary;
+import com.openclassrooms.mddapi.repository.projection.PostSummary;
+import com.openclassrooms.mddapi.repository.projection.SubscriptionSummary;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ExportServiceTest
+{
+    private static final Instant DATE = Instant.parse("2024-01-31T10:15:30Z");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ExportService exportService;
+
+    @BeforeEach
+    void setUp()
+    {
+        PostRepository postRepository = mock(PostRepository.class);
+        CommentRepository commentRepository = mock(CommentRepository.class);
+        UserRepository userRepository = mock(UserRepository.class);
+
+        when(postRepository.streamAllSummaries()).thenReturn(Stream.of(post(1), post(2), post(4)));
+        // Triés par post ; le post 3 a été supprimé, le post 5 est postérieur au dernier post lu
+        when(commentRepository.streamAllSummariesByPost()).thenReturn(Stream.of(
+                comment(10, 1), comment(11, 1), comment(12, 3), comment(13, 4), comment(14, 5)));
+        when(userRepository.streamAllSubscriptions()).thenReturn(Stream.of(
+                new SubscriptionSummary(7L, "alice", 2L, "Java")));
+
+        exportService = new ExportService(postRepository, commentRepository, userRepository, objectMapper);
+    }
+
+    private static PostSummary post(long id)
+    {
+        return new PostSummary(id, "Titre " + id, "Contenu " + id, "Contenu " + id, 2L, "Java", 7L, "alice", DATE, 0);
+    }
+
+    private static CommentSummary comment(long id, long postId)
+    {
+        return new CommentSummary(id, "Commentaire " + id, postId, 8L, "bob", DATE);
+    }
+
+    private List<JsonNode> parseLines(String ndjson) throws IOException
+    {
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : ndjson.split("\n"))
+        {
+            lines.add(objectMapper.readTree(line));
+        }
+        return lines;
+    }
+
+    private static List<Long> commentIds(JsonNode post)
+    {
+        List<Long> ids = new ArrayList<>();
+        post.get("comments").forEach(comment -> ids.add(comment.get("id").asLong()));
+        return ids;
+    }
+
+    @Test
+    void commentsAreMergedIntoTheirPostLine() throws IOException
+    {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        long count = exportService.export(output, false);
+
+        List<JsonNode> lines = parseLines(output.toString(StandardCharsets.UTF_8));
+        assertThat(count).isEqualTo(4L);
+        assertThat(lines).hasSize(4);
+
+        assertThat(lines.get(0).get("id").asLong()).isEqualTo(1L);
+        assertThat(commentIds(lines.get(0))).containsExactly(10L, 11L);
+        assertThat(commentIds(lines.get(1))).isEmpty();
+        assertThat(lines.get(2).get("id").asLong()).isEqualTo(4L);
+        assertThat(commentIds(lines.get(2))).containsExactly(13L);
+
+        JsonNode first = lines.get(0);
+        assertThat(first.get("type").asText()).isEqualTo("post");
+        assertThat(first.get("content").asText()).isEqualTo("Contenu 1");
+        assertThat(first.get("createdAt").asText()).isEqualTo("2024-01-31T10:15:30Z");
+        assertThat(first.get("comments").get(0).get("author").asText()).isEqualTo("bob");
+
+        JsonNode subscription = lines.get(3);
+        assertThat(subscription.get("type").asText()).isEqualTo("subscription");
+        assertThat(subscription.get("username").asText()).isEqualTo("alice");
+        assertThat(subscription.get("topicId").asLong()).isEqualTo(2L);
+    }
+
+    @Test
+    void gzipExportDecompressesToTheSameLines() throws IOException
+    {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        long count = exportService.export(output, true);
+
+        byte[] decompressed;
+        try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(output.toByteArray())))
+        {
+            decompressed = input.readAllBytes();
+        }
+        List<JsonNode> lines = parseLines(new String(decompressed, StandardCharsets.UTF_8));
+        assertThat(count).isEqualTo(4L);
+        assertThat(lines).hasSize(4);
+        assertThat(commentIds(lines.get(0))).containsExactly(10L, 11L);
+    }
+}
@@ -0,0 +1,147 @@
+package com.openclassrooms.mddapi.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+class FeedConnectionTest
+{
+    /**
+     * Réponse SSE qui enregistre les envois au lieu d'écrire sur le réseau.
+     */
+    private static class RecordingEmitter extends SseEmitter
+    {
+        private final List<Set<DataWithMediaType>> sent = new ArrayList<>();
+        private int completions;
+        private boolean failing;
+        private Runnable onSend = () -> { };
+
+        @Override
+        public void send(Set<DataWithMediaType> items) throws IOException
+        {
+            if (failing)
+            {
+                throw new IOException("Broken pipe");
+            }
+            sent.add(items);
+            onSend.run();
+        }
+
+        @Override
+        public void complete()
+        {
+            completions++;
+        }
+    }
+
+    private final RecordingEmitter emitter = new RecordingEmitter();
+
+    private static Set<DataWithMediaType> event(String data)
+    {
+        return SseEmitter.event().name("post").data(data).build();
+    }
+
+    @Test
+    void flushSendsBufferedEventsInOrder()
+    {
+        FeedConnection connection = new FeedConnection(1L, emitter, 8);
+        Set<DataWithMediaType> first = event("1");
+        Set<DataWithMediaType> second = event("2");
+        Set<DataWithMediaType> third = event("3");
+
+        connection.offer(first);
+        connection.offer(second);
+        connection.offer(third);
+        connection.flush(Runnable::run);
+
+        assertThat(emitter.sent).containsExactly(first, second, third);
+    }
+
+    @Test
+    void fullBufferRefusesNewEvents()
+    {
+        FeedConnection connection = new FeedConnection(1L, emitter, 2);
+
+        assertThat(connection.offer(event("1"))).isTrue();
+        assertThat(connection.offer(event("2"))).isTrue();
+        assertThat(connection.offer(event("3"))).isFalse();
+    }
+
+    @Test
+    void onlyOneSendIsScheduledAtATime()
+    {
+        FeedConnection connection = new FeedConnection(1L, emitter, 8);
+        List<Runnable> scheduled = new ArrayList<>();
+
+        connection.offer(event("1"));
+        connection.flush(scheduled::add);
+        connection.offer(event("2"));
+        connection.flush(scheduled::add);
+
+        assertThat(scheduled).hasSize(1);
+        scheduled.get(0).run();
+        assertThat(emitter.sent).hasSize(2);
+
+        // Tampon vidé : un nouvel événement planifie un nouvel envoi
+        connection.offer(event("3"));
+        connection.flush(scheduled::add);
+        assertThat(scheduled).hasSize(2);
+    }
+
+    @Test
+    void eventOfferedDuringASendIsSentByTheSameTask()
+    {
+        FeedConnection connection = new FeedConnection(1L, emitter, 8);
+        Set<DataWithMediaType> late = event("tard");
+        List<Runnable> scheduled = new ArrayList<>();
+        emitter.onSend = () ->
+        {
+            emitter.onSend = () -> { };
+            connection.offer(late);
+            connection.flush(scheduled::add);
+        };
+
+        connection.offer(event("1"));
+        connection.flush(Runnable::run);
+
+        assertThat(emitter.sent).hasSize(2);
+        assertThat(emitter.sent.get(1)).isEqualTo(late);
+        assertThat(scheduled).isEmpty();
+    }
+
+    @Test
+    void failedSendDiscardsTheConnectionWithoutCompletingIt()
+    {
+        FeedConnection connection = new FeedConnection(1L, emitter, 8);
+        emitter.failing = true;
+
+        connection.offer(event("1"));
+        connection.offer(event("2"));
+        connection.flush(Runnable::run);
+
+        assertThat(connection.isClosed()).isTrue();
+        assertThat(connection.offer(event("3"))).isFalse();
+        assertThat(emitter.completions).isEqualTo(0);
+    }
+
+    @Test
+    void closeCompletesTheResponseOnce()
+    {
+        FeedConnection connection = new FeedConnection(1L, emitter, 8);
+        connection.offer(event("1"));
+
+        connection.close();
+        connection.close();
+        connection.flush(Runnable::run);
+
+        assertThat(emitter.completions).isEqualTo(1);
+        assertThat(emitter.sent).isEmpty();
+        assertThat(connection.offer(event("2"))).isFalse();
+    }
+}
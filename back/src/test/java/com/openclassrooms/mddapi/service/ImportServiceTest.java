@@ -0,0 +1,178 @@
+package com.openclassrooms.mddapi.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.mddapi.dto.ImportReport;
+import com.openclassrooms.mddapi.entity.Topic;
+import com.openclassrooms.mddapi.entity.User;
+import com.openclassrooms.mddapi.repository.PostRepository;
+import com.openclassrooms.mddapi.repository.TopicRepository;
+import com.openclassrooms.mddapi.repository.UserRepository;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+class ImportServiceTest
+{
+    private static final String INSERT_POSTS = "INSERT INTO posts";
+    private static final String INSERT_COMMENTS = "INSERT INTO comments";
+
+    private JdbcTemplate jdbcTemplate;
+    private SearchService searchService;
+    private TimelineService timelineService;
+    private ContentVersionService contentVersionService;
+    private ImportService importService;
+
+    @BeforeEach
+    void setUp()
+    {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        TopicRepository topicRepository = mock(TopicRepository.class);
+        UserRepository userRepository = mock(UserRepository.class);
+        searchService = mock(SearchService.class);
+        timelineService = mock(TimelineService.class);
+        contentVersionService = mock(ContentVersionService.class);
+
+        Topic topic = new Topic();
+        topic.setId(5L);
+        topic.setTitle("Java");
+        when(topicRepository.findAll()).thenReturn(List.of(topic));
+
+        User alice = new User();
+        alice.setId(7L);
+        alice.setUsername("alice");
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(alice));
+        when(userRepository.findByUsername("mallory")).thenReturn(Optional.empty());
+
+        // Blocs d'identifiants : posts à partir de 100 puis de 200, commentaires à partir de 1
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), eq("posts"))).thenReturn(100L, 200L);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), eq("comments"))).thenReturn(1L, 3L);
+
+        importService = new ImportService(jdbcTemplate, mock(PlatformTransactionManager.class), topicRepository,
+                userRepository, mock(PostRepository.class), searchService, timelineService, contentVersionService,
+                new ObjectMapper());
+        ReflectionTestUtils.setField(importService, "batchSize", 2);
+    }
+
+    private ImportReport importLines(String... lines) throws IOException
+    {
+        byte[] input = String.join("\n", lines).getBytes(StandardCharsets.UTF_8);
+        return importService.importNdjson(new ByteArrayInputStream(input));
+    }
+
+    private static String post(String ref)
+    {
+        return "{\"type\":\"post\",\"ref\":\"" + ref + "\",\"topic\":\"java\",\"author\":\"alice\","
+                + "\"title\":\"Titre " + ref + "\",\"content\":\"Contenu\",\"createdAt\":\"2024-01-31T10:15:30Z\"}";
+    }
+
+    private static String comment(String postRef)
+    {
+        return "{\"type\":\"comment\",\"postRef\":\"" + postRef + "\",\"author\":\"alice\",\"content\":\"Merci\"}";
+    }
+
+    private static List<Object> ids(List<Object[]> increments)
+    {
+        List<Object> postIds = new ArrayList<>();
+        increments.forEach(row -> postIds.add(row[1]));
+        return postIds;
+    }
+
+    @Test
+    void idsAreTakenFromReservedBlocksAndRowsAreInsertedInBatches() throws IOException
+    {
+        ImportReport report = importLines(post("a"), post("b"), post("c"), comment("a"), comment("b"), comment("c"));
+
+        assertThat(report.getPosts()).isEqualTo(3L);
+        assertThat(report.getComments()).isEqualTo(3L);
+        assertThat(report.getRejected()).isEqualTo(0L);
+
+        // Deux blocs de deux identifiants de posts, deux blocs de commentaires
+        verify(jdbcTemplate, times(2)).update(anyString(), eq(2), eq("posts"));
+        verify(jdbcTemplate, times(2)).update(anyString(), eq(2), eq("comments"));
+
+        // Lots de deux lignes au plus
+        verify(jdbcTemplate).batchUpdate(startsWith(INSERT_POSTS), argThat(rows -> rows.size() == 2), eq(2), any());
+        verify(jdbcTemplate).batchUpdate(startsWith(INSERT_POSTS), argThat(rows -> rows.size() == 1), eq(1), any());
+        verify(jdbcTemplate, times(2)).batchUpdate(startsWith(INSERT_COMMENTS), anyCollection(), anyInt(), any());
+
+        // Les commentaires désignent les identifiants attribués aux posts de l'import
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> increments = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(startsWith("UPDATE posts"), increments.capture());
+        assertThat(ids(increments.getAllValues().get(0))).containsExactly(100L, 101L);
+        assertThat(ids(increments.getAllValues().get(1))).containsExactly(200L);
+
+        verify(searchService).rebuild();
+        verify(timelineService).clear();
+        verify(contentVersionService).allChanged();
+    }
+
+    @Test
+    void invalidLinesAreRejectedWithoutStoppingTheImport() throws IOException
+    {
+        ImportReport report = importLines(
+                "pas du json",
+                "{\"type\":\"video\"}",
+                "{\"type\":\"post\",\"topic\":\"java\",\"author\":\"alice\",\"content\":\"sans titre\"}",
+                "{\"type\":\"post\",\"topic\":\"rust\",\"author\":\"alice\",\"title\":\"t\",\"content\":\"c\"}",
+                "{\"type\":\"post\",\"topic\":\"java\",\"author\":\"mallory\",\"title\":\"t\",\"content\":\"c\"}",
+                "",
+                comment("inconnu"),
+                post("ok"));
+
+        assertThat(report.getPosts()).isEqualTo(1L);
+        assertThat(report.getRejected()).isEqualTo(6L);
+        assertThat(report.getErrors()).hasSize(6);
+        assertThat(report.getErrors().get(0)).startsWith("ligne 1 :");
+    }
+
+    @Test
+    void importWithoutRowsLeavesCachesAlone() throws IOException
+    {
+        ImportReport report = importLines("{\"type\":\"video\"}");
+
+        assertThat(report.getRejected()).isEqualTo(1L);
+        verify(searchService, never()).rebuild();
+        verify(contentVersionService, never()).allChanged();
+    }
+
+    @Test
+    void rejectedPostBatchIsDroppedWithTheCommentsReferencingIt() throws IOException
+    {
+        when(jdbcTemplate.batchUpdate(startsWith(INSERT_POSTS), anyCollection(), anyInt(), any()))
+                .thenThrow(new DataIntegrityViolationException("doublon"));
+
+        ImportReport report = importLines(post("a"), post("b"), comment("a"));
+
+        assertThat(report.getPosts()).isEqualTo(0L);
+        assertThat(report.getComments()).isEqualTo(0L);
+        assertThat(report.getRejected()).isEqualTo(3L);
+        assertThat(report.getErrors().get(0)).contains("lignes 1 à 2");
+        verify(jdbcTemplate, never()).batchUpdate(startsWith("UPDATE posts"), anyList());
+    }
+}
@@ -0,0 +1,96 @@
+package com.openclassrooms.mddapi.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class SearchIndexTest
+{
+    @Test
+    void emptyIndexOrStopWordQueryFindsNothing()
+    {
+        SearchIndex index = new SearchIndex();
+
+        assertThat(index.search("spring", 10).totalHits()).isEqualTo(0);
+
+        index.addPost(1, "Spring Boot", "guide complet");
+        assertThat(index.search("le la les", 10).postIds()).isEmpty();
+        assertThat(index.search("angular", 10).totalHits()).isEqualTo(0);
+    }
+
+    @Test
+    void searchIgnoresCaseAccentsAndPlurals()
+    {
+        SearchIndex index = new SearchIndex();
+        index.addPost(1, "Offres pour Développeurs", "Plusieurs postes ouverts");
+
+        assertThat(index.search("developpeur", 10).postIds()).containsExactly(1);
+        assertThat(index.search("POSTE", 10).postIds()).containsExactly(1);
+    }
+
+    @Test
+    void titleMatchesRankAboveContentMatches()
+    {
+        SearchIndex index = new SearchIndex();
+        index.addPost(1, "Guide complet", "spring boot");
+        index.addPost(2, "Spring Boot", "guide complet");
+
+        assertThat(index.search("spring", 10).postIds()).containsExactly(2, 1);
+    }
+
+    @Test
+    void postsAreFoundThroughTheirCommentsWithALowerWeight()
+    {
+        SearchIndex index = new SearchIndex();
+        index.addPost(1, "Spring Boot", "guide complet");
+        index.addPost(2, "Java", "langage");
+        index.addComment(10, 2, "spring");
+
+        SearchIndex.Result result = index.search("spring", 10);
+
+        assertThat(result.postIds()).containsExactly(1, 2);
+        assertThat(result.totalHits()).isEqualTo(2);
+    }
+
+    @Test
+    void limitCapsTheResultsButNotTheTotal()
+    {
+        SearchIndex index = new SearchIndex();
+        for (long id = 1; id <= 5; id++)
+        {
+            index.addPost(id, "Kotlin", "article " + id);
+        }
+
+        SearchIndex.Result result = index.search("kotlin", 2);
+
+        assertThat(result.postIds()).hasSize(2);
+        assertThat(result.totalHits()).isEqualTo(5);
+    }
+
+    @Test
+    void alreadyIndexedDocumentsAreIgnored()
+    {
+        SearchIndex index = new SearchIndex();
+        index.addPost(1, "Spring", "boot");
+        index.addPost(1, "Spring", "boot");
+        index.addComment(10, 1, "merci");
+        index.addComment(10, 1, "merci");
+
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    void indexGrowsBeyondItsInitialCapacity()
+    {
+        SearchIndex index = new SearchIndex();
+        for (long id = 1; id <= 3000; id++)
+        {
+            index.addPost(id, "post " + id, "contenu");
+        }
+        index.addPost(3001, "Rust", "contenu");
+
+        assertThat(index.size()).isEqualTo(3001);
+        assertThat(index.search("rust", 10).postIds()).containsExactly(3001);
+        assertThat(index.search("contenu", 10).totalHits()).isEqualTo(3001);
+    }
+}
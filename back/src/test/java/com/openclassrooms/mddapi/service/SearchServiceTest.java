@@ -0,0 +1,100 @@
+package com.openclassrooms.mddapi.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.openclassrooms.mddapi.event.PostCreatedEvent;
+import com.openclassrooms.mddapi.repository.CommentRepository;
+import com.openclassrooms.mddapi.repository.PostRepository;
+import com.openclassrooms.mddapi.repository.projection.PostSummary;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+class SearchServiceTest
+{
+    private PostRepository postRepository;
+    private SearchService searchService;
+
+    @BeforeEach
+    void setUp()
+    {
+        postRepository = mock(PostRepository.class);
+        CommentRepository commentRepository = mock(CommentRepository.class);
+        PostService postService = mock(PostService.class);
+        when(commentRepository.streamAllSummaries()).thenAnswer(invocation -> Stream.empty());
+        when(postService.getPostsByIds(any())).thenReturn(List.of());
+
+        searchService = new SearchService(postRepository, commentRepository, postService);
+    }
+
+    private static PostSummary post(long id, String title)
+    {
+        return new PostSummary(id, title, title, title, 1L, "Topic", 7L, "alice", Instant.now(), 0);
+    }
+
+    private static PostCreatedEvent created(long id, String title)
+    {
+        return new PostCreatedEvent(id, 1L, 7L, Instant.now(), title, title);
+    }
+
+    private int hits(String query)
+    {
+        return searchService.search(query, null).getTotal();
+    }
+
+    @Test
+    void postsCreatedDuringARebuildAreKeptInTheNewIndex()
+    {
+        when(postRepository.streamAllSummaries()).thenAnswer(invocation -> Stream.of(post(1, "java"))
+                .peek(post -> searchService.onPostCreated(created(2, "kotlin"))));
+
+        searchService.rebuild();
+
+        assertThat(hits("java")).isEqualTo(1);
+        assertThat(hits("kotlin")).isEqualTo(1);
+    }
+
+    @Test
+    void overlappingRebuildsKeepTheIndexReadLast()
+    {
+        // La reconstruction du démarrage lit la base avant un import ; celle de l'import
+        // se termine pendant la première, et un post est créé entre les deux
+        when(postRepository.streamAllSummaries())
+                .thenAnswer(invocation -> Stream.of(post(1, "java")).peek(post ->
+                {
+                    searchService.onPostCreated(created(2, "kotlin"));
+                    searchService.rebuild();
+                    searchService.onPostCreated(created(4, "scala"));
+                }))
+                .thenAnswer(invocation -> Stream.of(post(1, "java"), post(2, "kotlin"), post(3, "rust")));
+
+        searchService.rebuild();
+
+        assertThat(hits("java")).isEqualTo(1);
+        assertThat(hits("kotlin")).isEqualTo(1);
+        assertThat(hits("rust")).isEqualTo(1);
+        assertThat(hits("scala")).isEqualTo(1);
+    }
+
+    @Test
+    void failedRebuildKeepsTheCurrentIndex()
+    {
+        when(postRepository.streamAllSummaries())
+                .thenAnswer(invocation -> Stream.of(post(1, "java")))
+                .thenThrow(new DataAccessResourceFailureException("base indisponible"));
+        searchService.rebuild();
+
+        assertThatThrownBy(searchService::rebuild).isInstanceOf(DataAccessResourceFailureException.class);
+        searchService.onPostCreated(created(2, "kotlin"));
+
+        assertThat(hits("java")).isEqualTo(1);
+        assertThat(hits("kotlin")).isEqualTo(1);
+    }
+}
@@ -0,0 +1,112 @@
+package com.openclassrooms.mddapi.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.openclassrooms.mddapi.entity.Topic;
+import com.openclassrooms.mddapi.entity.User;
+import com.openclassrooms.mddapi.repository.TopicRepository;
+import com.openclassrooms.mddapi.repository.UserRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Les abonnements restent idempotents avec la clé unique {@code (user_id, topic_id)} de V6.
+ */
+@SpringBootTest
+class SubscriptionServiceTest
+{
+    @Autowired
+    private SubscriptionService subscriptionService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TopicRepository topicRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long userId;
+    private Long topicId;
+
+    @BeforeEach
+    void setUp()
+    {
+        String name = "sub" + UUID.randomUUID().toString().substring(0, 8);
+        User user = new User();
+        user.setEmail(name + "@example.com");
+        user.setUsername(name);
+        user.setPassword("x");
+        userId = userRepository.save(user).getId();
+
+        Topic topic = new Topic();
+        topic.setTitle("Topic " + name);
+        topicId = topicRepository.save(topic).getId();
+    }
+
+    private int rows()
+    {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM subscriptions WHERE user_id = ? AND topic_id = ?",
+                Integer.class, userId, topicId);
+    }
+
+    @Test
+    void subscribingTwiceKeepsASingleRow()
+    {
+        assertThat(subscriptionService.subscribe(userId, topicId)).isTrue();
+        assertThat(subscriptionService.subscribe(userId, topicId)).isFalse();
+
+        assertThat(rows()).isEqualTo(1);
+    }
+
+    @Test
+    void unsubscribingTwiceRemovesTheRowOnce()
+    {
+        subscriptionService.subscribe(userId, topicId);
+
+        assertThat(subscriptionService.unsubscribe(userId, topicId)).isTrue();
+        assertThat(subscriptionService.unsubscribe(userId, topicId)).isFalse();
+
+        assertThat(rows()).isZero();
+        assertThat(subscriptionService.subscribe(userId, topicId)).isTrue();
+        assertThat(rows()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentSubscriptionsCreateASingleRow() throws Exception
+    {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            List<Callable<Boolean>> calls = new ArrayList<>();
+            for (int i = 0; i < 8; i++)
+            {
+                calls.add(() -> subscriptionService.subscribe(userId, topicId));
+            }
+
+            int created = 0;
+            for (Future<Boolean> result : executor.invokeAll(calls))
+            {
+                created += result.get() ? 1 : 0;
+            }
+
+            assertThat(created).isEqualTo(1);
+            assertThat(rows()).isEqualTo(1);
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+}
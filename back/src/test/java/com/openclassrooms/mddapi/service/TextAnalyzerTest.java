@@ -0,0 +1,67 @@
+package com.openclassrooms.mddapi.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class TextAnalyzerTest
+{
+    @Test
+    void accentsAndCaseAreFolded()
+    {
+        assertThat(TextAnalyzer.fold("Développeur À Noël")).isEqualTo("developpeur a noel");
+        assertThat(TextAnalyzer.fold("Cœur ÆTHER")).isEqualTo("coeur aether");
+    }
+
+    @Test
+    void elisionsAreSplitAndIsolatedLettersDropped()
+    {
+        assertThat(TextAnalyzer.analyze("l'API d'un site")).containsExactly("api", "site");
+    }
+
+    @Test
+    void frenchStopWordsAreRemoved()
+    {
+        assertThat(TextAnalyzer.analyze("Le chat et la souris")).isEqualTo(TextAnalyzer.analyze("chats souris"));
+        assertThat(TextAnalyzer.analyze("de la et pour que")).isEmpty();
+    }
+
+    @Test
+    void numbersAreKeptEvenWhenShort()
+    {
+        assertThat(TextAnalyzer.analyze("Java 21 et 5 ans")).containsExactly("java", "21", "5", "ans");
+    }
+
+    @Test
+    void pluralAndFeminineFormsShareAStem()
+    {
+        assertThat(TextAnalyzer.stem("articles")).isEqualTo("articl");
+        assertThat(TextAnalyzer.stem("article")).isEqualTo("articl");
+        assertThat(TextAnalyzer.stem("journaux")).isEqualTo("journal");
+        assertThat(TextAnalyzer.stem("grandes")).isEqualTo(TextAnalyzer.stem("grand"));
+        assertThat(TextAnalyzer.stem("nouvelle")).isEqualTo(TextAnalyzer.stem("nouvel"));
+        assertThat(TextAnalyzer.analyze("Développeurs")).isEqualTo(TextAnalyzer.analyze("développeur"));
+    }
+
+    @Test
+    void shortWordsAreNotStemmed()
+    {
+        assertThat(TextAnalyzer.stem("java")).isEqualTo("java");
+        assertThat(TextAnalyzer.stem("bus")).isEqualTo("bus");
+    }
+
+    @Test
+    void longTermsAreTruncated()
+    {
+        assertThat(TextAnalyzer.analyze("z".repeat(100))).hasSize(1);
+        assertThat(TextAnalyzer.analyze("z".repeat(100)).get(0).length()).isLessThan(41);
+    }
+
+    @Test
+    void emptyTextHasNoTerms()
+    {
+        assertThat(TextAnalyzer.analyze(null)).isEmpty();
+        assertThat(TextAnalyzer.analyze("")).isEmpty();
+        assertThat(TextAnalyzer.analyze(" ,;!? ")).isEmpty();
+    }
+}
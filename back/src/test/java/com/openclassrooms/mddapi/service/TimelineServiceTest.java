@@ -0,0 +1,158 @@
+package com.openclassrooms.mddapi.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.openclassrooms.mddapi.event.PostCreatedEvent;
+import com.openclassrooms.mddapi.event.SubscriptionChangedEvent;
+import com.openclassrooms.mddapi.repository.PostRepository;
+import com.openclassrooms.mddapi.repository.UserRepository;
+import com.openclassrooms.mddapi.repository.projection.TimelineEntry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class TimelineServiceTest
+{
+    private static final Instant BASE = Instant.parse("2024-01-01T00:00:00Z");
+    private static final Long USER = 7L;
+
+    private PostRepository postRepository;
+    private UserRepository userRepository;
+    private TimelineService timelineService;
+
+    @BeforeEach
+    void setUp()
+    {
+        postRepository = mock(PostRepository.class);
+        userRepository = mock(UserRepository.class);
+        when(userRepository.findSubscriberIdsByTopicId(any())).thenReturn(List.of(USER));
+
+        timelineService = new TimelineService(postRepository, userRepository);
+        configure(Duration.ofMinutes(5));
+    }
+
+    private void configure(Duration ttl)
+    {
+        ReflectionTestUtils.setField(timelineService, "enabled", true);
+        ReflectionTestUtils.setField(timelineService, "capacity", 10);
+        ReflectionTestUtils.setField(timelineService, "maxUsers", 100);
+        ReflectionTestUtils.setField(timelineService, "ttl", ttl);
+        timelineService.init();
+    }
+
+    private static TimelineEntry entry(long postId, long seconds, long topicId)
+    {
+        return new TimelineEntry(postId, BASE.plusSeconds(seconds), topicId);
+    }
+
+    private static PostCreatedEvent created(long postId, long seconds, long topicId)
+    {
+        return new PostCreatedEvent(postId, topicId, 1L, BASE.plusSeconds(seconds), "Titre", "Contenu");
+    }
+
+    private long[] firstPage()
+    {
+        return timelineService.readPage(USER, null, 10);
+    }
+
+    @Test
+    void timelineIsLoadedOnceThenServedFromMemory()
+    {
+        when(postRepository.findFeedEntries(eq(USER), any(Pageable.class)))
+                .thenReturn(List.of(entry(2, 2, 1), entry(1, 1, 1)));
+
+        assertThat(firstPage()).containsExactly(2, 1);
+        timelineService.onPostCreated(created(3, 3, 1));
+
+        assertThat(firstPage()).containsExactly(3, 2, 1);
+        verify(postRepository, times(1)).findFeedEntries(eq(USER), any(Pageable.class));
+    }
+
+    @Test
+    void postCommittedWhileTheTimelineLoadsIsNotLost()
+    {
+        when(postRepository.findFeedEntries(eq(USER), any(Pageable.class))).thenAnswer(invocation ->
+        {
+            // Validé après la lecture en base, avant l'enregistrement du fil
+            timelineService.onPostCreated(created(9, 9, 1));
+            return List.of(entry(1, 1, 1));
+        });
+
+        assertThat(firstPage()).containsExactly(9, 1);
+    }
+
+    @Test
+    void unsubscribeCommittedWhileTheTimelineLoadsIsApplied()
+    {
+        when(postRepository.findFeedEntries(eq(USER), any(Pageable.class))).thenAnswer(invocation ->
+        {
+            timelineService.onSubscriptionChanged(new SubscriptionChangedEvent(USER, 2L, false));
+            return List.of(entry(3, 3, 2), entry(2, 2, 1), entry(1, 1, 2));
+        });
+
+        assertThat(firstPage()).containsExactly(2);
+    }
+
+    @Test
+    void subscribeMergesTheTopicIntoALoadedTimeline()
+    {
+        when(postRepository.findFeedEntries(eq(USER), any(Pageable.class))).thenReturn(List.of(entry(2, 2, 1)));
+        when(postRepository.findTopicEntries(eq(5L), any(Pageable.class))).thenReturn(List.of(entry(4, 4, 5)));
+        firstPage();
+
+        timelineService.onSubscriptionChanged(new SubscriptionChangedEvent(USER, 5L, true));
+
+        assertThat(firstPage()).containsExactly(4, 2);
+    }
+
+    @Test
+    void timelineIsReloadedAfterItsTimeToLive() throws InterruptedException
+    {
+        configure(Duration.ofMillis(20));
+        when(postRepository.findFeedEntries(eq(USER), any(Pageable.class)))
+                .thenReturn(List.of(entry(1, 1, 1)))
+                // Post créé sur une autre instance, sans événement sur celle-ci
+                .thenReturn(List.of(entry(8, 8, 1), entry(1, 1, 1)));
+
+        assertThat(firstPage()).containsExactly(1);
+        Thread.sleep(50);
+
+        assertThat(firstPage()).containsExactly(8, 1);
+    }
+
+    @Test
+    void clearDuringALoadDoesNotKeepTheStaleTimeline()
+    {
+        when(postRepository.findFeedEntries(eq(USER), any(Pageable.class)))
+                .thenAnswer(invocation ->
+                {
+                    // Import en masse pendant la lecture en base
+                    timelineService.clear();
+                    return List.of(entry(1, 1, 1));
+                })
+                .thenReturn(List.of(entry(5, 5, 1), entry(1, 1, 1)));
+
+        assertThat(firstPage()).containsExactly(1);
+
+        assertThat(firstPage()).containsExactly(5, 1);
+    }
+
+    @Test
+    void pagesLargerThanTheCapacityAreReadFromTheDatabase()
+    {
+        assertThat(timelineService.readPage(USER, null, 11)).isNull();
+
+        ReflectionTestUtils.setField(timelineService, "enabled", false);
+        assertThat(firstPage()).isNull();
+    }
+}
@@ -0,0 +1,89 @@
+package com.openclassrooms.mddapi.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class TrendingBoardTest
+{
+    @Test
+    void postsAreRankedByDescendingScore()
+    {
+        TrendingBoard board = new TrendingBoard(10);
+
+        board.offer(1, 1.0);
+        board.offer(2, 3.0);
+        board.offer(3, 2.0);
+
+        assertThat(board.top(10)).containsExactly(2, 3, 1);
+        assertThat(board.top(2)).containsExactly(2, 3);
+    }
+
+    @Test
+    void equalScoresAreOrderedByDescendingPostId()
+    {
+        TrendingBoard board = new TrendingBoard(10);
+
+        board.offer(4, 1.0);
+        board.offer(9, 1.0);
+        board.offer(6, 1.0);
+
+        assertThat(board.top(10)).containsExactly(9, 6, 4);
+    }
+
+    @Test
+    void higherScoreMovesAMemberUp()
+    {
+        TrendingBoard board = new TrendingBoard(10);
+        board.offer(1, 1.0);
+        board.offer(2, 2.0);
+
+        board.offer(1, 5.0);
+
+        assertThat(board.top(10)).containsExactly(1, 2);
+    }
+
+    @Test
+    void lateLowerScoreIsIgnored()
+    {
+        TrendingBoard board = new TrendingBoard(10);
+        board.offer(1, 5.0);
+        board.offer(2, 3.0);
+
+        board.offer(1, 1.0);
+
+        assertThat(board.top(10)).containsExactly(1, 2);
+    }
+
+    @Test
+    void fullBoardEvictsItsLastMemberOnlyForABetterPost()
+    {
+        TrendingBoard board = new TrendingBoard(2);
+        board.offer(1, 2.0);
+        board.offer(2, 3.0);
+
+        board.offer(3, 1.0);
+        assertThat(board.top(10)).containsExactly(2, 1);
+
+        board.offer(4, 2.5);
+        assertThat(board.top(10)).containsExactly(2, 4);
+
+        // Le post évincé peut revenir avec un meilleur score
+        board.offer(1, 10.0);
+        assertThat(board.top(10)).containsExactly(1, 2);
+    }
+
+    @Test
+    void removedPostLeavesTheBoard()
+    {
+        TrendingBoard board = new TrendingBoard(2);
+        board.offer(1, 2.0);
+        board.offer(2, 3.0);
+
+        board.remove(2);
+        board.remove(42);
+        board.offer(3, 0.5);
+
+        assertThat(board.top(10)).containsExactly(1, 3);
+    }
+}
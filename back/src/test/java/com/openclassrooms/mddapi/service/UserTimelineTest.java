@@ -0,0 +1,160 @@
+package com.openclassrooms.mddapi.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.openclassrooms.mddapi.repository.projection.TimelineEntry;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class UserTimelineTest
+{
+    private static final Instant BASE = Instant.parse("2024-01-01T00:00:00Z");
+
+    private static Instant at(long seconds)
+    {
+        return BASE.plusSeconds(seconds);
+    }
+
+    private static TimelineEntry entry(long postId, long seconds, long topicId)
+    {
+        return new TimelineEntry(postId, at(seconds), topicId);
+    }
+
+    @Test
+    void newPostsAreReadNewestFirst()
+    {
+        UserTimeline timeline = new UserTimeline(10, List.of(), true);
+
+        timeline.add(1, at(1), 1);
+        timeline.add(2, at(2), 1);
+        timeline.add(3, at(3), 2);
+
+        assertThat(timeline.page(null, null, 10)).containsExactly(3, 2, 1);
+    }
+
+    @Test
+    void outOfOrderPostIsInsertedAtItsPlace()
+    {
+        UserTimeline timeline = new UserTimeline(10, List.of(entry(3, 3, 1), entry(1, 1, 1)), true);
+
+        timeline.add(2, at(2), 1);
+
+        assertThat(timeline.page(null, null, 10)).containsExactly(3, 2, 1);
+    }
+
+    @Test
+    void sameDateIsOrderedByPostId()
+    {
+        UserTimeline timeline = new UserTimeline(10, List.of(), true);
+
+        timeline.add(7, at(5), 1);
+        timeline.add(9, at(5), 1);
+        timeline.add(8, at(5), 1);
+
+        assertThat(timeline.page(null, null, 10)).containsExactly(9, 8, 7);
+    }
+
+    @Test
+    void duplicatePostIsIgnored()
+    {
+        UserTimeline timeline = new UserTimeline(10, List.of(entry(2, 2, 1), entry(1, 1, 1)), true);
+
+        timeline.add(2, at(2), 1);
+
+        assertThat(timeline.page(null, null, 10)).containsExactly(2, 1);
+    }
+
+    @Test
+    void pageAfterCursorStartsStrictlyAfterIt()
+    {
+        UserTimeline timeline = new UserTimeline(10,
+                List.of(entry(4, 4, 1), entry(3, 3, 1), entry(2, 2, 1), entry(1, 1, 1)), true);
+
+        assertThat(timeline.page(at(3), 3L, 2)).containsExactly(2, 1);
+        assertThat(timeline.page(at(1), 1L, 2)).isEmpty();
+    }
+
+    @Test
+    void fullBufferDropsOldestAndDefersBeyondItsEndToTheDatabase()
+    {
+        UserTimeline timeline = new UserTimeline(3, List.of(entry(3, 3, 1), entry(2, 2, 1), entry(1, 1, 1)), true);
+
+        timeline.add(4, at(4), 1);
+
+        assertThat(timeline.page(null, null, 3)).containsExactly(4, 3, 2);
+        assertThat(timeline.page(at(2), 2L, 1)).isNull();
+    }
+
+    @Test
+    void olderPostIsKeptOnlyWhenTheBufferIsComplete()
+    {
+        UserTimeline timeline = new UserTimeline(10, List.of(entry(3, 3, 1), entry(2, 2, 1)), true);
+
+        timeline.add(1, at(1), 1);
+
+        assertThat(timeline.page(null, null, 10)).containsExactly(3, 2, 1);
+    }
+
+    @Test
+    void olderPostIsDroppedWhenTheBufferIsIncomplete()
+    {
+        UserTimeline timeline = new UserTimeline(10, List.of(entry(3, 3, 1), entry(2, 2, 1)), false);
+
+        timeline.add(1, at(1), 1);
+
+        // La base peut contenir des posts entre 2 et 1 : la suite doit venir de la base
+        assertThat(timeline.page(null, null, 2)).containsExactly(3, 2);
+        assertThat(timeline.page(at(2), 2L, 1)).isNull();
+    }
+
+    @Test
+    void olderPostsAfterRemovingATopicFromAnIncompleteBufferAreNotServed()
+    {
+        UserTimeline timeline = new UserTimeline(10,
+                List.of(entry(4, 4, 2), entry(3, 3, 1), entry(2, 2, 2)), false);
+
+        timeline.removeTopic(2);
+        timeline.add(1, at(1), 1);
+
+        assertThat(timeline.page(null, null, 1)).containsExactly(3);
+        assertThat(timeline.page(null, null, 2)).isNull();
+    }
+
+    @Test
+    void removeTopicKeepsTheOrderOfTheOtherPosts()
+    {
+        UserTimeline timeline = new UserTimeline(4, List.of(), true);
+        for (long id = 1; id <= 6; id++)
+        {
+            // Le tampon circulaire fait le tour avant la suppression
+            timeline.add(id, at(id), id % 2);
+        }
+
+        timeline.removeTopic(0);
+        timeline.add(7, at(7), 1);
+
+        assertThat(timeline.page(null, null, 3)).containsExactly(7, 5, 3);
+        assertThat(timeline.page(null, null, 4)).isNull();
+    }
+
+    @Test
+    void mergeOfAPartialTopicMarksTheBufferIncomplete()
+    {
+        UserTimeline timeline = new UserTimeline(10, List.of(entry(4, 4, 1)), true);
+
+        timeline.merge(List.of(entry(5, 5, 2), entry(3, 3, 2)), false);
+
+        assertThat(timeline.page(null, null, 3)).containsExactly(5, 4, 3);
+        assertThat(timeline.page(null, null, 4)).isNull();
+    }
+
+    @Test
+    void constructorTruncatesToCapacity()
+    {
+        UserTimeline timeline = new UserTimeline(2, List.of(entry(3, 3, 1), entry(2, 2, 1), entry(1, 1, 1)), true);
+
+        assertThat(timeline.page(null, null, 2)).containsExactly(3, 2);
+        assertThat(timeline.page(null, null, 3)).isNull();
+    }
+}
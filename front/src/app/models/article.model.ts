@@ -3,7 +3,9 @@ import { Comment } from './comment.model';
 export interface Article {
   id: number;
   title: string;
-  content: string;
+  // Absent des listes (fil, recherche, tendances) : seul l'extrait y est envoyé
+  content?: string;
+  excerpt: string;
   authorId: number;
   authorName: string;
   topicId: number;
@@ -12,9 +14,15 @@ export interface Article {
 }
 
 export interface ArticleDetail extends Article {
+  content: string;
   comments?: Comment[];
 }
 
+export interface FeedPage {
+  posts: Article[];
+  nextCursor: string | null;
+}
+
 export interface CreateArticlePayload {
   topicId: number;
   title: string;
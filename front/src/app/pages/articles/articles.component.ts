@@ -1,7 +1,7 @@
 import { Component, OnInit, OnDestroy } from '@angular/core';
 import { Router } from '@angular/router';
-import { Subject } from 'rxjs';
-import { takeUntil, filter } from 'rxjs/operators';
+import { Observable, Subject, timer } from 'rxjs';
+import { takeUntil, filter, skip, repeat, retry, tap } from 'rxjs/operators';
 import { ApiService } from '../../services/api.service';
 import { Article } from '../../models';
 import { AuthService } from '../../services/auth.service';
@@ -17,6 +17,8 @@ export class ArticlesComponent implements OnInit, OnDestroy {
   articles: Article[] = [];
   sortBy: 'date' | 'title' | 'author' = 'date';
   sortOrder: 'asc' | 'desc' = 'desc'; // 'asc' pour ascendant, 'desc' pour descendant
+  nextCursor: string | null = null;
+  isLoading = false;
   private destroy$ = new Subject<void>();
 
   constructor(
@@ -26,30 +28,30 @@ export class ArticlesComponent implements OnInit, OnDestroy {
   ) {}
 
   ngOnInit(): void {
-    // Vérifier si l'utilisateur est déjà chargé avec ses abonnements
-    const currentUser = this.authService.getCurrentUser();
-    
-    if (currentUser && currentUser.subscriptions) {
-      // Charger les articles immédiatement
-      this.loadArticlesForUser(currentUser);
-    } else {
-      // Charger l'utilisateur depuis l'API puis charger les articles
-      this.authService.getMe()
-        .pipe(takeUntil(this.destroy$))
-        .subscribe({
-          next: (user) => this.loadArticlesForUser(user),
-          error: (error) => console.error('Erreur lors du chargement de l\'utilisateur:', error)
-        });
-    }
-    
-    // S'abonner aux changements de l'utilisateur (ex: après abonnement/désabonnement)
+    // Le fil est filtré et paginé côté serveur selon les abonnements de l'utilisateur
+    this.loadFeed();
+
+    // Recharger le fil quand l'utilisateur change (ex: après abonnement/désabonnement)
     this.authService.currentUser$
       .pipe(
-        filter(user => user !== null && user.subscriptions !== undefined),
+        filter(user => user !== null),
+        skip(1),
+        takeUntil(this.destroy$)
+      )
+      .subscribe({
+        next: () => this.loadFeed()
+      });
+
+    // Nouveaux articles poussés par le serveur ; à chaque reconnexion, la première page
+    // est rechargée pour récupérer les articles publiés pendant la coupure
+    this.apiService.streamFeed()
+      .pipe(
+        repeat({ delay: () => this.reloadAfter(5000) }),
+        retry({ delay: () => this.reloadAfter(5000) }),
         takeUntil(this.destroy$)
       )
       .subscribe({
-        next: (user) => this.loadArticlesForUser(user)
+        next: (article) => this.onArticleReceived(article)
       });
   }
 
@@ -58,26 +60,43 @@ export class ArticlesComponent implements OnInit, OnDestroy {
     this.destroy$.complete();
   }
 
-  private loadArticlesForUser(user: any): void {
-    this.apiService.getArticles()
+  onLoadMore(): void {
+    if (this.nextCursor && !this.isLoading) {
+      this.loadFeed(this.nextCursor);
+    }
+  }
+
+  private loadFeed(cursor: string | null = null): void {
+    this.isLoading = true;
+    this.apiService.getFeed(cursor)
       .pipe(takeUntil(this.destroy$))
       .subscribe({
-        next: (articles) => {
-          // Filtrer les articles pour ne garder que ceux des thèmes auxquels l'utilisateur est abonné
-          if (user.subscriptions && user.subscriptions.length > 0) {
-            const subscribedTopicIds = user.subscriptions.map((sub: any) => sub.id);
-            this.articles = articles.filter(article => subscribedTopicIds.includes(article.topicId));
-          } else {
-            this.articles = [];
-          }
+        next: (page) => {
+          // Première page : on remplace la liste, pages suivantes : on complète
+          this.articles = cursor ? [...this.articles, ...page.posts] : page.posts;
+          this.nextCursor = page.nextCursor;
+          this.isLoading = false;
           this.sortArticles();
         },
         error: (error) => {
+          this.isLoading = false;
           console.error('Erreur lors du chargement des articles', error);
         }
       });
   }
 
+  private reloadAfter(delay: number): Observable<number> {
+    return timer(delay).pipe(tap(() => this.loadFeed()));
+  }
+
+  private onArticleReceived(article: Article): void {
+    if (this.articles.some(existing => existing.id === article.id)) {
+      return;
+    }
+    this.articles = [article, ...this.articles];
+    this.sortArticles();
+  }
+
   trackByArticleId(index: number, article: Article): number {
     return article.id;
   }
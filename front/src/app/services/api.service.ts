@@ -1,8 +1,8 @@
 import { Injectable } from '@angular/core';
-import { HttpClient } from '@angular/common/http';
+import { HttpClient, HttpDownloadProgressEvent, HttpEventType, HttpParams } from '@angular/common/http';
 import { Observable } from 'rxjs';
 import { environment } from '../../environments/environment';
-import { Article, ArticleDetail, CreateArticlePayload, Comment, Theme } from '../models';
+import { Article, ArticleDetail, CreateArticlePayload, Comment, FeedPage, Theme } from '../models';
 
 @Injectable({
   providedIn: 'root'
@@ -16,6 +16,55 @@ export class ApiService {
     return this.http.get<Article[]>(`${this.baseUrl}/posts`);
   }
 
+  getFeed(cursor?: string | null): Observable<FeedPage> {
+    let params = new HttpParams();
+    if (cursor) {
+      params = params.set('cursor', cursor);
+    }
+    return this.http.get<FeedPage>(`${this.baseUrl}/feed`, { params });
+  }
+
+  /**
+   * Flux SSE des nouveaux articles des thèmes suivis.
+   * Lu via HttpClient (et non EventSource) pour que l'intercepteur ajoute le jeton JWT ;
+   * le flux se termine quand le serveur ferme la connexion.
+   */
+  streamFeed(): Observable<Article> {
+    return new Observable<Article>(subscriber => {
+      let parsed = 0;
+      const subscription = this.http.get(`${this.baseUrl}/stream/feed`, {
+        observe: 'events',
+        reportProgress: true,
+        responseType: 'text',
+        headers: { Accept: 'text/event-stream' }
+      }).subscribe({
+        next: (event) => {
+          if (event.type !== HttpEventType.DownloadProgress) {
+            return;
+          }
+          const text = (event as HttpDownloadProgressEvent).partialText ?? '';
+          // Seuls les événements complets (terminés par une ligne vide) sont lus
+          let end = text.indexOf('\n\n', parsed);
+          while (end !== -1) {
+            const lines = text.substring(parsed, end).split('\n');
+            parsed = end + 2;
+            if (lines.some(line => line.startsWith('event:') && line.substring(6).trim() === 'post')) {
+              const data = lines
+                .filter(line => line.startsWith('data:'))
+                .map(line => line.substring(5))
+                .join('\n');
+              subscriber.next(JSON.parse(data));
+            }
+            end = text.indexOf('\n\n', parsed);
+          }
+        },
+        error: (error) => subscriber.error(error),
+        complete: () => subscriber.complete()
+      });
+      return () => subscription.unsubscribe();
+    });
+  }
+
   getArticle(id: number): Observable<ArticleDetail> {
     return this.http.get<ArticleDetail>(`${this.baseUrl}/posts/${id}`);
   }